@@ -31,6 +31,12 @@ public class DFT
   private final DFTSlidingWindow window;
   private boolean frozen;
 
+  /**
+   * Spectral magnitudes, computed once upon freezing, such that
+   * comparisons do not need to recompute them.
+   */
+  private double magnitudes[];
+
   private DFT()
   {
     throw new UnsupportedOperationException("unsupported empty constructor");
@@ -53,6 +59,18 @@ public class DFT
     window.putBin(sample);
   }
 
+  /**
+   * Add the next block of samples from the slice for building the
+   * fingerprint of the associated slice.
+   */
+  public void addSamples(final double samples[],
+                         final int offset, final int length)
+  {
+    if (frozen)
+      throw new IllegalStateException("already frozen");
+    window.putBins(samples, offset, length);
+  }
+
   /**
    * Turns this object into an immutable state.
    */
@@ -61,13 +79,61 @@ public class DFT
     if (frozen)
       throw new IllegalStateException("already frozen");
     frozen = true;
+    magnitudes = new double[window.getSize()];
+    window.getMagnitudes(magnitudes);
+  }
+
+  public boolean isFrozen()
+  {
+    return frozen;
+  }
+
+  public int getResolution()
+  {
+    return window.getSize();
+  }
+
+  public double getLowerBound()
+  {
+    return window.getLowerBound();
+  }
+
+  public double getUpperBound()
+  {
+    return window.getUpperBound();
+  }
+
+  /**
+   * Returns a compacted copy of the fingerprint, i.e. the magnitudes
+   * of all spectral lines in single precision, as used by
+   * FingerprintIndex.
+   */
+  public float[] getFingerprint()
+  {
+    if (!frozen)
+      throw new IllegalStateException("need to freeze before evaluation");
+    final float fingerprint[] = new float[magnitudes.length];
+    for (int i = 0; i < magnitudes.length; i++) {
+      fingerprint[i] = (float)magnitudes[i];
+    }
+    return fingerprint;
   }
 
   public double distanceTo(final DFT other)
   {
     if (!frozen)
       throw new IllegalStateException("need to freeze before evaluation");
-    return window.distanceTo(other.window);
+    if (other.magnitudes == null)
+      return window.distanceTo(other.window);
+    if (other.magnitudes.length != magnitudes.length) {
+      throw new IllegalArgumentException("can not compare spectrum for windows of different size");
+    }
+    double sum = 0.0;
+    for (int i = 0; i < magnitudes.length; i++) {
+      final double diff = magnitudes[i] - other.magnitudes[i];
+      sum += diff * diff;
+    }
+    return sum;
   }
 }
 
@@ -26,17 +26,75 @@
  */
 package org.soundpaint.dst;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 
+/**
+ * Sliding DFT over the most recent size samples, evaluated at the
+ * same logarithmically spaced frequencies as the DST.  Spectral
+ * lines, coefficients and the ring buffer of samples are kept in
+ * primitive arrays, such that advancing the window by one sample
+ * neither allocates nor dispatches.
+ *
+ * With shift[i] = e^(i * phi[i]), line i is meant to hold
+ *
+ * window[i] = sum_{m=0}^{size-1} x[t - m] * shift[i]^(m + 1),
+ *
+ * which is updated per sample by
+ *
+ * window[i] := (window[i] + x[t] - shift[i]^size * x[t - size]) * shift[i].
+ *
+ * Since the frequencies generally do not fit an integral number of
+ * periods into the window, shift[i]^size differs from 1 and must be
+ * applied to the removed sample.
+ *
+ * Because |shift[i]| = 1, rounding errors of the update are never
+ * damped and accumulate over time.  Optionally, lines are therefore
+ * recomputed from the ring buffer in round robin, a few lines per
+ * sample, such that each line is resynchronized once per resync
+ * period at a bounded cost per sample; see setResyncPeriod().
+ */
 public class DFTSlidingWindow implements SlidingWindowTransform
 {
+  /**
+   * Number of spectral lines that are advanced together through a
+   * block of samples by putBins().
+   */
+  private final static int LINES_PER_TILE = 512;
+
   private final int size;
   private final double lowerBound, upperBound;
-  private final MutableComplex window[];
-  private final Complex signalWindow[];
-  private final Complex signalShift[];
-  private final Complex signalReverseShift[];
+  private final double windowRe[], windowIm[];
+  private final double signalShiftRe[], signalShiftIm[];
+
+  /**
+   * shift^size of each line, applied to the sample that leaves the
+   * window.
+   */
+  private final double removeShiftRe[], removeShiftIm[];
+
+  /**
+   * Reverse shift of each line, divided by size, such that the
+   * reconstructed sample is just the real part of the sum of all
+   * lines multiplied with their weight.
+   */
+  private final double reconstructionWeightRe[], reconstructionWeightIm[];
+
+  /**
+   * Ring buffer of the samples within the window; the oldest one is
+   * at slidePos.
+   */
+  private final double signalWindow[];
   private int slidePos;
+  private double insertSamples[], removeSamples[];
+  private long resyncPeriod;
+  private double resyncLinesPerSample;
+  private double resyncBudget;
+  private int resyncLine;
+  private final TransferFunctionCache filterCache;
 
   private DFTSlidingWindow()
   {
@@ -57,31 +115,40 @@ public class DFTSlidingWindow implements SlidingWindowTransform
     this.size = size;
     this.lowerBound = lowerBound;
     this.upperBound = upperBound;
-    window = new MutableComplex[size];
-    for (int i = 0; i < size; i++) {
-      window[i] = ComplexFactory.createMutableFromCartesian(0.0);
-    }
-    signalWindow = new Complex[size];
-    for (int i = 0; i < size; i++) {
-      signalWindow[i] = ComplexFactory.createFromCartesian(0.0);
-    }
-    signalShift = new Complex[size];
+    windowRe = new double[size];
+    windowIm = new double[size];
+    signalWindow = new double[size];
+    signalShiftRe = new double[size];
+    signalShiftIm = new double[size];
+    removeShiftRe = new double[size];
+    removeShiftIm = new double[size];
+    reconstructionWeightRe = new double[size];
+    reconstructionWeightIm = new double[size];
     final double bandWidthNatural = Math.log(upperBound / lowerBound);
     for (int i = 0; i < size; i++) {
       final double frac =
         lowerBound * Math.exp(((double)i) / size * bandWidthNatural);
-      signalShift[i] =
+      final Complex signalShift =
         ComplexFactory.createFromPolar(1.0, 2.0 * Math.PI * frac);
-    }
-    signalReverseShift = new Complex[size];
-    for (int i = 0; i < size; i++) {
-      final double frac =
-        lowerBound * Math.exp(((double)i) / size * bandWidthNatural);
-      signalReverseShift[i] =
+      signalShiftRe[i] = signalShift.getRealPart();
+      signalShiftIm[i] = signalShift.getImaginaryPart();
+      final double removeAngle = size * 2.0 * Math.PI * frac;
+      removeShiftRe[i] = Math.cos(removeAngle);
+      removeShiftIm[i] = Math.sin(removeAngle);
+      final Complex signalReverseShift =
         ComplexFactory.createFromPolar(1.0 / (2.0 * Math.PI),
                                        -2.0 * Math.PI * frac);
+      reconstructionWeightRe[i] = signalReverseShift.getRealPart() / size;
+      reconstructionWeightIm[i] = signalReverseShift.getImaginaryPart() / size;
     }
     slidePos = 0;
+    insertSamples = new double[0];
+    removeSamples = new double[0];
+    resyncPeriod = 0;
+    resyncLinesPerSample = 0.0;
+    resyncBudget = 0.0;
+    resyncLine = 0;
+    filterCache = new TransferFunctionCache(size);
   }
 
   public void printInfo(final PrintStream out, final double samplingFrequency)
@@ -123,25 +190,178 @@ public class DFTSlidingWindow implements SlidingWindowTransform
     }
     double sum = 0.0;
     for (int i = 0; i < size; i++) {
-      final double diff = window[i].getLength() - other.window[i].getLength();
+      final double diff =
+        Math.sqrt(windowRe[i] * windowRe[i] + windowIm[i] * windowIm[i]) -
+        Math.sqrt(other.windowRe[i] * other.windowRe[i] +
+                  other.windowIm[i] * other.windowIm[i]);
       sum += diff * diff;
     }
     return sum;
   }
 
-  public void putBin(final double sample)
+  /**
+   * Sets the number of samples after which each spectral line is
+   * recomputed exactly from the samples within the window, thus
+   * discarding any accumulated rounding error.  The recomputation is
+   * spread evenly over the period, costing about size * size /
+   * resyncPeriod complex multiply-adds per sample on top of the
+   * regular update of size complex multiply-adds; e.g. a period of
+   * 16 * size adds about 6 percent.  No single call of putBin() or
+   * putBins() recomputes more than size lines, such that a long
+   * block never pays for more than one full pass.  Defaults to 0,
+   * i.e. no resynchronization.
+   */
+  public void setResyncPeriod(final long resyncPeriod)
+  {
+    if (resyncPeriod < 0) {
+      throw new IllegalArgumentException("resync period < 0");
+    }
+    this.resyncPeriod = resyncPeriod;
+    resyncLinesPerSample =
+      resyncPeriod > 0 ? (double)size / resyncPeriod : 0.0;
+    resyncBudget = 0.0;
+  }
+
+  public long getResyncPeriod()
+  {
+    return resyncPeriod;
+  }
+
+  /**
+   * Stores the sample into the ring buffer and returns the sample
+   * that it replaces.
+   */
+  private double slide(final double sample)
   {
-    final Complex insertSample =
-      ComplexFactory.createFromCartesian(sample, 0.0);
-    final Complex removeSample = signalWindow[slidePos];
-    signalWindow[slidePos] = insertSample;
+    final double removeSample = signalWindow[slidePos];
+    signalWindow[slidePos] = sample;
     slidePos++;
-    slidePos %= size;
+    if (slidePos == size) {
+      slidePos = 0;
+    }
+    return removeSample;
+  }
+
+  /**
+   * window[i] := (window[i] + insertSample - removeShift[i] *
+   * removeSample) * shift[i] for each line i in [from, to).
+   */
+  private void updateLines(final double insertSample,
+                           final double removeSample,
+                           final int from, final int to)
+  {
+    for (int i = from; i < to; i++) {
+      final double re =
+        windowRe[i] + insertSample - removeSample * removeShiftRe[i];
+      final double im = windowIm[i] - removeSample * removeShiftIm[i];
+      windowRe[i] = re * signalShiftRe[i] - im * signalShiftIm[i];
+      windowIm[i] = re * signalShiftIm[i] + im * signalShiftRe[i];
+    }
+  }
+
+  /**
+   * Recomputes line i from the ring buffer by Horner's scheme, from
+   * the oldest sample to the newest one.
+   */
+  private void resyncLine(final int i)
+  {
+    final double shiftRe = signalShiftRe[i];
+    final double shiftIm = signalShiftIm[i];
+    double re = 0.0;
+    double im = 0.0;
+    for (int pos = slidePos; pos < size; pos++) {
+      final double sumRe = re + signalWindow[pos];
+      re = sumRe * shiftRe - im * shiftIm;
+      im = sumRe * shiftIm + im * shiftRe;
+    }
+    for (int pos = 0; pos < slidePos; pos++) {
+      final double sumRe = re + signalWindow[pos];
+      re = sumRe * shiftRe - im * shiftIm;
+      im = sumRe * shiftIm + im * shiftRe;
+    }
+    windowRe[i] = re;
+    windowIm[i] = im;
+  }
+
+  /**
+   * Resynchronizes as many lines as are due after the specified
+   * number of samples, but at most size lines.  Since one full pass
+   * already discards all accumulated error, a budget beyond that is
+   * dropped rather than carried over into the following calls.
+   */
+  private void resync(final int samples)
+  {
+    if (resyncPeriod == 0) {
+      return;
+    }
+    resyncBudget = Math.min(resyncBudget + samples * resyncLinesPerSample,
+                            size);
+    final int lines = (int)resyncBudget;
+    for (int count = 0; count < lines; count++) {
+      resyncLine(resyncLine);
+      resyncLine++;
+      if (resyncLine == size) {
+        resyncLine = 0;
+      }
+    }
+    resyncBudget -= lines;
+  }
+
+  /**
+   * Recomputes all spectral lines exactly from the samples within
+   * the window at once.
+   */
+  public void resyncAll()
+  {
     for (int i = 0; i < size; i++) {
-      window[i].sub(removeSample);
-      window[i].add(insertSample);
-      window[i].mul(signalShift[i]);
+      resyncLine(i);
+    }
+  }
+
+  public void putBin(final double sample)
+  {
+    SampleChecks.checkSample(sample);
+    final double removeSample = slide(sample);
+    updateLines(sample, removeSample, 0, size);
+    resync(1);
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length)
+  {
+    putBins(samples, offset, length, null);
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length,
+                      final SampleListener listener)
+  {
+    SampleChecks.checkBlock(samples, offset, length);
+    if (listener != null) {
+      for (int j = 0; j < length; j++) {
+        putBin(samples[offset + j]);
+        listener.samplePut(this, offset + j);
+      }
+      return;
+    }
+    if (insertSamples.length < length) {
+      insertSamples = new double[length];
+      removeSamples = new double[length];
+    }
+    // Run the ring buffer ahead of the spectrum, such that the
+    // spectral lines can then be advanced tile by tile.
+    for (int j = 0; j < length; j++) {
+      SampleChecks.checkSample(samples[offset + j]);
+      insertSamples[j] = samples[offset + j];
+      removeSamples[j] = slide(samples[offset + j]);
     }
+    for (int tileStart = 0; tileStart < size; tileStart += LINES_PER_TILE) {
+      final int tileStop = Math.min(tileStart + LINES_PER_TILE, size);
+      for (int j = 0; j < length; j++) {
+        updateLines(insertSamples[j], removeSamples[j], tileStart, tileStop);
+      }
+    }
+    resync(length);
   }
 
   public Complex getLine(final int index)
@@ -149,7 +369,116 @@ public class DFTSlidingWindow implements SlidingWindowTransform
     if ((index < 0) || (index >= size)) {
       throw new IllegalArgumentException("index out of range");
     }
-    return window[index];
+    return ComplexFactory.createFromCartesian(windowRe[index],
+                                              windowIm[index]);
+  }
+
+  public void copyState(final double re[], final double im[])
+  {
+    SpectrumExport.checkBuffer(re, size);
+    SpectrumExport.checkBuffer(im, size);
+    SpectrumExport.copyState(windowRe, windowIm, 0, re, im, 0, size);
+  }
+
+  private long getConfigFingerprint()
+  {
+    return
+      StateSnapshot.fingerprint(StateSnapshot.KIND_DFT, size,
+                                Double.doubleToLongBits(lowerBound),
+                                Double.doubleToLongBits(upperBound));
+  }
+
+  /**
+   * Writes the current state, i.e. all spectral lines plus the ring
+   * buffer of samples within the window and its current position, and
+   * the progress of the round robin resynchronization, to the channel,
+   * such that it can be restored later.  The snapshot carries a
+   * fingerprint of size and bounds; the resync period itself is
+   * configuration and not part of the snapshot.
+   */
+  public void snapshot(final WritableByteChannel channel) throws IOException
+  {
+    final ByteBuffer buffer =
+      StateSnapshot.createBuffer(StateSnapshot.KIND_DFT,
+                                 getConfigFingerprint(), size,
+                                 getSnapshotPayloadLength());
+    buffer.putInt(slidePos);
+    buffer.putInt(resyncLine);
+    buffer.putDouble(resyncBudget);
+    for (int i = 0; i < size; i++) {
+      buffer.putDouble(windowRe[i]);
+      buffer.putDouble(windowIm[i]);
+    }
+    buffer.asDoubleBuffer().put(signalWindow);
+    buffer.position(buffer.position() + size * Double.BYTES);
+    StateSnapshot.write(buffer, channel);
+  }
+
+  private int getSnapshotPayloadLength()
+  {
+    return 2 * Integer.BYTES + Double.BYTES + 3 * size * Double.BYTES;
+  }
+
+  /**
+   * Replaces the current state with a snapshot read from the channel.
+   * @exception IOException If the snapshot is incomplete or corrupt,
+   * or has been taken from a DFT with different size or bounds.  In
+   * that case, the current state remains unchanged.
+   */
+  public void restore(final ReadableByteChannel channel) throws IOException
+  {
+    final ByteBuffer buffer =
+      StateSnapshot.read(channel, StateSnapshot.KIND_DFT,
+                         getConfigFingerprint(), size,
+                         getSnapshotPayloadLength());
+    final int slidePos = buffer.getInt();
+    if ((slidePos < 0) || (slidePos >= size)) {
+      throw new IOException("snapshot has bad ring buffer position");
+    }
+    final int resyncLine = buffer.getInt();
+    if ((resyncLine < 0) || (resyncLine >= size)) {
+      throw new IOException("snapshot has bad resync position");
+    }
+    final double resyncBudget = buffer.getDouble();
+    if (!(resyncBudget >= 0.0) || (resyncBudget > size)) {
+      throw new IOException("snapshot has bad resync budget");
+    }
+    this.slidePos = slidePos;
+    this.resyncLine = resyncLine;
+    this.resyncBudget = resyncBudget;
+    for (int i = 0; i < size; i++) {
+      windowRe[i] = buffer.getDouble();
+      windowIm[i] = buffer.getDouble();
+    }
+    buffer.asDoubleBuffer().get(signalWindow);
+  }
+
+  public void getPower(final double power[])
+  {
+    SpectrumExport.checkBuffer(power, size);
+    SpectrumExport.getPower(windowRe, windowIm, 0, power, 0, size);
+  }
+
+  public void getMagnitudes(final double magnitudes[])
+  {
+    SpectrumExport.checkBuffer(magnitudes, size);
+    SpectrumExport.getMagnitudes(windowRe, windowIm, 0, magnitudes, 0, size);
+  }
+
+  public void getLogMagnitudes(final float logMagnitudes[],
+                               final double floor,
+                               final boolean approximate)
+  {
+    SpectrumExport.checkBuffer(logMagnitudes, size);
+    SpectrumExport.getLogMagnitudes(windowRe, windowIm, 0,
+                                    logMagnitudes, 0, size,
+                                    floor, approximate);
+  }
+
+  public void getPhases(final double phases[])
+  {
+    SpectrumExport.checkBuffer(phases, size);
+    SpectrumExport.getPhases(windowRe, windowIm, 0, phases, 0, size);
   }
 
   public double getReconstructedSample()
@@ -159,24 +488,28 @@ public class DFTSlidingWindow implements SlidingWindowTransform
 
   public double getReconstructedSample(final TransferFunction filter)
   {
-    if ((filter != null) && (filter.getLength() != size)) {
-      throw new IllegalArgumentException("bad filter length");
+    double sum = 0.0;
+    if (filter == null) {
+      for (int i = 0; i < size; i++) {
+        sum +=
+          windowRe[i] * reconstructionWeightRe[i] -
+          windowIm[i] * reconstructionWeightIm[i];
+      }
+      return sum;
     }
-    final MutableComplex sample =
-      ComplexFactory.createMutableFromCartesian(0.0);
+    filterCache.update(filter);
+    final double filterRe[] = filterCache.getRe();
+    final double filterIm[] = filterCache.getIm();
     for (int i = 0; i < size; i++) {
-      final MutableComplex line =
-        ComplexFactory.createMutableFromCartesian(window[i]);
-      line.mul(signalReverseShift[i]);
-      if (filter != null) {
-        final Complex transferValue =
-          ComplexFactory.createFromCartesian(filter.getTransferValue(i));
-        line.mul(transferValue);
-      }
-      sample.add(line);
+      final double lineRe =
+        windowRe[i] * reconstructionWeightRe[i] -
+        windowIm[i] * reconstructionWeightIm[i];
+      final double lineIm =
+        windowRe[i] * reconstructionWeightIm[i] +
+        windowIm[i] * reconstructionWeightRe[i];
+      sum += lineRe * filterRe[i] - lineIm * filterIm[i];
     }
-    sample.mul(+1.0 / size);
-    return sample.getRealPart();
+    return sum;
   }
 }
 
@@ -0,0 +1,218 @@
+/*
+ * DSTCoefficients.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+/**
+ * Immutable table of the per-line coefficients of a DST with given
+ * coupling constant, number of spectral lines and frequency bounds.
+ * Since the table depends only on these parameters, it can be shared
+ * among any number of DST instances with the same parameters, which
+ * then only need to store their spectrum state.
+ */
+public class DSTCoefficients
+{
+  /**
+   * Single precision form of the coefficients, as used by the single
+   * precision update of DSTKernel: delta = shift - 1, split into a
+   * float high part and a float low part that carries the rounding
+   * error of the high part.  The low part is applied first, so it is
+   * divided by 1 + deltaHi, such that both steps together add exactly
+   * delta.  Since the insert weight equals -delta, no separate weight
+   * is needed.
+   */
+  static class SinglePrecision
+  {
+    final float deltaHiRe[], deltaHiIm[];
+    final float deltaLoRe[], deltaLoIm[];
+
+    private SinglePrecision()
+    {
+      throw new UnsupportedOperationException("unsupported empty constructor");
+    }
+
+    private SinglePrecision(final double shiftRe[], final double shiftIm[])
+    {
+      final int size = shiftRe.length;
+      deltaHiRe = new float[size];
+      deltaHiIm = new float[size];
+      deltaLoRe = new float[size];
+      deltaLoIm = new float[size];
+      for (int i = 0; i < size; i++) {
+        final double deltaRe = shiftRe[i] - 1.0;
+        final double deltaIm = shiftIm[i];
+        deltaHiRe[i] = (float)deltaRe;
+        deltaHiIm[i] = (float)deltaIm;
+        final double loRe = deltaRe - deltaHiRe[i];
+        final double loIm = deltaIm - deltaHiIm[i];
+        final double divisorRe = 1.0 + deltaHiRe[i];
+        final double divisorIm = deltaHiIm[i];
+        final double divisor2 = divisorRe * divisorRe + divisorIm * divisorIm;
+        deltaLoRe[i] =
+          (float)((loRe * divisorRe + loIm * divisorIm) / divisor2);
+        deltaLoIm[i] =
+          (float)((loIm * divisorRe - loRe * divisorIm) / divisor2);
+      }
+    }
+  }
+
+  private final double μ0;
+  private final int size;
+  private final double lowerBound, upperBound;
+
+  /**
+   * Per-sample rotation and decay of each spectral line.
+   */
+  final double shiftRe[], shiftIm[];
+
+  /**
+   * Precomputed factor (1 - shift) for adding the next sample;
+   * this way, adding the sample and subtracting the shifted sample
+   * boils down to a single multiply-add.
+   */
+  final double weightRe[], weightIm[];
+
+  /**
+   * Per-sample rotation angle of each spectral line, i.e. the
+   * argument of shift, for computing powers of shift in closed form.
+   */
+  final double phase[];
+
+  /**
+   * Created upon first use, such that tables used only in double
+   * precision do not carry it.
+   */
+  private SinglePrecision singlePrecision;
+
+  private DSTCoefficients()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  public DSTCoefficients(final double μ0, final int size,
+                         final double lowerBound, final double upperBound)
+  {
+    if ((μ0 < 0.0) || (μ0 >= 1.0)) {
+      throw new IllegalArgumentException("μ0 not in [0.0..1.0)");
+    }
+    this.μ0 = μ0;
+    if (size <= 0) {
+      throw new IllegalArgumentException("window size <= 0");
+    }
+    this.size = size;
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+    shiftRe = new double[size];
+    shiftIm = new double[size];
+    weightRe = new double[size];
+    weightIm = new double[size];
+    computeCoefficients(μ0, size, lowerBound, upperBound, 0, size,
+                        shiftRe, shiftIm, weightRe, weightIm, 0);
+    phase = new double[size];
+    for (int i = 0; i < size; i++) {
+      phase[i] = computePhase(size, lowerBound, upperBound, i);
+    }
+  }
+
+  /**
+   * Returns the per-sample rotation angle of spectral line i of a DST
+   * with the specified parameters.
+   */
+  static double computePhase(final int size,
+                             final double lowerBound,
+                             final double upperBound,
+                             final int i)
+  {
+    final double bandWidthNatural = Math.log(upperBound / lowerBound);
+    final double frac =
+      lowerBound * Math.exp(((double)i) / size * bandWidthNatural);
+    return -2.0 * Math.PI * frac;
+  }
+
+  /**
+   * Computes signal shift and insert weight of the spectral lines
+   * [from, to) of a DST with the specified parameters and stores
+   * them into the specified arrays, starting at the specified
+   * offset.
+   */
+  static void computeCoefficients(final double μ0, final int size,
+                                  final double lowerBound,
+                                  final double upperBound,
+                                  final int from, final int to,
+                                  final double shiftRe[],
+                                  final double shiftIm[],
+                                  final double weightRe[],
+                                  final double weightIm[],
+                                  final int offset)
+  {
+    for (int i = from; i < to; i++) {
+      final double phi = computePhase(size, lowerBound, upperBound, i);
+      final int pos = offset + i - from;
+      shiftRe[pos] = μ0 * Math.cos(phi);
+      shiftIm[pos] = μ0 * Math.sin(phi);
+      weightRe[pos] = 1.0 - shiftRe[pos];
+      weightIm[pos] = -shiftIm[pos];
+    }
+  }
+
+  /**
+   * Returns the single precision form of this table, which, like the
+   * table itself, is shared among all DSTs using this table.
+   */
+  synchronized SinglePrecision getSinglePrecision()
+  {
+    if (singlePrecision == null) {
+      singlePrecision = new SinglePrecision(shiftRe, shiftIm);
+    }
+    return singlePrecision;
+  }
+
+  public double getμ0()
+  {
+    return μ0;
+  }
+
+  public int getSize()
+  {
+    return size;
+  }
+
+  public double getLowerBound()
+  {
+    return lowerBound;
+  }
+
+  public double getUpperBound()
+  {
+    return upperBound;
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,97 @@
+/*
+ * DSTKernel.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+/**
+ * Computational core of the DST: advances a range of spectral lines
+ * by one sample.  Implementations differ only in how they exploit the
+ * hardware; all of them must compute the same recurrence
+ *
+ * window[i] := window[i] * shift[i] + sample * weight[i]
+ *
+ * for each line i in the specified range, with all complex values
+ * split into separate arrays for real and imaginary parts.  State and
+ * coefficients are deliberately indexed alike: with differing indices,
+ * the JIT compiler can not rule out overlapping arrays and refrains
+ * from vectorizing the scalar kernel.
+ *
+ * For single precision state, the same recurrence is computed in the
+ * equivalent form
+ *
+ * window[i] := window[i] + (window[i] - sample) * deltaLo[i]
+ * window[i] := window[i] + (window[i] - sample) * deltaHi[i]
+ *
+ * with deltaHi and deltaLo the high and low float parts of
+ * delta = shift - 1 = -weight, as provided by
+ * DSTCoefficients.SinglePrecision.  Rounding delta to a single float
+ * would misplace the pole of each line by up to 6e-8, which is not
+ * negligible against 1 - μ0 for μ0 close to 1, and would make the
+ * error of each line grow with the time constant rather than stay at
+ * the order of the rounding of the state.
+ */
+interface DSTKernel
+{
+  /**
+   * Returns a short human readable name of this kernel.
+   */
+  String getName();
+
+  void updateLines(final double windowRe[], final double windowIm[],
+                   final double shiftRe[], final double shiftIm[],
+                   final double weightRe[], final double weightIm[],
+                   final double sample, final int from, final int to);
+
+  /**
+   * Single precision variant of updateLines(), see above.
+   */
+  void updateLines(final float windowRe[], final float windowIm[],
+                   final float deltaHiRe[], final float deltaHiIm[],
+                   final float deltaLoRe[], final float deltaLoIm[],
+                   final float sample, final int from, final int to);
+
+  /**
+   * Like updateLines(), but additionally returns the sum of the real
+   * parts of the updated lines, each multiplied with the respective
+   * filter value before, such that a sample can be reconstructed in
+   * the same pass over the state.
+   * @param filterRe The real parts of the filter values, or
+   * <code>null</code> for summing up the lines unfiltered.
+   * @param filterIm The imaginary parts of the filter values.
+   * Ignored, if filterRe is <code>null</code>.
+   */
+  double updateLinesAndSum(final double windowRe[], final double windowIm[],
+                           final double shiftRe[], final double shiftIm[],
+                           final double weightRe[], final double weightIm[],
+                           final double filterRe[], final double filterIm[],
+                           final double sample, final int from, final int to);
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,239 @@
+/*
+ * DSTKernelFactory.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.util.Random;
+
+/**
+ * Selects the fastest DST kernel that is available on the running
+ * JVM.  The choice can be overridden with the system property
+ * "org.soundpaint.dst.kernel" set to either "scalar" or "vector".
+ */
+public class DSTKernelFactory
+{
+  public static final String KERNEL_PROPERTY = "org.soundpaint.dst.kernel";
+
+  private static final String VECTOR_KERNEL_CLASS_NAME =
+    "org.soundpaint.dst.VectorDSTKernel";
+
+  /**
+   * Maximum deviation of any spectral line of a candidate kernel from
+   * the scalar kernel during the self check, relative to the largest
+   * line magnitude.
+   */
+  private static final double SELF_CHECK_TOLERANCE = 1.0e-9;
+
+  /**
+   * Same as SELF_CHECK_TOLERANCE for the single precision update.
+   */
+  private static final double SELF_CHECK_SINGLE_TOLERANCE = 1.0e-5;
+
+  private static final int SELF_CHECK_LINES = 67;
+  private static final int SELF_CHECK_SAMPLES = 4096;
+
+  private static final DSTKernel SCALAR_KERNEL = new ScalarDSTKernel();
+
+  private static DSTKernel defaultKernel;
+
+  private DSTKernelFactory()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  static DSTKernel createScalarKernel()
+  {
+    return SCALAR_KERNEL;
+  }
+
+  /**
+   * Returns the vector kernel, or <code>null</code>, if the JDK
+   * Vector API is not available.
+   */
+  static DSTKernel createVectorKernel()
+  {
+    try {
+      return
+        (DSTKernel)Class.forName(VECTOR_KERNEL_CLASS_NAME).
+        getDeclaredConstructor().newInstance();
+    } catch (final Exception | LinkageError e) {
+      // class not compiled or module jdk.incubator.vector not present
+      return null;
+    }
+  }
+
+  static synchronized DSTKernel getDefault()
+  {
+    if (defaultKernel == null) {
+      defaultKernel = selectKernel();
+    }
+    return defaultKernel;
+  }
+
+  /**
+   * Returns the name of the kernel that DST implementations use by
+   * default.
+   */
+  public static String getDefaultKernelName()
+  {
+    return getDefault().getName();
+  }
+
+  private static DSTKernel selectKernel()
+  {
+    final String choice = System.getProperty(KERNEL_PROPERTY);
+    if ("scalar".equals(choice)) {
+      return SCALAR_KERNEL;
+    }
+    final DSTKernel vectorKernel = createVectorKernel();
+    if (vectorKernel == null) {
+      if ("vector".equals(choice)) {
+        System.err.println("[vector kernel requested, but JDK Vector API " +
+                           "not available; falling back to scalar kernel]");
+      }
+      return SCALAR_KERNEL;
+    }
+    final double deviation = selfCheck(vectorKernel);
+    if (!(deviation <= SELF_CHECK_TOLERANCE)) {
+      System.err.println("[vector kernel failed self check " +
+                         "(relative deviation " + deviation +
+                         "); falling back to scalar kernel]");
+      return SCALAR_KERNEL;
+    }
+    final double singleDeviation = selfCheckSingle(vectorKernel);
+    if (!(singleDeviation <= SELF_CHECK_SINGLE_TOLERANCE)) {
+      System.err.println("[vector kernel failed single precision self " +
+                         "check (relative deviation " + singleDeviation +
+                         "); falling back to scalar kernel]");
+      return SCALAR_KERNEL;
+    }
+    return vectorKernel;
+  }
+
+  /**
+   * Runs a noisy test signal through both, the candidate kernel and
+   * the scalar kernel, and returns the maximum deviation of any
+   * spectral line, relative to the largest line magnitude, or of any
+   * reconstructed sample, relative to the largest sample, whichever
+   * is larger.  The odd
+   * number of lines also exercises the tail handling of vectorized
+   * kernels.
+   */
+  private static double[] createSelfCheckSamples()
+  {
+    final Random random = new Random(SELF_CHECK_SAMPLES);
+    final double samples[] = new double[SELF_CHECK_SAMPLES];
+    for (int j = 0; j < samples.length; j++) {
+      samples[j] = Math.sin(0.05 * j) + 0.25 * random.nextGaussian();
+    }
+    return samples;
+  }
+
+  /**
+   * Returns the maximum deviation of any spectral line of the
+   * candidate transform from the expected one, relative to the
+   * largest line magnitude.
+   */
+  private static double getLineError(final SlidingWindowTransform expected,
+                                     final SlidingWindowTransform actual)
+  {
+    double maxLength = 0.0;
+    double maxDiff = 0.0;
+    for (int i = 0; i < SELF_CHECK_LINES; i++) {
+      final Complex expectedLine = expected.getLine(i);
+      final Complex actualLine = actual.getLine(i);
+      final double diffRe =
+        expectedLine.getRealPart() - actualLine.getRealPart();
+      final double diffIm =
+        expectedLine.getImaginaryPart() - actualLine.getImaginaryPart();
+      maxLength = Math.max(maxLength, expectedLine.getLength());
+      maxDiff = Math.max(maxDiff, Math.sqrt(diffRe * diffRe + diffIm * diffIm));
+    }
+    return maxLength > 0.0 ? maxDiff / maxLength : maxDiff;
+  }
+
+  /**
+   * Like selfCheck(), but for the single precision update, comparing
+   * the spectral lines only.
+   */
+  static double selfCheckSingle(final DSTKernel candidate)
+  {
+    final DSTCoefficients coefficients =
+      new DSTCoefficients(DSTSlidingWindow.DEFAULT_μ0, SELF_CHECK_LINES,
+                          SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                          SlidingWindowTransform.DEFAULT_UPPER_BOUND);
+    final FloatDSTSlidingWindow expected =
+      new FloatDSTSlidingWindow(coefficients, SCALAR_KERNEL);
+    final FloatDSTSlidingWindow actual =
+      new FloatDSTSlidingWindow(coefficients, candidate);
+    final double samples[] = createSelfCheckSamples();
+    expected.putBins(samples, 0, samples.length);
+    actual.putBins(samples, 0, samples.length);
+    return getLineError(expected, actual);
+  }
+
+  static double selfCheck(final DSTKernel candidate)
+  {
+    final DSTSlidingWindow expected =
+      new DSTSlidingWindow(DSTSlidingWindow.DEFAULT_μ0, SELF_CHECK_LINES,
+                           SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                           SlidingWindowTransform.DEFAULT_UPPER_BOUND,
+                           SCALAR_KERNEL);
+    final DSTSlidingWindow actual =
+      new DSTSlidingWindow(DSTSlidingWindow.DEFAULT_μ0, SELF_CHECK_LINES,
+                           SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                           SlidingWindowTransform.DEFAULT_UPPER_BOUND,
+                           candidate);
+    final double samples[] = createSelfCheckSamples();
+    final int half = samples.length / 2;
+    expected.putBins(samples, 0, half);
+    actual.putBins(samples, 0, half);
+    final double expectedSamples[] = new double[samples.length - half];
+    final double actualSamples[] = new double[samples.length - half];
+    expected.reconstruct(samples, half, samples.length - half,
+                         expectedSamples, 0, null);
+    actual.reconstruct(samples, half, samples.length - half,
+                       actualSamples, 0, null);
+    double maxSample = 0.0;
+    double maxSampleDiff = 0.0;
+    for (int j = 0; j < expectedSamples.length; j++) {
+      maxSample = Math.max(maxSample, Math.abs(expectedSamples[j]));
+      maxSampleDiff =
+        Math.max(maxSampleDiff,
+                 Math.abs(expectedSamples[j] - actualSamples[j]));
+    }
+    final double lineError = getLineError(expected, actual);
+    final double sampleError =
+      maxSample > 0.0 ? maxSampleDiff / maxSample : maxSampleDiff;
+    return Math.max(lineError, sampleError);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
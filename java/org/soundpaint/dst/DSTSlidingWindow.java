@@ -26,7 +26,12 @@
  */
 package org.soundpaint.dst;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
 
 public class DSTSlidingWindow implements SlidingWindowTransform
 {
@@ -35,6 +40,23 @@ public class DSTSlidingWindow implements SlidingWindowTransform
 
   public final static double DEFAULT_μ0 = 1.0 - DEFAULT_α;
 
+  /**
+   * Number of spectral lines that are advanced together through a
+   * block of samples by putBins().  With six double values of state
+   * and coefficients per line, a tile of 512 lines occupies 24kB,
+   * thus fitting into a typical 32kB L1 data cache.
+   */
+  final static int LINES_PER_TILE = 512;
+
+  /**
+   * Minimum number of consecutive silent samples within a block for
+   * putBins() to fast-forward over them with advanceSilence() rather
+   * than to update the lines sample by sample.  Roughly the break-even
+   * point of one complex power per line (a cos and a sin) against the
+   * per-sample multiply-adds.
+   */
+  private final static int MIN_SILENCE_RUN = 64;
+
   // @TODO: Clarify: Shall μ(FREQ) = μ0 be frequency dependent?
   // E.g. something like μ(FREQ) = 1.0 - Math.exp(FREQ *
   // Math.log(μ0))?
@@ -42,8 +64,22 @@ public class DSTSlidingWindow implements SlidingWindowTransform
   private final double μ0;
   private final int size;
   private final double lowerBound, upperBound;
-  private final MutableComplex window[];
-  private final Complex signalShift[];
+
+  /*
+   * Spectrum state and coefficients are kept as separate primitive
+   * arrays for the real and imaginary parts, such that updating the
+   * spectrum for a new sample does not allocate any object.  The
+   * coefficients are shared with the coefficients table.
+   */
+  private final double windowRe[], windowIm[];
+  private final DSTCoefficients coefficients;
+  private final double signalShiftRe[], signalShiftIm[];
+  private final double insertWeightRe[], insertWeightIm[];
+  private final double phase[];
+
+  private final DSTKernel kernel;
+  private final TransferFunctionCache filterCache;
+  private double silenceThreshold;
 
   private DSTSlidingWindow()
   {
@@ -64,28 +100,45 @@ public class DSTSlidingWindow implements SlidingWindowTransform
   public DSTSlidingWindow(final double μ0, final int size,
                           final double lowerBound, final double upperBound)
   {
-    if ((μ0 < 0.0) || (μ0 >= 1.0)) {
-      throw new IllegalArgumentException("μ0 not in [0.0..1.0)");
-    }
-    this.μ0 = μ0;
-    if (size <= 0) {
-      throw new IllegalArgumentException("window size <= 0");
-    }
-    this.size = size;
-    this.lowerBound = lowerBound;
-    this.upperBound = upperBound;
-    window = new MutableComplex[size];
-    for (int i = 0; i < size; i++) {
-      window[i] = ComplexFactory.createMutableFromCartesian(0.0);
-    }
-    signalShift = new Complex[size];
-    final double bandWidthNatural = Math.log(upperBound / lowerBound);
-    for (int i = 0; i < size; i++) {
-      final double frac =
-        lowerBound * Math.exp(((double)i) / size * bandWidthNatural);
-      signalShift[i] =
-        ComplexFactory.createFromPolar(μ0, -2.0 * Math.PI * frac);
+    this(new DSTCoefficients(μ0, size, lowerBound, upperBound));
+  }
+
+  /**
+   * Creates a DST that shares the specified coefficients table with
+   * other DST instances.
+   */
+  public DSTSlidingWindow(final DSTCoefficients coefficients)
+  {
+    this(coefficients, DSTKernelFactory.getDefault());
+  }
+
+  DSTSlidingWindow(final double μ0, final int size,
+                   final double lowerBound, final double upperBound,
+                   final DSTKernel kernel)
+  {
+    this(new DSTCoefficients(μ0, size, lowerBound, upperBound), kernel);
+  }
+
+  DSTSlidingWindow(final DSTCoefficients coefficients, final DSTKernel kernel)
+  {
+    this.coefficients = coefficients;
+    μ0 = coefficients.getμ0();
+    size = coefficients.getSize();
+    lowerBound = coefficients.getLowerBound();
+    upperBound = coefficients.getUpperBound();
+    windowRe = new double[size];
+    windowIm = new double[size];
+    signalShiftRe = coefficients.shiftRe;
+    signalShiftIm = coefficients.shiftIm;
+    insertWeightRe = coefficients.weightRe;
+    insertWeightIm = coefficients.weightIm;
+    phase = coefficients.phase;
+    silenceThreshold = 0.0;
+    if (kernel == null) {
+      throw new NullPointerException("kernel");
     }
+    this.kernel = kernel;
+    filterCache = new TransferFunctionCache(size);
   }
 
   public void printInfo(final PrintStream out, final double samplingFrequency)
@@ -103,6 +156,7 @@ public class DSTSlidingWindow implements SlidingWindowTransform
     out.println("band width [octaves]: " + bandWidthInOctaves);
     out.println("band width [cent]: " + bandWidthInCent);
     out.println("resolution [cent per spectral line]: " + resolution);
+    out.println("update kernel: " + kernel.getName());
   }
 
   public int getSize()
@@ -110,6 +164,16 @@ public class DSTSlidingWindow implements SlidingWindowTransform
     return size;
   }
 
+  public double getμ0()
+  {
+    return μ0;
+  }
+
+  public DSTCoefficients getCoefficients()
+  {
+    return coefficients;
+  }
+
   public double getLowerBound()
   {
     return lowerBound;
@@ -127,32 +191,257 @@ public class DSTSlidingWindow implements SlidingWindowTransform
     }
     double sum = 0.0;
     for (int i = 0; i < size; i++) {
-      final double diff = window[i].getLength() - other.window[i].getLength();
+      final double diff =
+        Math.sqrt(windowRe[i] * windowRe[i] + windowIm[i] * windowIm[i]) -
+        Math.sqrt(other.windowRe[i] * other.windowRe[i] +
+                  other.windowIm[i] * other.windowIm[i]);
       sum += diff * diff;
     }
     return sum;
   }
 
+  /**
+   * Advances the spectral lines in the range [from, to) by the
+   * specified sample.
+   */
+  private void updateLines(final double sample, final int from, final int to)
+  {
+    kernel.updateLines(windowRe, windowIm, signalShiftRe, signalShiftIm,
+                       insertWeightRe, insertWeightIm, sample, from, to);
+  }
+
   public void putBin(final double sample)
   {
-    final Complex insertSample =
-      ComplexFactory.createFromCartesian(sample, 0.0);
+    SampleChecks.checkSample(sample);
+    updateLines(sample, 0, size);
+  }
+
+  /**
+   * Sets the magnitude up to which samples are considered silent by
+   * putBins().  Within runs of silent samples, any sample is treated
+   * as zero, such that the run can be skipped with advanceSilence().
+   * Defaults to 0.0, i.e. only exact digital silence is skipped,
+   * which leaves the result unaffected except for rounding.
+   */
+  public void setSilenceThreshold(final double silenceThreshold)
+  {
+    if (!(silenceThreshold >= 0.0)) {
+      throw new IllegalArgumentException("silence threshold < 0.0");
+    }
+    this.silenceThreshold = silenceThreshold;
+  }
+
+  public double getSilenceThreshold()
+  {
+    return silenceThreshold;
+  }
+
+  /**
+   * Moves forward the sliding window by the specified number of
+   * zero-valued samples.  Since for zero input, the state of each
+   * line just evolves as window[i] := window[i] * shift[i], this is
+   * done in closed form by multiplying each line with
+   * shift[i]^n = μ0^n * e^(i * n * phase[i]), thus costing one
+   * complex power per line, regardless of n.
+   */
+  public void advanceSilence(final long n)
+  {
+    if (n < 0) {
+      throw new IllegalArgumentException("n < 0");
+    }
+    if (n == 0) {
+      return;
+    }
+    final double decay = Math.pow(μ0, n);
+    if (decay == 0.0) {
+      Arrays.fill(windowRe, 0.0);
+      Arrays.fill(windowIm, 0.0);
+      return;
+    }
     for (int i = 0; i < size; i++) {
-      window[i].mul(signalShift[i]);
-      window[i].add(insertSample);
-      final MutableComplex tmp =
-        ComplexFactory.createMutableFromCartesian(signalShift[i]);
-      tmp.mul(insertSample);
-      window[i].sub(tmp);
+      final double angle = n * phase[i];
+      final double powerRe = decay * Math.cos(angle);
+      final double powerIm = decay * Math.sin(angle);
+      final double re = windowRe[i];
+      final double im = windowIm[i];
+      windowRe[i] = re * powerRe - im * powerIm;
+      windowIm[i] = re * powerIm + im * powerRe;
     }
   }
 
+  private boolean isSilent(final double sample)
+  {
+    return Math.abs(sample) <= silenceThreshold;
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length)
+  {
+    putBins(samples, offset, length, null);
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length,
+                      final SampleListener listener)
+  {
+    SampleChecks.checkBlock(samples, offset, length);
+    final int stop = offset + length;
+    if (listener != null) {
+      for (int j = offset; j < stop; j++) {
+        putBin(samples[j]);
+        listener.samplePut(this, j);
+      }
+      return;
+    }
+    for (int j = offset; j < stop; j++) {
+      SampleChecks.checkSample(samples[j]);
+    }
+    int segmentStart = offset;
+    int j = offset;
+    while (j < stop) {
+      if (!isSilent(samples[j])) {
+        j++;
+        continue;
+      }
+      int runStop = j + 1;
+      while ((runStop < stop) && isSilent(samples[runStop])) {
+        runStop++;
+      }
+      if (runStop - j >= MIN_SILENCE_RUN) {
+        updateBlock(samples, segmentStart, j);
+        advanceSilence(runStop - j);
+        segmentStart = runStop;
+      }
+      j = runStop;
+    }
+    updateBlock(samples, segmentStart, stop);
+  }
+
+  private void updateBlock(final double samples[],
+                           final int start, final int stop)
+  {
+    if (start == stop) {
+      return;
+    }
+    // Each tile of lines runs through the whole block before the
+    // next tile is touched, such that the state of the tile stays in
+    // the L1 cache rather than being evicted once per sample.
+    for (int tileStart = 0; tileStart < size; tileStart += LINES_PER_TILE) {
+      final int tileStop = Math.min(tileStart + LINES_PER_TILE, size);
+      for (int j = start; j < stop; j++) {
+        updateLines(samples[j], tileStart, tileStop);
+      }
+    }
+  }
+
+  /**
+   * Returns a snapshot of the spectral line with the specified index.
+   * The returned value is not updated by subsequent calls to
+   * putBin().
+   */
   public Complex getLine(final int index)
   {
     if ((index < 0) || (index >= size)) {
       throw new IllegalArgumentException("index out of range");
     }
-    return window[index];
+    return ComplexFactory.createFromCartesian(windowRe[index],
+                                              windowIm[index]);
+  }
+
+  public void copyState(final double re[], final double im[])
+  {
+    SpectrumExport.checkBuffer(re, size);
+    SpectrumExport.checkBuffer(im, size);
+    SpectrumExport.copyState(windowRe, windowIm, 0, re, im, 0, size);
+  }
+
+  /**
+   * Sets all spectral lines to zero, as after construction.
+   */
+  void clear()
+  {
+    Arrays.fill(windowRe, 0.0);
+    Arrays.fill(windowIm, 0.0);
+  }
+
+  /**
+   * Replaces all spectral lines with the specified values.
+   */
+  void setState(final double re[], final double im[])
+  {
+    SpectrumExport.checkBuffer(re, size);
+    SpectrumExport.checkBuffer(im, size);
+    System.arraycopy(re, 0, windowRe, 0, size);
+    System.arraycopy(im, 0, windowIm, 0, size);
+  }
+
+  private long getConfigFingerprint()
+  {
+    return
+      StateSnapshot.fingerprint(StateSnapshot.KIND_DST,
+                                Double.doubleToLongBits(μ0), size,
+                                Double.doubleToLongBits(lowerBound),
+                                Double.doubleToLongBits(upperBound));
+  }
+
+  /**
+   * Writes the current state, i.e. all spectral lines, to the channel,
+   * such that it can be restored later, e.g. after restarting the
+   * application, without having to wait for the spectrum to
+   * converge again.  The snapshot carries a fingerprint of μ0, size
+   * and bounds.
+   */
+  public void snapshot(final WritableByteChannel channel) throws IOException
+  {
+    final ByteBuffer buffer =
+      StateSnapshot.createBuffer(StateSnapshot.KIND_DST,
+                                 getConfigFingerprint(), size,
+                                 2 * size * Double.BYTES);
+    buffer.asDoubleBuffer().put(windowRe).put(windowIm);
+    buffer.position(buffer.position() + 2 * size * Double.BYTES);
+    StateSnapshot.write(buffer, channel);
+  }
+
+  /**
+   * Replaces the current state with a snapshot read from the channel.
+   * @exception IOException If the snapshot is incomplete or corrupt,
+   * or has been taken from a DST with different μ0, size or bounds.
+   * In that case, the current state remains unchanged.
+   */
+  public void restore(final ReadableByteChannel channel) throws IOException
+  {
+    final ByteBuffer buffer =
+      StateSnapshot.read(channel, StateSnapshot.KIND_DST,
+                         getConfigFingerprint(), size,
+                         2 * size * Double.BYTES);
+    buffer.asDoubleBuffer().get(windowRe).get(windowIm);
+  }
+
+  public void getPower(final double power[])
+  {
+    SpectrumExport.checkBuffer(power, size);
+    SpectrumExport.getPower(windowRe, windowIm, 0, power, 0, size);
+  }
+
+  public void getMagnitudes(final double magnitudes[])
+  {
+    SpectrumExport.checkBuffer(magnitudes, size);
+    SpectrumExport.getMagnitudes(windowRe, windowIm, 0, magnitudes, 0, size);
+  }
+
+  public void getLogMagnitudes(final float logMagnitudes[],
+                               final double floor,
+                               final boolean approximate)
+  {
+    SpectrumExport.checkBuffer(logMagnitudes, size);
+    SpectrumExport.getLogMagnitudes(windowRe, windowIm, 0, logMagnitudes, 0,
+                                    size, floor, approximate);
+  }
+
+  public void getPhases(final double phases[])
+  {
+    SpectrumExport.checkBuffer(phases, size);
+    SpectrumExport.getPhases(windowRe, windowIm, 0, phases, 0, size);
   }
 
   public double getReconstructedSample()
@@ -162,23 +451,93 @@ public class DSTSlidingWindow implements SlidingWindowTransform
 
   public double getReconstructedSample(final TransferFunction filter)
   {
-    if ((filter != null) && (filter.getLength() != size)) {
-      throw new IllegalArgumentException("bad filter length");
+    double sum = 0.0;
+    if (filter != null) {
+      filterCache.update(filter);
+      final double filterRe[] = filterCache.getRe();
+      final double filterIm[] = filterCache.getIm();
+      for (int i = 0; i < size; i++) {
+        sum += windowRe[i] * filterRe[i] - windowIm[i] * filterIm[i];
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        sum += windowRe[i];
+      }
     }
-    final MutableComplex sample =
-      ComplexFactory.createMutableFromCartesian(0.0);
-    for (int i = 0; i < size; i++) {
-      final MutableComplex line =
-        ComplexFactory.createMutableFromCartesian(window[i]);
-      if (filter != null) {
-        final Complex transferValue =
-          ComplexFactory.createFromCartesian(filter.getTransferValue(i));
-        line.mul(transferValue);
+    return sum * (Math.sqrt(Math.PI) / size);
+  }
+
+  /**
+   * Updates the spectrum and sums up the reconstructed sample tile by
+   * tile, such that each tile is summed up while still in the cache.
+   */
+  public double putBinAndReconstruct(final double sample,
+                                     final TransferFunction filter)
+  {
+    SampleChecks.checkSample(sample);
+    final double filterRe[], filterIm[];
+    if (filter != null) {
+      filterCache.update(filter);
+      filterRe = filterCache.getRe();
+      filterIm = filterCache.getIm();
+    } else {
+      filterRe = null;
+      filterIm = null;
+    }
+    double sum = 0.0;
+    for (int tileStart = 0; tileStart < size; tileStart += LINES_PER_TILE) {
+      final int tileStop = Math.min(tileStart + LINES_PER_TILE, size);
+      sum += kernel.updateLinesAndSum(windowRe, windowIm,
+                                      signalShiftRe, signalShiftIm,
+                                      insertWeightRe, insertWeightIm,
+                                      filterRe, filterIm, sample,
+                                      tileStart, tileStop);
+    }
+    return sum * (Math.sqrt(Math.PI) / size);
+  }
+
+  /**
+   * Like putBins(), advances the spectrum tile by tile through the
+   * whole block, each tile adding its share of the reconstructed
+   * samples to the output array.
+   */
+  public void reconstruct(final double samples[],
+                          final int offset, final int length,
+                          final double reconstructed[],
+                          final int reconstructedOffset,
+                          final TransferFunction filter)
+  {
+    SampleChecks.checkBlock(samples, offset, length);
+    SampleChecks.checkBlock(reconstructed, reconstructedOffset, length);
+    for (int j = offset; j < offset + length; j++) {
+      SampleChecks.checkSample(samples[j]);
+    }
+    final double filterRe[], filterIm[];
+    if (filter != null) {
+      filterCache.update(filter);
+      filterRe = filterCache.getRe();
+      filterIm = filterCache.getIm();
+    } else {
+      filterRe = null;
+      filterIm = null;
+    }
+    Arrays.fill(reconstructed, reconstructedOffset,
+                reconstructedOffset + length, 0.0);
+    for (int tileStart = 0; tileStart < size; tileStart += LINES_PER_TILE) {
+      final int tileStop = Math.min(tileStart + LINES_PER_TILE, size);
+      for (int j = 0; j < length; j++) {
+        reconstructed[reconstructedOffset + j] +=
+          kernel.updateLinesAndSum(windowRe, windowIm,
+                                   signalShiftRe, signalShiftIm,
+                                   insertWeightRe, insertWeightIm,
+                                   filterRe, filterIm, samples[offset + j],
+                                   tileStart, tileStop);
       }
-      sample.add(line);
     }
-    sample.mul(Math.sqrt(Math.PI) / size);
-    return sample.getRealPart();
+    final double scale = Math.sqrt(Math.PI) / size;
+    for (int j = reconstructedOffset; j < reconstructedOffset + length; j++) {
+      reconstructed[j] *= scale;
+    }
   }
 }
 
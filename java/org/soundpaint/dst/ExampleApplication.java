@@ -29,6 +29,7 @@ package org.soundpaint.dst;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Date;
+import javax.management.JMException;
 
 public class ExampleApplication
 {
@@ -40,7 +41,7 @@ public class ExampleApplication
   public static final String IMAGE_WAVE_PLOT_FILENAME = "wave.plot.data";
   public static final String DEFAULT_DFT_IMAGE_FILENAME = "spectrum_dft.ppm";
   public static final String DEFAULT_DST_IMAGE_FILENAME = "spectrum_dst.ppm";
-  private static final double doublePI = 2.0 * Math.PI;
+  public static final String DEFAULT_STFT_IMAGE_FILENAME = "spectrum_stft.ppm";
   private static final double invPI = 1.0 / Math.PI;
 
   private static final boolean CREATE_PPM = true;
@@ -48,16 +49,22 @@ public class ExampleApplication
   private static final int PLOT_HEIGHT = 50;
 
   private Date startDate, stopDate;
+  private long metricsDumpPeriod; // [ms]
 
   private static class Arguments
   {
-    private boolean dft, dst;
+    private boolean dft, dst, stft;
+    private boolean singlePrecision;
     private boolean inputWaveFileNamePending, inputWaveFileNameParsed;
     private String inputWaveFileName;
     private boolean outFileNamePending, outFileNameParsed;
     private String outFileName;
     private boolean μ0Pending, μ0Parsed;
     private double μ0;
+    private boolean hopPending, hopParsed;
+    private int hop = 1;
+    private boolean metricsPending, metricsParsed;
+    private long metricsDumpPeriod;
 
     private Arguments()
     {
@@ -80,6 +87,22 @@ public class ExampleApplication
           } catch (final Exception e) {
             throw new IllegalArgumentException("value for μ0 is not a valid double");
           }
+        } else if (hopPending) {
+          try {
+            hop = Integer.parseInt(arg);
+            hopParsed = true;
+            hopPending = false;
+          } catch (final Exception e) {
+            throw new IllegalArgumentException("value for hop is not a valid int");
+          }
+        } else if (metricsPending) {
+          try {
+            metricsDumpPeriod = Long.parseLong(arg);
+            metricsParsed = true;
+            metricsPending = false;
+          } catch (final Exception e) {
+            throw new IllegalArgumentException("value for metrics dump period is not a valid long");
+          }
         } else if (inputWaveFileNamePending) {
           inputWaveFileName = arg;
           inputWaveFileNameParsed = true;
@@ -98,11 +121,31 @@ public class ExampleApplication
             throw new IllegalArgumentException("--dst seen twice");
           }
           dst = true;
+        } else if ("--stft".equals(arg)) {
+          if (stft == true) {
+            throw new IllegalArgumentException("--stft seen twice");
+          }
+          stft = true;
+        } else if ("--float".equals(arg)) {
+          if (singlePrecision == true) {
+            throw new IllegalArgumentException("--float seen twice");
+          }
+          singlePrecision = true;
         } else if ("--mu0".equals(arg)) {
           if (μ0Parsed) {
             throw new IllegalArgumentException("--mu0 seen twice");
           }
           μ0Pending = true;
+        } else if ("--hop".equals(arg)) {
+          if (hopParsed) {
+            throw new IllegalArgumentException("--hop seen twice");
+          }
+          hopPending = true;
+        } else if ("--metrics".equals(arg)) {
+          if (metricsParsed) {
+            throw new IllegalArgumentException("--metrics seen twice");
+          }
+          metricsPending = true;
         } else if ("--inputwavefile".equals(arg)) {
           if (inputWaveFileNameParsed) {
             throw new IllegalArgumentException("--inputwavefile seen twice");
@@ -118,18 +161,27 @@ public class ExampleApplication
     }
 
     private void check() {
-      if (dft && dst) {
-        throw new IllegalArgumentException("--dst and --dft can not be specified together");
+      if ((dft ? 1 : 0) + (dst ? 1 : 0) + (stft ? 1 : 0) > 1) {
+        throw new IllegalArgumentException("only one of --dst, --dft and --stft can be specified");
       }
-      if (!dft && !dst) {
-        throw new IllegalArgumentException("either --dft or --dst must be specified");
+      if (!dft && !dst && !stft) {
+        throw new IllegalArgumentException("either --dft, --dst or --stft must be specified");
       }
       if (!dst && μ0Parsed) {
         throw new IllegalArgumentException("--mu0 specified without --dst");
       }
+      if (!dst && singlePrecision) {
+        throw new IllegalArgumentException("--float specified without --dst");
+      }
       if ((μ0 <= 0.0) || (μ0 >= 1.0)) {
         throw new IllegalArgumentException("μ0 must be greater than 0 and less than 1");
       }
+      if ((hop <= 0) || (hop > ROUNDS)) {
+        throw new IllegalArgumentException("hop must be greater than 0 and not greater than " + ROUNDS);
+      }
+      if (metricsDumpPeriod < 0) {
+        throw new IllegalArgumentException("metrics dump period must not be negative");
+      }
     }
 
     public String getInputWaveFileName() {
@@ -143,132 +195,137 @@ public class ExampleApplication
     public double getμ0() {
       return μ0;
     }
+
+    public int getHop() {
+      return hop;
+    }
+
+    /**
+     * Returns the period of printing metrics in milliseconds, or 0
+     * for not printing them.
+     */
+    public long getMetricsDumpPeriod() {
+      return metricsDumpPeriod;
+    }
   }
 
   /**
-   * Holds all data that is shared between the progress display and
-   * the actual process to be monitored.
+   * Measures every SAMPLING_INTERVAL-th hop: accumulates the time of
+   * the transform stage, i.e. the cost of advancing the transform and
+   * materializing the frame, and, if timing is enabled in the
+   * metrics, records reading and reconstruction into them.  Sampling
+   * keeps the calls of System.nanoTime() from adding noticeably to
+   * the cost of small hops.
    */
-  private static class ProgressInfo implements ProgressDisplay.ProgressInfo
+  private static class ViewClock implements SpectrumRenderer.StageClock
   {
-    private int sampleCountSnapshot;
-    public int sampleCount;
+    private static final int SAMPLING_INTERVAL = 16;
+
+    private final Metrics metrics;
+    private long hopCount;
+    private boolean measuring;
+    private long startNanos;
+    private long measuredHops;
+    private long transformNanos;
+
+    private ViewClock(final Metrics metrics)
+    {
+      this.metrics = metrics;
+    }
 
-    public void sampleAndHold()
+    public void start()
     {
-      sampleCountSnapshot = sampleCount;
+      measuring = (hopCount++ % SAMPLING_INTERVAL) == 0;
+      if (measuring) {
+        measuredHops++;
+        startNanos = System.nanoTime();
+      }
     }
 
-    public double getProgressValue()
+    public void stop(final int stage)
     {
-      return (double)sampleCountSnapshot / ROUNDS;
+      if (!measuring) {
+        return;
+      }
+      final long stopNanos = System.nanoTime();
+      final long nanos = stopNanos - startNanos;
+      switch (stage) {
+      case SpectrumRenderer.STAGE_DECODE:
+        if (metrics.isTimingEnabled()) {
+          metrics.recordRead(nanos);
+        }
+        break;
+      case SpectrumRenderer.STAGE_TRANSFORM:
+        transformNanos += nanos;
+        break;
+      case SpectrumRenderer.STAGE_RECONSTRUCT:
+        if (metrics.isTimingEnabled()) {
+          metrics.recordReconstruction(nanos);
+        }
+        break;
+      default:
+        break;
+      }
+      startNanos = stopNanos;
     }
 
-    public String getProgressDisplayValue()
+    /**
+     * Returns the mean cost of the transform stage per measured hop,
+     * i.e. per frame.
+     */
+    private double getTransformMicrosPerFrame()
     {
-      final double percent = getProgressValue() * 100.0;
-      return
-        String.format("[%d of %d samples (%3.2f%%)]",
-                      sampleCountSnapshot, ROUNDS, percent);
+      return measuredHops > 0 ? transformNanos * 0.001 / measuredHops : 0.0;
     }
   }
 
-  private static double clipSample(final double sample,
-                                   final double lowerBound,
-                                   final double upperBound)
+  public void createDFTView(final String imageFileName, final int hop,
+                            final Wave wave)
+    throws IOException
   {
-    return
-      sample < lowerBound ? lowerBound :
-      (sample > upperBound ? upperBound : sample);
+    createView("DFT", imageFileName, new DFTSlidingWindow(WINDOW_SIZE), 0.003,
+               hop, wave);
   }
 
-  private static void putSample(final PPMStreamOutput imageStream,
-                                final int displayHeight,
-                                final double sample,
-                                final double lowerBound,
-                                final double upperBound)
+  /**
+   * Renders the spectrum of an STFT that recomputes the FFT once per
+   * hop, i.e. once per image row.
+   */
+  public void createSTFTView(final String imageFileName, final int hop,
+                             final Wave wave)
     throws IOException
   {
-    final double clippedSample = clipSample(sample, lowerBound, upperBound);
-    final double scale = (upperBound - lowerBound) / displayHeight;
-    boolean matched = false;
-    int i;
-    for (i = 0; i < displayHeight - 1; i++) {
-      if (!matched) {
-        if (lowerBound + scale * i >= sample) {
-          matched = true;
-          break;
-        }
-      }
-      imageStream.putPixel(0, 0, 0);
-    }
-    imageStream.putPixel(255, 255, 255);
-    if (!matched) {
-      return;
-    }
-    for (i++; i < displayHeight; i++) {
-      imageStream.putPixel(0, 0, 0);
-    }
+    createView("STFT", imageFileName, new STFTSlidingWindow(WINDOW_SIZE, hop),
+               0.003, hop, wave);
   }
 
-  public void createDFTView(final String imageFileName, final Wave wave)
+  public void createDSTView(final String imageFileName,
+                            final double μ0, final boolean singlePrecision,
+                            final int hop, final Wave wave)
     throws IOException
   {
-    wave.reset();
-    final PPMStreamOutput imageStream;
-    final PrintWriter imageWavePlotter;
-    if (CREATE_PLOT) {
-      String imageWavePlotFilename =
-        IMAGE_WAVE_PLOT_FILENAME; // TODO: Add as command line arg
-      System.out.printf("[writing wave plot data to file '%s']\r\n",
-                        imageWavePlotFilename);
-      imageWavePlotter = new PrintWriter(imageWavePlotFilename);
-    }
-    if (CREATE_PPM) {
-      System.out.printf("[writing DFT spectrum image to file '%s']\r\n",
-                        imageFileName);
-      final int ppmWidth = WINDOW_SIZE + (CREATE_PLOT ? 2 * PLOT_HEIGHT : 0);
-      imageStream = new PPMStreamOutput(imageFileName, ppmWidth, ROUNDS);
-    }
     final SlidingWindowTransform slidingWindow =
-      new DFTSlidingWindow(WINDOW_SIZE);
-    slidingWindow.printInfo(System.out, SAMPLE_FREQUENCY);
-    final ProgressInfo progressInfo = new ProgressInfo();
-    final ProgressDisplay progressDisplay = new ProgressDisplay(progressInfo);
-    new Thread(progressDisplay).start();
-    for (progressInfo.sampleCount = 0;
-         progressInfo.sampleCount < ROUNDS;
-         progressInfo.sampleCount++) {
-      final double originalSample = wave.getNextSample();
-      slidingWindow.putBin(originalSample);
-      if (CREATE_PPM) {
-        for (int i = 0; i < (slidingWindow.getSize()); i++) {
-          final Complex line = slidingWindow.getLine(i);
-          final double value = line.getLength();
-          final double hue = (value - 0.5) * doublePI;
-          imageStream.putPixel(hue, 1.0, 0.003 * value);
-        }
-      }
-      if (CREATE_PLOT) {
-        final double reconstructedSample =
-          slidingWindow.getReconstructedSample();
-        putSample(imageStream, PLOT_HEIGHT, originalSample, -1.0, +1.0);
-        putSample(imageStream, PLOT_HEIGHT, reconstructedSample, -1.0, +1.0);
-        imageWavePlotter.printf("%5d %5.3f %5.3f\r\n",
-                                progressInfo.sampleCount,
-                                originalSample, reconstructedSample);
-      }
-    }
-    progressInfo.sampleAndHold();
-    System.out.println(progressInfo.getProgressDisplayValue());
-    if (CREATE_PPM)
-      imageStream.close();
-    if (CREATE_PLOT)
-      imageWavePlotter.close();
+      singlePrecision ?
+      new FloatDSTSlidingWindow(μ0, WINDOW_SIZE,
+                                DSTSlidingWindow.DEFAULT_LOWER_BOUND,
+                                DSTSlidingWindow.DEFAULT_UPPER_BOUND) :
+      new DSTSlidingWindow(μ0, WINDOW_SIZE,
+                           DSTSlidingWindow.DEFAULT_LOWER_BOUND,
+                           DSTSlidingWindow.DEFAULT_UPPER_BOUND);
+    createView("DST", imageFileName, slidingWindow, 0.05, hop, wave);
   }
 
-  public void createDSTView(final String imageFileName,
-                            final double μ0, final Wave wave)
+  /**
+   * Runs the wave through the transform, writes one image row every
+   * hop samples and finally reports the measured cost per frame,
+   * including the cost of materializing the frame, but excluding
+   * reading the wave and image output.
+   */
+  private void createView(final String transformName,
+                          final String imageFileName,
+                          final SlidingWindowTransform slidingWindow,
+                          final double brightness,
+                          final int hop, final Wave wave)
     throws IOException
   {
     wave.reset();
@@ -282,48 +339,54 @@ public class ExampleApplication
       imageWavePlotter = new PrintWriter(imageWavePlotFilename);
     }
     if (CREATE_PPM) {
-      System.out.printf("[writing DST spectrum image to file '%s']\r\n",
-                        imageFileName);
+      System.out.printf("[writing %s spectrum image to file '%s']\r\n",
+                        transformName, imageFileName);
       final int ppmWidth = WINDOW_SIZE + (CREATE_PLOT ? 2 * PLOT_HEIGHT : 0);
-      imageStream = new PPMStreamOutput(imageFileName, ppmWidth, ROUNDS);
+      imageStream = new PPMStreamOutput(imageFileName, ppmWidth, ROUNDS / hop);
     }
-    final SlidingWindowTransform slidingWindow =
-      new DSTSlidingWindow(μ0, WINDOW_SIZE,
-                           DSTSlidingWindow.DEFAULT_LOWER_BOUND,
-                           DSTSlidingWindow.DEFAULT_UPPER_BOUND);
     slidingWindow.printInfo(System.out, SAMPLE_FREQUENCY);
-    final ProgressInfo progressInfo = new ProgressInfo();
+    final Metrics metrics = new Metrics(getClass().getSimpleName());
+    metrics.setExpectedSamples(ROUNDS);
+    metrics.setTimingEnabled(metricsDumpPeriod > 0);
+    try {
+      metrics.register();
+    } catch (final JMException e) {
+      System.out.printf("[metrics not registered: %s]\r\n", e);
+    }
+    final MetricsDump metricsDump =
+      metricsDumpPeriod > 0 ?
+      new MetricsDump(metrics, System.out, metricsDumpPeriod) : null;
+    final ProgressDisplay.ProgressInfo progressInfo =
+      ProgressDisplay.createProgressInfo(metrics);
     final ProgressDisplay progressDisplay = new ProgressDisplay(progressInfo);
     new Thread(progressDisplay).start();
-    for (progressInfo.sampleCount = 0;
-         progressInfo.sampleCount < ROUNDS;
-         progressInfo.sampleCount++) {
-      final double originalSample = wave.getNextSample();
-      slidingWindow.putBin(originalSample);
-      if (CREATE_PPM) {
-        for (int i = 0; i < (slidingWindow.getSize()); i++) {
-          final Complex line = slidingWindow.getLine(i);
-          final double value = line.getLength();
-          final double hue = (value - 0.5) * doublePI;
-          imageStream.putPixel(hue, 1.0, 0.05 * value);
-        }
-      }
-      if (CREATE_PLOT) {
-        final double reconstructedSample =
-          slidingWindow.getReconstructedSample();
-        putSample(imageStream, PLOT_HEIGHT, originalSample, -1.0, +1.0);
-        putSample(imageStream, PLOT_HEIGHT, reconstructedSample, -1.0, +1.0);
-        imageWavePlotter.printf("%5d %5.3f %5.3f\r\n",
-                                progressInfo.sampleCount,
-                                originalSample, reconstructedSample);
-      }
-    }
+    final SpectrumRenderer renderer =
+      new SpectrumRenderer(CREATE_PPM ? imageStream : null,
+                           CREATE_PLOT ? imageWavePlotter : null,
+                           PLOT_HEIGHT, brightness);
+    final ViewClock clock = new ViewClock(metrics);
+    renderer.setStageClock(clock);
+    renderer.setMetrics(metrics);
+    renderer.render(slidingWindow, wave, ROUNDS, hop);
     progressInfo.sampleAndHold();
     System.out.println(progressInfo.getProgressDisplayValue());
     if (CREATE_PPM)
       imageStream.close();
     if (CREATE_PLOT)
       imageWavePlotter.close();
+    if (renderer.getFrameCount() > 0) {
+      System.out.printf("[%s cost per frame: %.3f µs]\r\n", transformName,
+                        clock.getTransformMicrosPerFrame());
+    }
+    if (metricsDump != null) {
+      metricsDump.shutdown();
+      metrics.printReport(System.out);
+    }
+    try {
+      metrics.unregister();
+    } catch (final JMException e) {
+      // ignore; the JVM is about to exit anyway
+    }
   }
 
   private void markTime()
@@ -343,6 +406,7 @@ public class ExampleApplication
   public void run(final String[] argv) throws IOException
   {
     final Arguments args = new Arguments(argv);
+    metricsDumpPeriod = args.getMetricsDumpPeriod();
     final String inputWaveFileName = args.getInputWaveFileName();
     final Wave wave;
     if (inputWaveFileName != null) {
@@ -356,13 +420,20 @@ public class ExampleApplication
       System.out.printf("[creating DFT]\r\n");
       createDFTView(outFileName != null ?
                     outFileName :
-                    DEFAULT_DFT_IMAGE_FILENAME, wave);
+                    DEFAULT_DFT_IMAGE_FILENAME, args.getHop(), wave);
       printElapsedAndMarkTime();
     } else if (args.dst) {
       System.out.printf("[creating DST]\r\n");
       createDSTView(outFileName != null ?
                     outFileName :
-                    DEFAULT_DST_IMAGE_FILENAME, args.μ0, wave);
+                    DEFAULT_DST_IMAGE_FILENAME, args.μ0,
+                    args.singlePrecision, args.getHop(), wave);
+      printElapsedAndMarkTime();
+    } else if (args.stft) {
+      System.out.printf("[creating STFT]\r\n");
+      createSTFTView(outFileName != null ?
+                     outFileName :
+                     DEFAULT_STFT_IMAGE_FILENAME, args.getHop(), wave);
       printElapsedAndMarkTime();
     }
   }
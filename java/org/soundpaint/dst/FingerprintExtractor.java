@@ -0,0 +1,423 @@
+/*
+ * FingerprintExtractor.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Computes DST fingerprints for all slices of a wave file in
+ * parallel.  Slices have a fixed length and start every hop samples,
+ * such that they overlap if the hop is less than the slice length.
+ * Only slices that lie completely within the file are considered.
+ *
+ * Slices are independent of each other, hence consecutive slices are
+ * grouped into batches that are distributed over a pool of worker
+ * threads.  Each worker opens its own reader on the file and keeps
+ * its decode buffer across batches; a batch reads the samples that
+ * its slices cover only once, even if the slices overlap.
+ *
+ * Fingerprints are delivered as a stream in the order of the slices.
+ * Only a bounded number of batches is computed ahead of the
+ * consumer, such that memory consumption does not grow with the
+ * length of the file.
+ */
+public class FingerprintExtractor
+{
+  public static final int DEFAULT_SLICES_PER_BATCH = 16;
+
+  /**
+   * Number of batches per worker that are computed ahead of the
+   * consumer of the stream.
+   */
+  private static final int BATCHES_AHEAD_PER_WORKER = 2;
+
+  private final String filename;
+  private final int resolution;
+  private final int sliceLength;
+  private final int hop;
+  private final int workerCount;
+  private final int slicesPerBatch;
+  private volatile Metrics metrics;
+
+  /**
+   * Reader and decode buffer of a single worker thread.
+   */
+  private class Worker
+  {
+    private WaveFileReader reader;
+    private double buffer[];
+
+    private List<DST> extract(final long firstSlice, final int count,
+                              final Metrics metrics)
+      throws IOException
+    {
+      final boolean timing = (metrics != null) && metrics.isTimingEnabled();
+      final long readStart = timing ? System.nanoTime() : 0;
+      final long start = firstSlice * hop;
+      final int length = (count - 1) * hop + sliceLength;
+      if (reader == null) {
+        reader = new WaveFileReader(filename);
+      }
+      if (reader.getPosition() > start) {
+        reader.reset();
+      }
+      reader.skip(start - reader.getPosition());
+      if ((buffer == null) || (buffer.length < length)) {
+        buffer = new double[length];
+      }
+      final int available = reader.getNextSamples(buffer, 0, length);
+      final long transformStart = timing ? System.nanoTime() : 0;
+      final List<DST> fingerprints = new ArrayList<DST>(count);
+      for (int n = 0; n < count; n++) {
+        final int offset = n * hop;
+        if (offset + sliceLength > available) {
+          // file shorter than announced by its header
+          break;
+        }
+        final DST fingerprint = new DST(resolution);
+        fingerprint.addSamples(buffer, offset, sliceLength);
+        fingerprint.freeze();
+        fingerprints.add(fingerprint);
+      }
+      if (metrics != null) {
+        if (timing) {
+          metrics.recordRead(transformStart - readStart);
+          metrics.recordTransform(System.nanoTime() - transformStart);
+        }
+        metrics.addSamplesProcessed(available);
+      }
+      return fingerprints;
+    }
+
+    private void close() throws IOException
+    {
+      if (reader != null) {
+        reader.close();
+      }
+    }
+  }
+
+  private FingerprintExtractor()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  public FingerprintExtractor(final String filename, final int resolution,
+                              final int sliceLength, final int hop)
+  {
+    this(filename, resolution, sliceLength, hop,
+         Runtime.getRuntime().availableProcessors(),
+         DEFAULT_SLICES_PER_BATCH);
+  }
+
+  /**
+   * @param workerCount The number of worker threads.
+   * @param slicesPerBatch The number of consecutive slices that a
+   * worker processes in one go.
+   */
+  public FingerprintExtractor(final String filename, final int resolution,
+                              final int sliceLength, final int hop,
+                              final int workerCount,
+                              final int slicesPerBatch)
+  {
+    if (filename == null) {
+      throw new NullPointerException("filename");
+    }
+    if (resolution < 1) {
+      throw new IllegalArgumentException("resolution < 1");
+    }
+    if (sliceLength < 1) {
+      throw new IllegalArgumentException("slice length < 1");
+    }
+    if (hop < 1) {
+      throw new IllegalArgumentException("hop < 1");
+    }
+    if (workerCount < 1) {
+      throw new IllegalArgumentException("worker count < 1");
+    }
+    if (slicesPerBatch < 1) {
+      throw new IllegalArgumentException("slices per batch < 1");
+    }
+    if ((long)(slicesPerBatch - 1) * hop + sliceLength > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("batch too large");
+    }
+    this.filename = filename;
+    this.resolution = resolution;
+    this.sliceLength = sliceLength;
+    this.hop = hop;
+    this.workerCount = workerCount;
+    this.slicesPerBatch = slicesPerBatch;
+  }
+
+  /**
+   * Sets the metrics to record into for subsequent calls of
+   * extract(): samples decoded and fingerprints delivered, the time
+   * of reading and transforming each batch, and the number of
+   * batches computed ahead of the consumer as queue depth.
+   * @param metrics The metrics, or <code>null</code> for no
+   * recording.
+   */
+  public void setMetrics(final Metrics metrics)
+  {
+    this.metrics = metrics;
+  }
+
+  public Metrics getMetrics()
+  {
+    return metrics;
+  }
+
+  public int getResolution()
+  {
+    return resolution;
+  }
+
+  public int getSliceLength()
+  {
+    return sliceLength;
+  }
+
+  public int getHop()
+  {
+    return hop;
+  }
+
+  public int getWorkerCount()
+  {
+    return workerCount;
+  }
+
+  /**
+   * Returns the index of the first sample of the specified slice.
+   */
+  public long getSliceStart(final long slice)
+  {
+    return slice * hop;
+  }
+
+  /**
+   * Returns the number of slices of the file, as far as can be
+   * determined from the file length.
+   */
+  public long getSliceCount() throws IOException
+  {
+    final WaveFileReader reader = new WaveFileReader(filename);
+    try {
+      return getSliceCount(reader.getTotalNumberOfSamples());
+    } finally {
+      reader.close();
+    }
+  }
+
+  private long getSliceCount(final long totalNumberOfSamples)
+  {
+    return
+      totalNumberOfSamples < sliceLength ? 0 :
+      (totalNumberOfSamples - sliceLength) / hop + 1;
+  }
+
+  /**
+   * Starts computing the fingerprints and returns them as a
+   * sequential, ordered stream of frozen DSTs, one per slice.  The
+   * stream should be closed when not consumed up to its end, for
+   * releasing the worker threads and their readers.  I/O errors that
+   * occur while computing are rethrown as UncheckedIOException from
+   * the stream.
+   */
+  public Stream<DST> extract() throws IOException
+  {
+    final long sliceCount = getSliceCount();
+    final Metrics metrics = this.metrics;
+    final List<Worker> workers =
+      Collections.synchronizedList(new ArrayList<Worker>());
+    final ThreadLocal<Worker> worker = new ThreadLocal<Worker>() {
+        protected Worker initialValue()
+        {
+          final Worker worker = new Worker();
+          workers.add(worker);
+          return worker;
+        }
+      };
+    final ExecutorService executor =
+      Executors.newFixedThreadPool(workerCount, new ThreadFactory() {
+          public Thread newThread(final Runnable runnable)
+          {
+            final Thread thread =
+              new Thread(runnable, "fingerprint extraction worker");
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    final Queue<Future<List<DST>>> pending =
+      new ArrayDeque<Future<List<DST>>>();
+    final Iterator<DST> iterator = new Iterator<DST>() {
+        private long nextSlice = 0;
+        private Iterator<DST> batch = Collections.emptyIterator();
+
+        private void submitBatches()
+        {
+          while ((pending.size() < BATCHES_AHEAD_PER_WORKER * workerCount) &&
+                 (nextSlice < sliceCount)) {
+            final long firstSlice = nextSlice;
+            final int count =
+              (int)Math.min(slicesPerBatch, sliceCount - firstSlice);
+            nextSlice += count;
+            pending.add(executor.submit(new Callable<List<DST>>() {
+                public List<DST> call() throws IOException
+                {
+                  return worker.get().extract(firstSlice, count, metrics);
+                }
+              }));
+          }
+          if (metrics != null) {
+            metrics.setQueueDepth(pending.size());
+          }
+        }
+
+        public boolean hasNext()
+        {
+          while (!batch.hasNext()) {
+            submitBatches();
+            final Future<List<DST>> future = pending.poll();
+            if (future == null) {
+              shutdown(executor, pending, workers);
+              return false;
+            }
+            final List<DST> fingerprints = await(future);
+            if (metrics != null) {
+              metrics.setQueueDepth(pending.size());
+              metrics.addFramesEmitted(fingerprints.size());
+            }
+            batch = fingerprints.iterator();
+          }
+          return true;
+        }
+
+        public DST next()
+        {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return batch.next();
+        }
+
+        private List<DST> await(final Future<List<DST>> future)
+        {
+          try {
+            return future.get();
+          } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shutdown(executor, pending, workers);
+            throw new IllegalStateException("interrupted", e);
+          } catch (final ExecutionException e) {
+            shutdown(executor, pending, workers);
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+              throw new UncheckedIOException((IOException)cause);
+            }
+            if (cause instanceof RuntimeException) {
+              throw (RuntimeException)cause;
+            }
+            if (cause instanceof Error) {
+              throw (Error)cause;
+            }
+            throw new IllegalStateException(cause);
+          }
+        }
+      };
+    final Stream<DST> stream =
+      StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                                                               Spliterator.ORDERED |
+                                                               Spliterator.NONNULL),
+                           false);
+    return stream.onClose(new Runnable() {
+        public void run()
+        {
+          shutdown(executor, pending, workers);
+        }
+      });
+  }
+
+  private static void shutdown(final ExecutorService executor,
+                               final Queue<Future<List<DST>>> pending,
+                               final List<Worker> workers)
+  {
+    if (executor.isShutdown()) {
+      return;
+    }
+    for (final Future<List<DST>> future : pending) {
+      future.cancel(true);
+    }
+    pending.clear();
+    executor.shutdown();
+    try {
+      // a worker may still be busy with a batch that has been
+      // cancelled too late; wait for it before closing its reader
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    IOException exception = null;
+    synchronized(workers) {
+      for (final Worker worker : workers) {
+        try {
+          worker.close();
+        } catch (final IOException e) {
+          exception = e;
+        }
+      }
+    }
+    if (exception != null) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
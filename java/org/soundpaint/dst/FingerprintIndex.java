@@ -0,0 +1,645 @@
+/*
+ * FingerprintIndex.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate nearest neighbour index over frozen DST or DFT
+ * fingerprints, using the same distance as DST.distanceTo(), i.e. the
+ * sum of squared differences of spectral magnitudes.
+ *
+ * The index is an inverted file: fingerprints are partitioned into
+ * lists by their nearest centroid, and a query only scans the lists
+ * of the few centroids that are closest to the query.  Centroids are
+ * trained by k-means as soon as enough fingerprints have been added;
+ * until then, all fingerprints go into a single list and queries are
+ * exact.  Fingerprints are stored as single precision magnitude
+ * vectors, such that no square roots need to be computed while
+ * searching.
+ *
+ * Adding and searching may happen concurrently from any number of
+ * threads.  Searches never block.  Training runs in the thread whose
+ * add() completes the training set, while other threads keep adding
+ * and searching; only the final swap of centroids and lists briefly
+ * holds back concurrent adds.
+ */
+public class FingerprintIndex
+{
+  /**
+   * Number of fingerprints per list that are collected before the
+   * centroids are trained.
+   */
+  public static final int TRAINING_SIZE_PER_LIST = 32;
+
+  public static final int DEFAULT_PROBES = 8;
+
+  private static final int TRAINING_ITERATIONS = 12;
+  private static final int INITIAL_LIST_CAPACITY = 16;
+
+  /**
+   * A single search result.
+   */
+  public static class Match
+  {
+    private final int id;
+    private final double distance;
+
+    private Match()
+    {
+      throw new UnsupportedOperationException("unsupported empty constructor");
+    }
+
+    private Match(final int id, final double distance)
+    {
+      this.id = id;
+      this.distance = distance;
+    }
+
+    /**
+     * Returns the id that has been assigned to the fingerprint upon
+     * adding it.
+     */
+    public int getId()
+    {
+      return id;
+    }
+
+    /**
+     * Returns the squared magnitude distance to the query.
+     */
+    public double getDistance()
+    {
+      return distance;
+    }
+
+    public String toString()
+    {
+      return "Match{id=" + id + ", distance=" + distance + "}";
+    }
+  }
+
+  /**
+   * Arrays of an inverted list.  When full, they are replaced by a
+   * larger copy rather than grown in place, such that readers always
+   * see a consistent pair.
+   */
+  private static class Storage
+  {
+    private final float vectors[];
+    private final int ids[];
+
+    private Storage()
+    {
+      throw new UnsupportedOperationException("unsupported empty constructor");
+    }
+
+    private Storage(final float vectors[], final int ids[])
+    {
+      this.vectors = vectors;
+      this.ids = ids;
+    }
+  }
+
+  /**
+   * Append-only list of fingerprints.  Adds are serialized, while
+   * scans run concurrently without locking: an entry is written
+   * completely before the count that covers it is published, and a
+   * larger storage is published before any entry is written into it.
+   */
+  private static class InvertedList
+  {
+    private volatile Storage storage;
+    private volatile int count;
+
+    private InvertedList(final int dimension)
+    {
+      storage = new Storage(new float[INITIAL_LIST_CAPACITY * dimension],
+                            new int[INITIAL_LIST_CAPACITY]);
+      count = 0;
+    }
+
+    private synchronized void add(final int id, final float vector[])
+    {
+      final int count = this.count;
+      Storage storage = this.storage;
+      if (count == storage.ids.length) {
+        storage =
+          new Storage(Arrays.copyOf(storage.vectors,
+                                    2 * storage.vectors.length),
+                      Arrays.copyOf(storage.ids, 2 * count));
+        this.storage = storage;
+      }
+      System.arraycopy(vector, 0, storage.vectors, count * vector.length,
+                       vector.length);
+      storage.ids[count] = id;
+      this.count = count + 1;
+    }
+
+    private void scan(final float query[], final MatchCollector collector)
+    {
+      // read count before storage, see class comment
+      final int count = this.count;
+      final Storage storage = this.storage;
+      final int dimension = query.length;
+      for (int j = 0; j < count; j++) {
+        final double distance =
+          squaredDistance(query, storage.vectors, j * dimension,
+                          collector.getBound());
+        collector.offer(storage.ids[j], distance);
+      }
+    }
+  }
+
+  /**
+   * Centroids and lists that are swapped in together.
+   */
+  private static class Partition
+  {
+    /**
+     * Trained centroids, one row per list, or <code>null</code>,
+     * while the index is still collecting training fingerprints.
+     */
+    private final float centroids[][];
+    private final InvertedList lists[];
+
+    private Partition()
+    {
+      throw new UnsupportedOperationException("unsupported empty constructor");
+    }
+
+    private Partition(final float centroids[][], final InvertedList lists[])
+    {
+      this.centroids = centroids;
+      this.lists = lists;
+    }
+  }
+
+  /**
+   * Keeps the k best matches seen so far in a max heap.
+   */
+  private static class MatchCollector
+  {
+    private final int ids[];
+    private final double distances[];
+    private int count;
+
+    private MatchCollector(final int k)
+    {
+      ids = new int[k];
+      distances = new double[k];
+      count = 0;
+    }
+
+    /**
+     * Returns the distance that a candidate must fall below to be
+     * accepted.
+     */
+    private double getBound()
+    {
+      return count < ids.length ? Double.POSITIVE_INFINITY : distances[0];
+    }
+
+    private void offer(final int id, final double distance)
+    {
+      if (count < ids.length) {
+        int child = count++;
+        while (child > 0) {
+          final int parent = (child - 1) / 2;
+          if (distances[parent] >= distance) break;
+          ids[child] = ids[parent];
+          distances[child] = distances[parent];
+          child = parent;
+        }
+        ids[child] = id;
+        distances[child] = distance;
+      } else if (distance < distances[0]) {
+        int parent = 0;
+        while (true) {
+          int child = 2 * parent + 1;
+          if (child >= count) break;
+          if ((child + 1 < count) &&
+              (distances[child + 1] > distances[child])) {
+            child++;
+          }
+          if (distances[child] <= distance) break;
+          ids[parent] = ids[child];
+          distances[parent] = distances[child];
+          parent = child;
+        }
+        ids[parent] = id;
+        distances[parent] = distance;
+      }
+    }
+
+    private Match[] toMatches()
+    {
+      final Match matches[] = new Match[count];
+      for (int j = 0; j < count; j++) {
+        matches[j] = new Match(ids[j], distances[j]);
+      }
+      Arrays.sort(matches, new Comparator<Match>() {
+          public int compare(final Match a, final Match b)
+          {
+            return Double.compare(a.distance, b.distance);
+          }
+        });
+      return matches;
+    }
+  }
+
+  private final int dimension;
+  private final int listCount;
+  private final int probes;
+  private final AtomicInteger nextId;
+
+  /**
+   * Held shared by add(), and exclusively while the trained partition
+   * is swapped in, such that no fingerprint is added to the untrained
+   * list after it has been distributed.
+   */
+  private final ReadWriteLock lock;
+  private volatile Partition partition;
+
+  private FingerprintIndex()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * Creates an index with a default number of lists to probe per
+   * query.
+   * @param dimension The number of spectral lines of the fingerprints.
+   * @param listCount The number of inverted lists.  As a rule of
+   * thumb, choose about the square root of the number of fingerprints
+   * to be expected.
+   */
+  public FingerprintIndex(final int dimension, final int listCount)
+  {
+    this(dimension, listCount, Math.min(DEFAULT_PROBES, listCount));
+  }
+
+  /**
+   * @param probes The number of lists to scan per query.  More probes
+   * mean higher recall at the cost of query time.
+   */
+  public FingerprintIndex(final int dimension, final int listCount,
+                          final int probes)
+  {
+    if (dimension < 1) {
+      throw new IllegalArgumentException("dimension < 1");
+    }
+    if (listCount < 1) {
+      throw new IllegalArgumentException("listCount < 1");
+    }
+    if ((probes < 1) || (probes > listCount)) {
+      throw new IllegalArgumentException("probes not in [1, listCount]");
+    }
+    this.dimension = dimension;
+    this.listCount = listCount;
+    this.probes = probes;
+    nextId = new AtomicInteger();
+    lock = new ReentrantReadWriteLock();
+    partition =
+      new Partition(null, new InvertedList[] { new InvertedList(dimension) });
+  }
+
+  public int getDimension()
+  {
+    return dimension;
+  }
+
+  public int getListCount()
+  {
+    return listCount;
+  }
+
+  public int getProbes()
+  {
+    return probes;
+  }
+
+  /**
+   * Returns the number of fingerprints added so far.
+   */
+  public int size()
+  {
+    return nextId.get();
+  }
+
+  /**
+   * Returns true, if the centroids have been trained, such that
+   * queries are approximate.
+   */
+  public boolean isTrained()
+  {
+    return partition.centroids != null;
+  }
+
+  /**
+   * Adds the fingerprint of a frozen DST and returns its id.
+   */
+  public int add(final DST fingerprint)
+  {
+    if (fingerprint == null) {
+      throw new NullPointerException("fingerprint");
+    }
+    return add(fingerprint.getFingerprint());
+  }
+
+  /**
+   * Adds the fingerprint of a frozen DFT and returns its id.
+   */
+  public int add(final DFT fingerprint)
+  {
+    if (fingerprint == null) {
+      throw new NullPointerException("fingerprint");
+    }
+    return add(fingerprint.getFingerprint());
+  }
+
+  /**
+   * Adds a fingerprint, given as vector of spectral magnitudes, and
+   * returns its id.  Ids are assigned consecutively, starting with 0.
+   * The vector is copied.
+   */
+  public int add(final float fingerprint[])
+  {
+    checkFingerprint(fingerprint);
+    final float vector[] = fingerprint.clone();
+    final int id;
+    final boolean train;
+    lock.readLock().lock();
+    try {
+      final Partition partition = this.partition;
+      final float centroids[][] = partition.centroids;
+      id = nextId.getAndIncrement();
+      if (centroids == null) {
+        partition.lists[0].add(id, vector);
+      } else {
+        partition.lists[nearestCentroids(centroids, vector, 1)[0]].
+          add(id, vector);
+      }
+      train =
+        (centroids == null) && (listCount > 1) &&
+        (id + 1 == listCount * TRAINING_SIZE_PER_LIST);
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (train) {
+      train();
+    }
+    return id;
+  }
+
+  /**
+   * Returns up to k nearest neighbours of the fingerprint of a frozen
+   * DST, ordered by increasing distance.
+   */
+  public Match[] search(final DST query, final int k)
+  {
+    if (query == null) {
+      throw new NullPointerException("query");
+    }
+    return search(query.getFingerprint(), k, probes);
+  }
+
+  /**
+   * Returns up to k nearest neighbours of the fingerprint of a frozen
+   * DFT, ordered by increasing distance.
+   */
+  public Match[] search(final DFT query, final int k)
+  {
+    if (query == null) {
+      throw new NullPointerException("query");
+    }
+    return search(query.getFingerprint(), k, probes);
+  }
+
+  public Match[] search(final float query[], final int k)
+  {
+    return search(query, k, probes);
+  }
+
+  /**
+   * Returns up to k nearest neighbours of the specified fingerprint,
+   * ordered by increasing distance, scanning the specified number of
+   * lists.  With probes equal to the list count, the search is exact.
+   */
+  public Match[] search(final float query[], final int k, final int probes)
+  {
+    checkFingerprint(query);
+    if (k < 1) {
+      throw new IllegalArgumentException("k < 1");
+    }
+    if ((probes < 1) || (probes > listCount)) {
+      throw new IllegalArgumentException("probes not in [1, listCount]");
+    }
+    final MatchCollector collector = new MatchCollector(k);
+    final Partition partition = this.partition;
+    if (partition.centroids == null) {
+      partition.lists[0].scan(query, collector);
+    } else {
+      for (final int list :
+             nearestCentroids(partition.centroids, query, probes)) {
+        partition.lists[list].scan(query, collector);
+      }
+    }
+    return collector.toMatches();
+  }
+
+  private void checkFingerprint(final float fingerprint[])
+  {
+    if (fingerprint == null) {
+      throw new NullPointerException("fingerprint");
+    }
+    if (fingerprint.length != dimension) {
+      throw new IllegalArgumentException("fingerprint dimension mismatch");
+    }
+  }
+
+  /**
+   * Returns the indices of the n centroids nearest to the specified
+   * vector, the nearest one first.
+   */
+  private static int[] nearestCentroids(final float centroids[][],
+                                        final float vector[], final int n)
+  {
+    final MatchCollector collector = new MatchCollector(n);
+    for (int list = 0; list < centroids.length; list++) {
+      collector.offer(list,
+                      squaredDistance(vector, centroids[list], 0,
+                                      collector.getBound()));
+    }
+    final Match matches[] = collector.toMatches();
+    final int nearest[] = new int[matches.length];
+    for (int j = 0; j < nearest.length; j++) {
+      nearest[j] = matches[j].id;
+    }
+    return nearest;
+  }
+
+  /**
+   * Runs k-means over the fingerprints collected so far and
+   * distributes them into new inverted lists, without holding any
+   * lock.  Then, under the write lock, also distributes the
+   * fingerprints that have been added meanwhile, and swaps in the
+   * trained centroids and lists at once.
+   */
+  private void train()
+  {
+    final InvertedList all = partition.lists[0];
+    final int count = all.count;
+    final Storage storage = all.storage;
+    final float vectors[] = storage.vectors;
+    final float trained[][] = new float[listCount][];
+    final Random random = new Random(count);
+    for (int list = 0; list < listCount; list++) {
+      trained[list] = pick(vectors, random.nextInt(count));
+    }
+    final int assignment[] = new int[count];
+    final double sums[][] = new double[listCount][dimension];
+    final int sizes[] = new int[listCount];
+    for (int iteration = 0; iteration < TRAINING_ITERATIONS; iteration++) {
+      for (int list = 0; list < listCount; list++) {
+        Arrays.fill(sums[list], 0.0);
+      }
+      Arrays.fill(sizes, 0);
+      for (int j = 0; j < count; j++) {
+        int nearest = 0;
+        double nearestDistance = Double.POSITIVE_INFINITY;
+        for (int list = 0; list < listCount; list++) {
+          final double distance =
+            squaredDistance(trained[list], vectors, j * dimension,
+                            nearestDistance);
+          if (distance < nearestDistance) {
+            nearest = list;
+            nearestDistance = distance;
+          }
+        }
+        assignment[j] = nearest;
+        sizes[nearest]++;
+        final double sum[] = sums[nearest];
+        for (int i = 0; i < dimension; i++) {
+          sum[i] += vectors[j * dimension + i];
+        }
+      }
+      for (int list = 0; list < listCount; list++) {
+        if (sizes[list] == 0) {
+          // empty cluster: restart from a random fingerprint
+          trained[list] = pick(vectors, random.nextInt(count));
+        } else {
+          for (int i = 0; i < dimension; i++) {
+            trained[list][i] = (float)(sums[list][i] / sizes[list]);
+          }
+        }
+      }
+    }
+    final InvertedList trainedLists[] = new InvertedList[listCount];
+    for (int list = 0; list < listCount; list++) {
+      trainedLists[list] = new InvertedList(dimension);
+    }
+    distribute(trained, trainedLists, storage, 0, count);
+    lock.writeLock().lock();
+    try {
+      distribute(trained, trainedLists, all.storage, count, all.count);
+      partition = new Partition(trained, trainedLists);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds the fingerprints [from, to) of the storage to the lists of
+   * their nearest centroids.
+   */
+  private void distribute(final float centroids[][],
+                          final InvertedList lists[], final Storage storage,
+                          final int from, final int to)
+  {
+    final float vector[] = new float[dimension];
+    for (int j = from; j < to; j++) {
+      System.arraycopy(storage.vectors, j * dimension, vector, 0, dimension);
+      lists[nearestCentroids(centroids, vector, 1)[0]].
+        add(storage.ids[j], vector);
+    }
+  }
+
+  private float[] pick(final float vectors[], final int index)
+  {
+    return
+      Arrays.copyOfRange(vectors, index * dimension, (index + 1) * dimension);
+  }
+
+  /**
+   * Returns the squared distance between the vector a and the vector
+   * that starts at the specified offset in b.  Stops early, as soon
+   * as the partial sum exceeds the specified bound, since the result
+   * will then be discarded anyway.
+   */
+  private static double squaredDistance(final float a[],
+                                        final float b[], final int offset,
+                                        final double bound)
+  {
+    final int dimension = a.length;
+    final int blockSize = 64;
+    double sum = 0.0;
+    for (int start = 0; start < dimension; start += blockSize) {
+      final int stop = Math.min(start + blockSize, dimension);
+      float sum0 = 0.0f, sum1 = 0.0f, sum2 = 0.0f, sum3 = 0.0f;
+      int i = start;
+      for (; i + 3 < stop; i += 4) {
+        final float diff0 = a[i] - b[offset + i];
+        final float diff1 = a[i + 1] - b[offset + i + 1];
+        final float diff2 = a[i + 2] - b[offset + i + 2];
+        final float diff3 = a[i + 3] - b[offset + i + 3];
+        sum0 += diff0 * diff0;
+        sum1 += diff1 * diff1;
+        sum2 += diff2 * diff2;
+        sum3 += diff3 * diff3;
+      }
+      for (; i < stop; i++) {
+        final float diff = a[i] - b[offset + i];
+        sum0 += diff * diff;
+      }
+      sum += (double)sum0 + sum1 + sum2 + sum3;
+      if (sum > bound) return sum;
+    }
+    return sum;
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,567 @@
+/*
+ * FingerprintStore.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read access to a file of fingerprints as written by
+ * FingerprintStoreWriter.  The file is memory mapped rather than
+ * read, such that opening a store is independent of its size, and
+ * distances are computed directly on the mapped records, without
+ * copying them.
+ *
+ * File format (all values little endian):
+ *
+ * <pre>
+ *  offset  type     content
+ *       0  byte[8]  magic "DSTFPRNT"
+ *       8  int      format version (1)
+ *      12  int      transform (TRANSFORM_DST or TRANSFORM_DFT)
+ *      16  int      size, i.e. number of spectral lines
+ *      20  int      quantization (QUANTIZATION_FLOAT16 or _LOG8)
+ *      24  double   μ0 (NaN for DFT)
+ *      32  double   lower bound [samplingFrequency]
+ *      40  double   upper bound [samplingFrequency]
+ *      48  float    minimum level of log quantization [dB]
+ *      52  float    maximum level of log quantization [dB]
+ *      56  long     number of records
+ *      64           records
+ * </pre>
+ *
+ * Each record holds the quantized magnitudes of all spectral lines
+ * of one fingerprint, padded to a multiple of 8 bytes.  With
+ * QUANTIZATION_FLOAT16, each magnitude is stored as IEEE 754 half
+ * precision value.  With QUANTIZATION_LOG8, each magnitude is stored
+ * as single byte: 0 for magnitudes below the minimum level, and 1 to
+ * 255 for levels evenly spaced in dB from the minimum to the maximum
+ * level.
+ *
+ * All read methods may be called concurrently.
+ */
+public class FingerprintStore
+{
+  public static final int TRANSFORM_DST = 0;
+  public static final int TRANSFORM_DFT = 1;
+
+  public static final int QUANTIZATION_FLOAT16 = 0;
+  public static final int QUANTIZATION_LOG8 = 1;
+
+  public static final float DEFAULT_MIN_DECIBELS = -100.0f;
+  public static final float DEFAULT_MAX_DECIBELS = 20.0f;
+
+  static final byte MAGIC[] = {
+    'D', 'S', 'T', 'F', 'P', 'R', 'N', 'T'
+  };
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 64;
+  static final int COUNT_OFFSET = 56;
+
+  /**
+   * Maximum size of a single mapping, as imposed by the int indices
+   * of ByteBuffer.
+   */
+  private static final long MAX_MAPPING_SIZE = Integer.MAX_VALUE;
+
+  /**
+   * Decoded values of all half precision bit patterns.
+   */
+  private static final float HALF_TO_FLOAT[] = createHalfToFloatTable();
+
+  private final String filename;
+  private final FileChannel channel;
+  private final int transform;
+  private final int size;
+  private final int quantization;
+  private final double μ0;
+  private final double lowerBound;
+  private final double upperBound;
+  private final float minDecibels;
+  private final float maxDecibels;
+  private final long count;
+  private final int recordSize;
+  private final int recordsPerMapping;
+  private final MappedByteBuffer mappings[];
+
+  /**
+   * Decoded values of all 8 bit codes, if the store is quantized
+   * logarithmically.
+   */
+  private final float log8ToFloat[];
+
+  private FingerprintStore()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  public FingerprintStore(final String filename) throws IOException
+  {
+    if (filename == null) {
+      throw new NullPointerException("filename");
+    }
+    this.filename = filename;
+    channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+    try {
+      final ByteBuffer header =
+        ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header, header.position()) < 0) {
+          throw new IOException(filename + ": truncated header");
+        }
+      }
+      for (int i = 0; i < MAGIC.length; i++) {
+        if (header.get(i) != MAGIC[i]) {
+          throw new IOException(filename + ": not a fingerprint store");
+        }
+      }
+      if (header.getInt(8) != VERSION) {
+        throw new IOException(filename + ": unsupported format version " +
+                              header.getInt(8));
+      }
+      transform = header.getInt(12);
+      size = header.getInt(16);
+      quantization = header.getInt(20);
+      μ0 = header.getDouble(24);
+      lowerBound = header.getDouble(32);
+      upperBound = header.getDouble(40);
+      minDecibels = header.getFloat(48);
+      maxDecibels = header.getFloat(52);
+      count = header.getLong(COUNT_OFFSET);
+      if ((transform != TRANSFORM_DST) && (transform != TRANSFORM_DFT)) {
+        throw new IOException(filename + ": unknown transform " + transform);
+      }
+      if (size < 1) {
+        throw new IOException(filename + ": bad size " + size);
+      }
+      recordSize = getRecordSize(size, quantization);
+      if (recordSize < 0) {
+        throw new IOException(filename + ": unknown quantization " +
+                              quantization);
+      }
+      if ((count < 0) ||
+          (count > (channel.size() - HEADER_SIZE) / recordSize)) {
+        throw new IOException(filename + ": truncated records");
+      }
+      log8ToFloat =
+        quantization == QUANTIZATION_LOG8 ?
+        createLog8ToFloatTable(minDecibels, maxDecibels) : null;
+      recordsPerMapping = (int)(MAX_MAPPING_SIZE / recordSize);
+      mappings =
+        new MappedByteBuffer[(int)((count + recordsPerMapping - 1) /
+                                   recordsPerMapping)];
+      for (int n = 0; n < mappings.length; n++) {
+        final long first = (long)n * recordsPerMapping;
+        final long records = Math.min(recordsPerMapping, count - first);
+        mappings[n] =
+          channel.map(FileChannel.MapMode.READ_ONLY,
+                      HEADER_SIZE + first * recordSize,
+                      records * recordSize);
+        mappings[n].order(ByteOrder.LITTLE_ENDIAN);
+      }
+    } catch (final IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the number of bytes per record, or -1, if the
+   * quantization is unknown.
+   */
+  static int getRecordSize(final int size, final int quantization)
+  {
+    final int bytesPerLine;
+    switch (quantization) {
+    case QUANTIZATION_FLOAT16:
+      bytesPerLine = 2;
+      break;
+    case QUANTIZATION_LOG8:
+      bytesPerLine = 1;
+      break;
+    default:
+      return -1;
+    }
+    return (size * bytesPerLine + 7) & ~7;
+  }
+
+  public String getFilename()
+  {
+    return filename;
+  }
+
+  /**
+   * Returns either TRANSFORM_DST or TRANSFORM_DFT.
+   */
+  public int getTransform()
+  {
+    return transform;
+  }
+
+  /**
+   * Returns the number of spectral lines per fingerprint.
+   */
+  public int getSize()
+  {
+    return size;
+  }
+
+  /**
+   * Returns either QUANTIZATION_FLOAT16 or QUANTIZATION_LOG8.
+   */
+  public int getQuantization()
+  {
+    return quantization;
+  }
+
+  /**
+   * Returns the coupling constant of the DST, or NaN for the DFT.
+   */
+  public double getμ0()
+  {
+    return μ0;
+  }
+
+  public double getLowerBound()
+  {
+    return lowerBound;
+  }
+
+  public double getUpperBound()
+  {
+    return upperBound;
+  }
+
+  public float getMinDecibels()
+  {
+    return minDecibels;
+  }
+
+  public float getMaxDecibels()
+  {
+    return maxDecibels;
+  }
+
+  /**
+   * Returns the number of fingerprints in this store.
+   */
+  public long getCount()
+  {
+    return count;
+  }
+
+  private void checkIndex(final long index)
+  {
+    if ((index < 0) || (index >= count)) {
+      throw new IndexOutOfBoundsException("index " + index + " not in [0, " +
+                                          count + ")");
+    }
+  }
+
+  private void checkQuery(final float query[])
+  {
+    if (query == null) {
+      throw new NullPointerException("query");
+    }
+    if (query.length != size) {
+      throw new IllegalArgumentException("query size mismatch");
+    }
+  }
+
+  private ByteBuffer getMapping(final long index)
+  {
+    return mappings[(int)(index / recordsPerMapping)];
+  }
+
+  private int getOffset(final long index)
+  {
+    return (int)(index % recordsPerMapping) * recordSize;
+  }
+
+  /**
+   * Decodes the magnitudes of the specified fingerprint into the
+   * specified buffer.
+   */
+  public void getFingerprint(final long index, final float magnitudes[])
+  {
+    checkIndex(index);
+    SpectrumExport.checkBuffer(magnitudes, size);
+    final ByteBuffer mapping = getMapping(index);
+    final int offset = getOffset(index);
+    if (quantization == QUANTIZATION_FLOAT16) {
+      for (int i = 0; i < size; i++) {
+        magnitudes[i] =
+          HALF_TO_FLOAT[mapping.getShort(offset + 2 * i) & 0xffff];
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        magnitudes[i] = log8ToFloat[mapping.get(offset + i) & 0xff];
+      }
+    }
+  }
+
+  /**
+   * Returns the same distance as DST.distanceTo(), i.e. the sum of
+   * squared magnitude differences, between the specified magnitudes
+   * and the specified fingerprint of this store.
+   */
+  public double distanceTo(final long index, final float query[])
+  {
+    checkIndex(index);
+    checkQuery(query);
+    return distance(getMapping(index), getOffset(index), query);
+  }
+
+  /**
+   * Returns the distance between two fingerprints of this store.
+   */
+  public double distanceBetween(final long index, final long otherIndex)
+  {
+    checkIndex(index);
+    checkIndex(otherIndex);
+    final ByteBuffer mapping = getMapping(index);
+    final ByteBuffer otherMapping = getMapping(otherIndex);
+    final int offset = getOffset(index);
+    final int otherOffset = getOffset(otherIndex);
+    double sum = 0.0;
+    if (quantization == QUANTIZATION_FLOAT16) {
+      for (int i = 0; i < size; i++) {
+        final float diff =
+          HALF_TO_FLOAT[mapping.getShort(offset + 2 * i) & 0xffff] -
+          HALF_TO_FLOAT[otherMapping.getShort(otherOffset + 2 * i) & 0xffff];
+        sum += diff * diff;
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        final float diff =
+          log8ToFloat[mapping.get(offset + i) & 0xff] -
+          log8ToFloat[otherMapping.get(otherOffset + i) & 0xff];
+        sum += diff * diff;
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Computes the distances between the specified magnitudes and the
+   * fingerprints from the specified index on, in a single sequential
+   * pass over the mapped records.
+   */
+  public void distancesTo(final float query[], final long from,
+                          final double distances[], final int offset,
+                          final int length)
+  {
+    checkQuery(query);
+    if ((length < 0) || (from < 0) || (from + length > count)) {
+      throw new IndexOutOfBoundsException("range out of store");
+    }
+    for (int j = 0; j < length; j++) {
+      final long index = from + j;
+      distances[offset + j] = distance(getMapping(index), getOffset(index),
+                                       query);
+    }
+  }
+
+  /**
+   * Scans the whole store and returns the index of the fingerprint
+   * nearest to the specified magnitudes, or -1, if the store is empty.
+   */
+  public long findNearest(final float query[])
+  {
+    checkQuery(query);
+    long nearest = -1;
+    double nearestDistance = Double.POSITIVE_INFINITY;
+    for (long index = 0; index < count; index++) {
+      final double distance =
+        distance(getMapping(index), getOffset(index), query);
+      if (distance < nearestDistance) {
+        nearest = index;
+        nearestDistance = distance;
+      }
+    }
+    return nearest;
+  }
+
+  private double distance(final ByteBuffer mapping, final int offset,
+                          final float query[])
+  {
+    // separate loops per quantization, such that each one is compiled
+    // with its own profile
+    return
+      quantization == QUANTIZATION_FLOAT16 ?
+      distanceFloat16(mapping, offset, query) :
+      distanceLog8(mapping, offset, query);
+  }
+
+  private double distanceFloat16(final ByteBuffer mapping, final int offset,
+                                 final float query[])
+  {
+    double sum = 0.0;
+    for (int i = 0; i < size; i++) {
+      final float diff =
+        query[i] - HALF_TO_FLOAT[mapping.getShort(offset + 2 * i) & 0xffff];
+      sum += diff * diff;
+    }
+    return sum;
+  }
+
+  private double distanceLog8(final ByteBuffer mapping, final int offset,
+                              final float query[])
+  {
+    double sum = 0.0;
+    for (int i = 0; i < size; i++) {
+      final float diff = query[i] - log8ToFloat[mapping.get(offset + i) & 0xff];
+      sum += diff * diff;
+    }
+    return sum;
+  }
+
+  /**
+   * Releases the file.  The mappings themselves are released by the
+   * garbage collector, as Java provides no means to unmap them
+   * explicitly.
+   */
+  public void close() throws IOException
+  {
+    channel.close();
+  }
+
+  /**
+   * Converts a single precision value into the nearest half precision
+   * value, rounding ties to even.  Values beyond the half precision
+   * range saturate to the largest finite value rather than becoming
+   * infinite.
+   */
+  static short floatToHalf(final float value)
+  {
+    final int bits = Float.floatToRawIntBits(value);
+    final int sign = (bits >>> 16) & 0x8000;
+    final int abs = bits & 0x7fffffff;
+    if (abs > 0x7f800000) {
+      return (short)(sign | 0x7e00); // NaN
+    }
+    final int exponent = (abs >>> 23) - 127 + 15;
+    if (exponent >= 31) {
+      return (short)(sign | 0x7bff);
+    }
+    if (exponent <= 0) {
+      // subnormal half precision value or zero
+      if (exponent < -10) {
+        return (short)sign;
+      }
+      final int mantissa = (abs & 0x7fffff) | 0x800000;
+      final int shift = 14 - exponent;
+      int half = mantissa >>> shift;
+      final int remainder = mantissa & ((1 << shift) - 1);
+      final int halfway = 1 << (shift - 1);
+      if ((remainder > halfway) ||
+          ((remainder == halfway) && ((half & 1) != 0))) {
+        half++;
+      }
+      return (short)(sign | half);
+    }
+    int half = (exponent << 10) | ((abs >>> 13) & 0x3ff);
+    final int remainder = abs & 0x1fff;
+    if ((remainder > 0x1000) ||
+        ((remainder == 0x1000) && ((half & 1) != 0))) {
+      half++;
+    }
+    if (half >= 0x7c00) {
+      half = 0x7bff;
+    }
+    return (short)(sign | half);
+  }
+
+  static float halfToFloat(final int half)
+  {
+    final int sign = (half & 0x8000) << 16;
+    final int exponent = (half >>> 10) & 0x1f;
+    final int mantissa = half & 0x3ff;
+    if (exponent == 0) {
+      final float value = mantissa * 0x1.0p-24f;
+      return sign != 0 ? -value : value;
+    }
+    if (exponent == 31) {
+      return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+    }
+    return
+      Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) |
+                           (mantissa << 13));
+  }
+
+  private static float[] createHalfToFloatTable()
+  {
+    final float table[] = new float[1 << 16];
+    for (int half = 0; half < table.length; half++) {
+      table[half] = halfToFloat(half);
+    }
+    return table;
+  }
+
+  /**
+   * Returns the 8 bit code for the specified magnitude.
+   */
+  static byte magnitudeToLog8(final float magnitude,
+                              final float minDecibels,
+                              final float maxDecibels)
+  {
+    if (!(magnitude > 0.0f)) {
+      return 0;
+    }
+    final double step = (maxDecibels - minDecibels) / 254.0;
+    final double decibels = 20.0 * Math.log10(magnitude);
+    final long code = Math.round((decibels - minDecibels) / step) + 1;
+    if (code < 1) {
+      return 0;
+    }
+    return (byte)Math.min(code, 255);
+  }
+
+  static float[] createLog8ToFloatTable(final float minDecibels,
+                                        final float maxDecibels)
+  {
+    final double step = (maxDecibels - minDecibels) / 254.0;
+    final float table[] = new float[256];
+    table[0] = 0.0f;
+    for (int code = 1; code < table.length; code++) {
+      table[code] =
+        (float)Math.pow(10.0, (minDecibels + (code - 1) * step) / 20.0);
+    }
+    return table;
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
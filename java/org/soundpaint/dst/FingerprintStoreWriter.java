@@ -0,0 +1,292 @@
+/*
+ * FingerprintStoreWriter.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes fingerprints into a new file in the format described for
+ * FingerprintStore.  Records are buffered and written in large
+ * chunks; the number of records in the header is updated upon
+ * close(), such that an incompletely written file opens as a store
+ * with no or only the flushed records.
+ */
+public class FingerprintStoreWriter
+{
+  private static final int BUFFER_SIZE = 1 << 20;
+
+  private final String filename;
+  private final FileChannel channel;
+  private final int transform;
+  private final int size;
+  private final int quantization;
+  private final double μ0;
+  private final double lowerBound;
+  private final double upperBound;
+  private final float minDecibels;
+  private final float maxDecibels;
+  private final int recordSize;
+  private final ByteBuffer buffer;
+  private final float magnitudes[];
+  private long count;
+
+  private FingerprintStoreWriter()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * Creates a store for DST fingerprints with the default level range
+   * for log quantization.
+   */
+  public FingerprintStoreWriter(final String filename, final double μ0,
+                                final int size, final double lowerBound,
+                                final double upperBound,
+                                final int quantization)
+    throws IOException
+  {
+    this(filename, FingerprintStore.TRANSFORM_DST, μ0, size,
+         lowerBound, upperBound, quantization,
+         FingerprintStore.DEFAULT_MIN_DECIBELS,
+         FingerprintStore.DEFAULT_MAX_DECIBELS);
+  }
+
+  /**
+   * @param transform Either FingerprintStore.TRANSFORM_DST or
+   * FingerprintStore.TRANSFORM_DFT.
+   * @param μ0 The coupling constant of the DST; ignored for the DFT.
+   * @param quantization Either FingerprintStore.QUANTIZATION_FLOAT16
+   * or FingerprintStore.QUANTIZATION_LOG8.
+   * @param minDecibels The lowest magnitude level that can be
+   * represented with log quantization.
+   * @param maxDecibels The highest magnitude level that can be
+   * represented with log quantization.
+   */
+  public FingerprintStoreWriter(final String filename, final int transform,
+                                final double μ0, final int size,
+                                final double lowerBound,
+                                final double upperBound,
+                                final int quantization,
+                                final float minDecibels,
+                                final float maxDecibels)
+    throws IOException
+  {
+    if (filename == null) {
+      throw new NullPointerException("filename");
+    }
+    if ((transform != FingerprintStore.TRANSFORM_DST) &&
+        (transform != FingerprintStore.TRANSFORM_DFT)) {
+      throw new IllegalArgumentException("unknown transform");
+    }
+    if (size < 1) {
+      throw new IllegalArgumentException("size < 1");
+    }
+    recordSize = FingerprintStore.getRecordSize(size, quantization);
+    if (recordSize < 0) {
+      throw new IllegalArgumentException("unknown quantization");
+    }
+    if (!(minDecibels < maxDecibels)) {
+      throw new IllegalArgumentException("minDecibels >= maxDecibels");
+    }
+    this.filename = filename;
+    this.transform = transform;
+    this.size = size;
+    this.quantization = quantization;
+    this.μ0 = transform == FingerprintStore.TRANSFORM_DST ? μ0 : Double.NaN;
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+    this.minDecibels = minDecibels;
+    this.maxDecibels = maxDecibels;
+    buffer =
+      ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, recordSize)).
+      order(ByteOrder.LITTLE_ENDIAN);
+    magnitudes = new float[size];
+    count = 0;
+    channel = FileChannel.open(Paths.get(filename),
+                               StandardOpenOption.CREATE,
+                               StandardOpenOption.TRUNCATE_EXISTING,
+                               StandardOpenOption.WRITE);
+    try {
+      writeHeader();
+    } catch (final IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private void writeHeader() throws IOException
+  {
+    final ByteBuffer header =
+      ByteBuffer.allocate(FingerprintStore.HEADER_SIZE).
+      order(ByteOrder.LITTLE_ENDIAN);
+    header.put(FingerprintStore.MAGIC);
+    header.putInt(FingerprintStore.VERSION);
+    header.putInt(transform);
+    header.putInt(size);
+    header.putInt(quantization);
+    header.putDouble(μ0);
+    header.putDouble(lowerBound);
+    header.putDouble(upperBound);
+    header.putFloat(minDecibels);
+    header.putFloat(maxDecibels);
+    header.putLong(count);
+    header.flip();
+    writeFully(header, 0);
+  }
+
+  private void writeFully(final ByteBuffer data, final long position)
+    throws IOException
+  {
+    long offset = position;
+    while (data.hasRemaining()) {
+      offset += channel.write(data, offset);
+    }
+  }
+
+  public String getFilename()
+  {
+    return filename;
+  }
+
+  /**
+   * Returns the number of fingerprints added so far.
+   */
+  public long getCount()
+  {
+    return count;
+  }
+
+  private void checkBounds(final double lowerBound, final double upperBound)
+  {
+    if ((lowerBound != this.lowerBound) || (upperBound != this.upperBound)) {
+      throw new IllegalArgumentException("bounds mismatch");
+    }
+  }
+
+  /**
+   * Appends the fingerprint of a frozen DST.
+   */
+  public void add(final DST fingerprint) throws IOException
+  {
+    if (fingerprint == null) {
+      throw new NullPointerException("fingerprint");
+    }
+    if (transform != FingerprintStore.TRANSFORM_DST) {
+      throw new IllegalArgumentException("store is not for DST fingerprints");
+    }
+    if (fingerprint.getμ0() != μ0) {
+      throw new IllegalArgumentException("μ0 mismatch");
+    }
+    checkBounds(fingerprint.getLowerBound(), fingerprint.getUpperBound());
+    add(fingerprint.getFingerprint());
+  }
+
+  /**
+   * Appends the fingerprint of a frozen DFT.
+   */
+  public void add(final DFT fingerprint) throws IOException
+  {
+    if (fingerprint == null) {
+      throw new NullPointerException("fingerprint");
+    }
+    if (transform != FingerprintStore.TRANSFORM_DFT) {
+      throw new IllegalArgumentException("store is not for DFT fingerprints");
+    }
+    checkBounds(fingerprint.getLowerBound(), fingerprint.getUpperBound());
+    add(fingerprint.getFingerprint());
+  }
+
+  /**
+   * Appends a fingerprint, given as vector of spectral magnitudes.
+   */
+  public void add(final float magnitudes[]) throws IOException
+  {
+    if (magnitudes == null) {
+      throw new NullPointerException("magnitudes");
+    }
+    if (magnitudes.length != size) {
+      throw new IllegalArgumentException("fingerprint size mismatch");
+    }
+    if (buffer.remaining() < recordSize) {
+      flush();
+    }
+    final int start = buffer.position();
+    if (quantization == FingerprintStore.QUANTIZATION_FLOAT16) {
+      for (int i = 0; i < size; i++) {
+        buffer.putShort(FingerprintStore.floatToHalf(magnitudes[i]));
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        buffer.put(FingerprintStore.magnitudeToLog8(magnitudes[i],
+                                                    minDecibels,
+                                                    maxDecibels));
+      }
+    }
+    while (buffer.position() < start + recordSize) {
+      buffer.put((byte)0);
+    }
+    count++;
+  }
+
+  /**
+   * Writes all buffered records to the file and updates the number of
+   * records in the header.
+   */
+  public void flush() throws IOException
+  {
+    final long written =
+      count - buffer.position() / recordSize;
+    buffer.flip();
+    writeFully(buffer, FingerprintStore.HEADER_SIZE + written * recordSize);
+    buffer.clear();
+    final ByteBuffer countBuffer =
+      ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    countBuffer.putLong(count);
+    countBuffer.flip();
+    writeFully(countBuffer, FingerprintStore.COUNT_OFFSET);
+  }
+
+  public void close() throws IOException
+  {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -55,6 +55,41 @@ public abstract class FiniteWave implements Wave
     return position;
   }
 
+  /**
+   * Moves the position forward by @code{n} samples, for subclasses
+   * that fetch samples other than via @code{getNextSample()}.
+   */
+  protected void advancePosition(final long n)
+  {
+    position += n;
+  }
+
+  /**
+   * To be called by subclasses upon reset.
+   */
+  protected void resetPosition()
+  {
+    position = 0;
+  }
+
+  /**
+   * Fetches up to @code{length} samples into the specified buffer.
+   * Subclasses may override this method for decoding whole blocks at
+   * once.
+   * @return The number of samples fetched, which is less than
+   * @code{length} only upon reaching the end of this wave.
+   */
+  public int getNextSamples(final double buffer[], final int offset,
+                            final int length)
+    throws IOException
+  {
+    int count = 0;
+    while ((count < length) && !eof()) {
+      buffer[offset + count++] = getNextSample();
+    }
+    return count;
+  }
+
   /**
    * Skips @code{n} samples.
    */
@@ -0,0 +1,225 @@
+/*
+ * FrameEmitter.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+/**
+ * Decouples the rate at which spectra are consumed from the sample
+ * rate: the state of the underlying transform is updated with every
+ * sample, but a frame (i.e. magnitudes and optionally phases of all
+ * spectral lines) is materialized only every <code>hop</code>
+ * samples, into buffers supplied by the caller, and then delivered
+ * to a listener.  Between two frames, samples are passed to the
+ * transform as blocks, such that the transform may reorder its
+ * computation for better cache locality.
+ */
+public class FrameEmitter
+{
+  /**
+   * With timing enabled in the metrics, only every TIMING_INTERVAL-th
+   * block put into the transform is timed, such that small hops are
+   * not slowed down noticeably by calls of System.nanoTime().
+   */
+  private static final int TIMING_INTERVAL = 16;
+
+  /**
+   * Listener that receives the materialized frames.
+   */
+  public static interface FrameListener
+  {
+    /**
+     * Called whenever another hop of samples has been put into the
+     * transform.
+     * @param sampleCount Total number of samples put in so far.
+     * @param magnitudes The magnitudes of the spectral lines.
+     * @param phases The phases of the spectral lines, or
+     * <code>null</code>, if the emitter has been created without
+     * phases buffer.
+     */
+    void frameEmitted(final FrameEmitter emitter, final long sampleCount,
+                      final double magnitudes[], final double phases[]);
+  }
+
+  private final SlidingWindowTransform transform;
+  private final int hop;
+  private final double magnitudes[], phases[];
+  private final FrameListener listener;
+  private final double singleSample[];
+  private long sampleCount;
+  private int samplesUntilFrame;
+  private int blocksUntilTiming;
+  private volatile Metrics metrics;
+
+  private FrameEmitter()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  public FrameEmitter(final SlidingWindowTransform transform, final int hop,
+                      final double magnitudes[], final FrameListener listener)
+  {
+    this(transform, hop, magnitudes, null, listener);
+  }
+
+  /**
+   * @param magnitudes Buffer to materialize the magnitudes into.
+   * Must provide room for at least transform.getSize() values.
+   * @param phases Buffer to materialize the phases into, or
+   * <code>null</code>, if no phases are needed.  If not
+   * <code>null</code>, must provide room for at least
+   * transform.getSize() values.
+   */
+  public FrameEmitter(final SlidingWindowTransform transform, final int hop,
+                      final double magnitudes[], final double phases[],
+                      final FrameListener listener)
+  {
+    if (transform == null) {
+      throw new NullPointerException("transform");
+    }
+    if (hop <= 0) {
+      throw new IllegalArgumentException("hop <= 0");
+    }
+    if (magnitudes == null) {
+      throw new NullPointerException("magnitudes");
+    }
+    if (magnitudes.length < transform.getSize()) {
+      throw new IllegalArgumentException("magnitudes buffer too small");
+    }
+    if ((phases != null) && (phases.length < transform.getSize())) {
+      throw new IllegalArgumentException("phases buffer too small");
+    }
+    if (listener == null) {
+      throw new NullPointerException("listener");
+    }
+    this.transform = transform;
+    this.hop = hop;
+    this.magnitudes = magnitudes;
+    this.phases = phases;
+    this.listener = listener;
+    singleSample = new double[1];
+    sampleCount = 0;
+    samplesUntilFrame = hop;
+    blocksUntilTiming = 0;
+  }
+
+  public SlidingWindowTransform getTransform()
+  {
+    return transform;
+  }
+
+  public int getHop()
+  {
+    return hop;
+  }
+
+  /**
+   * Sets the metrics to record processed samples, emitted frames
+   * and, if timing is enabled, the time of every 16th block put into
+   * the transform into.
+   * @param metrics The metrics, or <code>null</code> for no
+   * recording.
+   */
+  public void setMetrics(final Metrics metrics)
+  {
+    this.metrics = metrics;
+  }
+
+  public Metrics getMetrics()
+  {
+    return metrics;
+  }
+
+  /**
+   * Returns the total number of samples put in so far.
+   */
+  public long getSampleCount()
+  {
+    return sampleCount;
+  }
+
+  public void putBin(final double sample)
+  {
+    singleSample[0] = sample;
+    putBins(singleSample, 0, 1);
+  }
+
+  public void putBins(final double samples[])
+  {
+    putBins(samples, 0, samples.length);
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length)
+  {
+    SampleChecks.checkBlock(samples, offset, length);
+    final Metrics metrics = this.metrics;
+    final boolean timing = (metrics != null) && metrics.isTimingEnabled();
+    final int stop = offset + length;
+    int pos = offset;
+    while (pos < stop) {
+      final int chunk = Math.min(stop - pos, samplesUntilFrame);
+      final boolean timed = timing && (blocksUntilTiming-- <= 0);
+      final long start = timed ? System.nanoTime() : 0;
+      if (chunk == 1) {
+        transform.putBin(samples[pos]);
+      } else {
+        transform.putBins(samples, pos, chunk);
+      }
+      if (metrics != null) {
+        if (timed) {
+          metrics.recordTransform(System.nanoTime() - start);
+          blocksUntilTiming = TIMING_INTERVAL - 1;
+        }
+        metrics.addSamplesProcessed(chunk);
+      }
+      pos += chunk;
+      sampleCount += chunk;
+      samplesUntilFrame -= chunk;
+      if (samplesUntilFrame == 0) {
+        samplesUntilFrame = hop;
+        emitFrame();
+        if (metrics != null) {
+          metrics.incrementFramesEmitted();
+        }
+      }
+    }
+  }
+
+  private void emitFrame()
+  {
+    transform.getMagnitudes(magnitudes);
+    if (phases != null) {
+      transform.getPhases(phases);
+    }
+    listener.frameEmitted(this, sampleCount, magnitudes, phases);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,522 @@
+/*
+ * GoertzelSlidingWindow.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.PrintStream;
+
+/**
+ * Sliding DFT for an explicit, usually short list of target
+ * frequencies, such as mains hum, machine harmonics or pilot tones.
+ * Each line runs a Goertzel resonator, i.e. the real recurrence
+ *
+ * v[t] = x[t] - x[t - length] + 2 cos(ω) v[t - 1] - v[t - 2],
+ *
+ * which costs a single multiplication per sample and line, and from
+ * which the line is derived only when it is read, as
+ *
+ * window = e^(iω) v[t] - v[t - 1] = sum_{m=0}^{length-1} x[t - m] e^(iω (m + 1)),
+ *
+ * i.e. with the same convention as the DFTSlidingWindow.  All lines
+ * share a single ring buffer of the most recent windowSize samples,
+ * from which each line removes its samples exactly.
+ *
+ * Removal by plain subtraction requires that ω length is an integral
+ * multiple of 2π, since otherwise the resonator is excited without
+ * bounds.  Therefore, each line gets its own window length of
+ * between windowSize / 2 and windowSize samples that best fits an
+ * integral number of periods, and its frequency is adjusted to make
+ * the fit exact.  The adjustment is typically far below the
+ * resolution of the window; getFrequency() returns the adjusted
+ * frequency.  Magnitudes are scaled by windowSize / length, such
+ * that a sinusoid results in about the same magnitude on all lines.
+ *
+ * Rounding errors of the resonators are not damped; similar to the
+ * DFTSlidingWindow, lines may therefore be recomputed from the ring
+ * buffer in round robin, see setResyncPeriod().
+ */
+public class GoertzelSlidingWindow implements SlidingWindowTransform
+{
+  private final int size;
+  private final int windowSize;
+  private final int minWindowLength;
+  private final int windowLengths[];
+  private final double frequencies[];
+  private final double coefficients[];
+  private final double shiftRe[], shiftIm[];
+  private final double scales[];
+
+  /**
+   * Resonator states v[t] and v[t - 1] of each line.
+   */
+  private final double v1[], v2[];
+
+  /**
+   * Ring buffer position of the sample that leaves the window of
+   * each line next; only valid within putChunk().
+   */
+  private final int removePositions[];
+
+  private final double windowRe[], windowIm[];
+  private boolean linesValid;
+  private final double reconstructionWeightRe[], reconstructionWeightIm[];
+
+  /**
+   * Ring buffer of the most recent windowSize samples; the next
+   * sample is stored at writePos.
+   */
+  private final double signalWindow[];
+  private int writePos;
+  private long resyncPeriod;
+  private double resyncLinesPerSample;
+  private double resyncBudget;
+  private int resyncLine;
+  private final TransferFunctionCache filterCache;
+
+  private GoertzelSlidingWindow()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * @param frequencies The target frequencies, specified as fraction
+   * of the sampling frequency, each greater than 0 and less than 0.5.
+   * @param windowSize The maximum number of samples within the
+   * window of any line.  The window of each line must be able to hold
+   * at least one period of its frequency.
+   */
+  public GoertzelSlidingWindow(final double frequencies[],
+                               final int windowSize)
+  {
+    if (frequencies == null) {
+      throw new NullPointerException("frequencies");
+    }
+    if (frequencies.length == 0) {
+      throw new IllegalArgumentException("no frequencies");
+    }
+    if (windowSize < 2) {
+      throw new IllegalArgumentException("window size < 2");
+    }
+    size = frequencies.length;
+    this.windowSize = windowSize;
+    windowLengths = new int[size];
+    this.frequencies = new double[size];
+    coefficients = new double[size];
+    shiftRe = new double[size];
+    shiftIm = new double[size];
+    scales = new double[size];
+    reconstructionWeightRe = new double[size];
+    reconstructionWeightIm = new double[size];
+    int minWindowLength = windowSize;
+    for (int i = 0; i < size; i++) {
+      final double frequency = frequencies[i];
+      if (!(frequency > 0.0) || !(frequency < 0.5)) {
+        throw new IllegalArgumentException("frequency out of range: " +
+                                           frequency);
+      }
+      final int length = fitWindowLength(frequency, windowSize);
+      if (length == 0) {
+        throw new IllegalArgumentException("frequency too low for window size: " +
+                                           frequency);
+      }
+      final long periods = Math.round(frequency * length);
+      final double omega = 2.0 * Math.PI * periods / length;
+      windowLengths[i] = length;
+      minWindowLength = Math.min(minWindowLength, length);
+      this.frequencies[i] = (double)periods / length;
+      coefficients[i] = 2.0 * Math.cos(omega);
+      shiftRe[i] = Math.cos(omega);
+      shiftIm[i] = Math.sin(omega);
+      scales[i] = (double)windowSize / length;
+      reconstructionWeightRe[i] = Math.cos(-omega) / (2.0 * Math.PI) / size;
+      reconstructionWeightIm[i] = Math.sin(-omega) / (2.0 * Math.PI) / size;
+    }
+    this.minWindowLength = minWindowLength;
+    v1 = new double[size];
+    v2 = new double[size];
+    removePositions = new int[size];
+    windowRe = new double[size];
+    windowIm = new double[size];
+    linesValid = true;
+    signalWindow = new double[windowSize];
+    writePos = 0;
+    resyncPeriod = 0;
+    resyncLinesPerSample = 0.0;
+    resyncBudget = 0.0;
+    resyncLine = 0;
+    filterCache = new TransferFunctionCache(size);
+  }
+
+  /**
+   * Returns the window length between (windowSize + 1) / 2 and
+   * windowSize that holds an integral number of periods of the
+   * specified frequency with the least frequency deviation,
+   * preferring longer windows, or 0, if no such window length
+   * exists.
+   */
+  private static int fitWindowLength(final double frequency,
+                                     final int windowSize)
+  {
+    int bestLength = 0;
+    double bestDeviation = Double.POSITIVE_INFINITY;
+    for (int length = windowSize; length >= (windowSize + 1) / 2; length--) {
+      final long periods = Math.round(frequency * length);
+      if ((periods < 1) || (2 * periods >= length)) {
+        continue;
+      }
+      final double deviation = Math.abs(frequency - (double)periods / length);
+      if (deviation < bestDeviation) {
+        bestDeviation = deviation;
+        bestLength = length;
+        if (deviation == 0.0) {
+          break;
+        }
+      }
+    }
+    return bestLength;
+  }
+
+  public void printInfo(final PrintStream out, final double samplingFrequency)
+  {
+    out.println("sampling frequency [Hz]: " + samplingFrequency);
+    out.println("spectral lines [#]: " + size);
+    out.println("window size [samples]: " + windowSize);
+    for (int i = 0; i < size; i++) {
+      out.printf("line %d: %.6f Hz, window length %d samples%n", i,
+                 frequencies[i] * samplingFrequency, windowLengths[i]);
+    }
+  }
+
+  public int getSize()
+  {
+    return size;
+  }
+
+  public int getWindowSize()
+  {
+    return windowSize;
+  }
+
+  /**
+   * Returns the frequency of the specified line as fraction of the
+   * sampling frequency, after adjustment to the window length of the
+   * line.
+   */
+  public double getFrequency(final int index)
+  {
+    checkIndex(index);
+    return frequencies[index];
+  }
+
+  /**
+   * Returns the number of samples within the window of the
+   * specified line.
+   */
+  public int getWindowLength(final int index)
+  {
+    checkIndex(index);
+    return windowLengths[index];
+  }
+
+  private void checkIndex(final int index)
+  {
+    if ((index < 0) || (index >= size)) {
+      throw new IllegalArgumentException("index out of range");
+    }
+  }
+
+  /**
+   * Sets the number of samples after which each line is recomputed
+   * from the samples within its window, thus discarding any
+   * accumulated rounding error.  The recomputation is spread evenly
+   * over the period, costing about size * windowSize / resyncPeriod
+   * multiply-adds per sample.  Defaults to 0, i.e. no
+   * resynchronization.
+   */
+  public void setResyncPeriod(final long resyncPeriod)
+  {
+    if (resyncPeriod < 0) {
+      throw new IllegalArgumentException("resync period < 0");
+    }
+    this.resyncPeriod = resyncPeriod;
+    resyncLinesPerSample =
+      resyncPeriod > 0 ? (double)size / resyncPeriod : 0.0;
+    resyncBudget = 0.0;
+  }
+
+  public long getResyncPeriod()
+  {
+    return resyncPeriod;
+  }
+
+  /**
+   * Runs the resonators of all lines through a chunk of samples that
+   * have not yet been stored into the ring buffer, and then stores
+   * them.  Since the chunk is not longer than any window, the sample
+   * that leaves the window of a line is always still in the ring
+   * buffer.  Lines are advanced side by side rather than one after
+   * the other, since the recurrence of a single line is a chain of
+   * dependent operations, while different lines are independent.
+   */
+  private void putChunk(final double samples[], final int offset,
+                        final int length)
+  {
+    for (int i = 0; i < size; i++) {
+      int removePos = writePos - windowLengths[i];
+      if (removePos < 0) {
+        removePos += windowSize;
+      }
+      removePositions[i] = removePos;
+    }
+    for (int j = 0; j < length; j++) {
+      final double sample = samples[offset + j];
+      for (int i = 0; i < size; i++) {
+        final int removePos = removePositions[i];
+        final double s1 = v1[i];
+        v1[i] = sample - signalWindow[removePos] + coefficients[i] * s1 - v2[i];
+        v2[i] = s1;
+        removePositions[i] = removePos + 1 < windowSize ? removePos + 1 : 0;
+      }
+    }
+    for (int j = 0; j < length; j++) {
+      signalWindow[writePos] = samples[offset + j];
+      writePos++;
+      if (writePos == windowSize) {
+        writePos = 0;
+      }
+    }
+    linesValid = false;
+  }
+
+  /**
+   * Recomputes the resonator state of line i from the samples within
+   * its window, from the oldest sample to the newest one.
+   */
+  private void resyncLine(final int i)
+  {
+    final double coefficient = coefficients[i];
+    int pos = writePos - windowLengths[i];
+    if (pos < 0) {
+      pos += windowSize;
+    }
+    double s1 = 0.0;
+    double s2 = 0.0;
+    for (int m = 0; m < windowLengths[i]; m++) {
+      final double s0 = signalWindow[pos] + coefficient * s1 - s2;
+      s2 = s1;
+      s1 = s0;
+      pos++;
+      if (pos == windowSize) {
+        pos = 0;
+      }
+    }
+    v1[i] = s1;
+    v2[i] = s2;
+    linesValid = false;
+  }
+
+  /**
+   * Resynchronizes as many lines as are due after the specified
+   * number of samples.
+   */
+  private void resync(final int samples)
+  {
+    if (resyncPeriod == 0) {
+      return;
+    }
+    resyncBudget += samples * resyncLinesPerSample;
+    while (resyncBudget >= 1.0) {
+      resyncLine(resyncLine);
+      resyncLine++;
+      if (resyncLine == size) {
+        resyncLine = 0;
+      }
+      resyncBudget -= 1.0;
+    }
+  }
+
+  /**
+   * Recomputes all lines exactly from the samples within their
+   * windows at once.
+   */
+  public void resyncAll()
+  {
+    for (int i = 0; i < size; i++) {
+      resyncLine(i);
+    }
+  }
+
+  public void putBin(final double sample)
+  {
+    SampleChecks.checkSample(sample);
+    for (int i = 0; i < size; i++) {
+      int removePos = writePos - windowLengths[i];
+      if (removePos < 0) {
+        removePos += windowSize;
+      }
+      final double s0 =
+        sample - signalWindow[removePos] + coefficients[i] * v1[i] - v2[i];
+      v2[i] = v1[i];
+      v1[i] = s0;
+    }
+    signalWindow[writePos] = sample;
+    writePos++;
+    if (writePos == windowSize) {
+      writePos = 0;
+    }
+    linesValid = false;
+    resync(1);
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length)
+  {
+    putBins(samples, offset, length, null);
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length,
+                      final SampleListener listener)
+  {
+    SampleChecks.checkBlock(samples, offset, length);
+    if (listener != null) {
+      for (int j = 0; j < length; j++) {
+        putBin(samples[offset + j]);
+        listener.samplePut(this, offset + j);
+      }
+      return;
+    }
+    for (int j = 0; j < length; j++) {
+      SampleChecks.checkSample(samples[offset + j]);
+    }
+    for (int pos = 0; pos < length; pos += minWindowLength) {
+      putChunk(samples, offset + pos, Math.min(minWindowLength, length - pos));
+    }
+    resync(length);
+  }
+
+  /**
+   * Derives the spectral lines from the resonator states, if any
+   * sample has been put in since the last call.
+   */
+  private void updateLines()
+  {
+    if (linesValid) {
+      return;
+    }
+    for (int i = 0; i < size; i++) {
+      windowRe[i] = (shiftRe[i] * v1[i] - v2[i]) * scales[i];
+      windowIm[i] = shiftIm[i] * v1[i] * scales[i];
+    }
+    linesValid = true;
+  }
+
+  public Complex getLine(final int index)
+  {
+    checkIndex(index);
+    updateLines();
+    return ComplexFactory.createFromCartesian(windowRe[index],
+                                              windowIm[index]);
+  }
+
+  public void copyState(final double re[], final double im[])
+  {
+    SpectrumExport.checkBuffer(re, size);
+    SpectrumExport.checkBuffer(im, size);
+    updateLines();
+    SpectrumExport.copyState(windowRe, windowIm, 0, re, im, 0, size);
+  }
+
+  public void getPower(final double power[])
+  {
+    SpectrumExport.checkBuffer(power, size);
+    updateLines();
+    SpectrumExport.getPower(windowRe, windowIm, 0, power, 0, size);
+  }
+
+  public void getMagnitudes(final double magnitudes[])
+  {
+    SpectrumExport.checkBuffer(magnitudes, size);
+    updateLines();
+    SpectrumExport.getMagnitudes(windowRe, windowIm, 0, magnitudes, 0, size);
+  }
+
+  public void getLogMagnitudes(final float logMagnitudes[],
+                               final double floor,
+                               final boolean approximate)
+  {
+    SpectrumExport.checkBuffer(logMagnitudes, size);
+    updateLines();
+    SpectrumExport.getLogMagnitudes(windowRe, windowIm, 0,
+                                    logMagnitudes, 0, size,
+                                    floor, approximate);
+  }
+
+  public void getPhases(final double phases[])
+  {
+    SpectrumExport.checkBuffer(phases, size);
+    updateLines();
+    SpectrumExport.getPhases(windowRe, windowIm, 0, phases, 0, size);
+  }
+
+  public double getReconstructedSample()
+  {
+    return getReconstructedSample(null);
+  }
+
+  public double getReconstructedSample(final TransferFunction filter)
+  {
+    updateLines();
+    double sum = 0.0;
+    if (filter == null) {
+      for (int i = 0; i < size; i++) {
+        sum +=
+          windowRe[i] * reconstructionWeightRe[i] -
+          windowIm[i] * reconstructionWeightIm[i];
+      }
+      return sum;
+    }
+    filterCache.update(filter);
+    final double filterRe[] = filterCache.getRe();
+    final double filterIm[] = filterCache.getIm();
+    for (int i = 0; i < size; i++) {
+      final double lineRe =
+        windowRe[i] * reconstructionWeightRe[i] -
+        windowIm[i] * reconstructionWeightIm[i];
+      final double lineIm =
+        windowRe[i] * reconstructionWeightIm[i] +
+        windowIm[i] * reconstructionWeightRe[i];
+      sum += lineRe * filterRe[i] - lineIm * filterIm[i];
+    }
+    return sum;
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,317 @@
+/*
+ * KeyframeIndex.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sidecar file of DST state snapshots ("keyframes"), taken every
+ * interval samples while analyzing a wave once.  Since the state of
+ * the DST depends on the whole history of samples, seeking to an
+ * arbitrary position otherwise requires replaying the wave from its
+ * start.  With a keyframe index, seek() restores the nearest
+ * keyframe at or before the target position and replays less than
+ * interval samples.
+ *
+ * File format (all values little endian):
+ *
+ * <pre>
+ *  offset  type     content
+ *       0  byte[8]  magic "DSTKEYFR"
+ *       8  int      format version (1)
+ *      12  int      length of each snapshot in bytes
+ *      16  long     interval, i.e. samples between keyframes
+ *      24  long     number of keyframes
+ *      32  long     total number of samples of the analyzed wave
+ *      40           keyframes
+ * </pre>
+ *
+ * Keyframe n holds the state after n * interval samples, in the
+ * snapshot format of DSTSlidingWindow.snapshot(); since all snapshots
+ * have the same length, keyframes are located without any table.
+ */
+public class KeyframeIndex implements AutoCloseable
+{
+  private static final byte MAGIC[] = {
+    'D', 'S', 'T', 'K', 'E', 'Y', 'F', 'R'
+  };
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 40;
+
+  /**
+   * Maximum number of samples that are replayed per block.
+   */
+  private static final int MAX_REPLAY_BLOCK = 1 << 16;
+
+  private final String filename;
+  private final FileChannel channel;
+  private final int snapshotLength;
+  private final long interval;
+  private final long keyframeCount;
+  private final long totalNumberOfSamples;
+  private final double replayBuffer[];
+
+  private KeyframeIndex()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * Opens an existing keyframe index.
+   */
+  public KeyframeIndex(final String filename) throws IOException
+  {
+    if (filename == null) {
+      throw new NullPointerException("filename");
+    }
+    this.filename = filename;
+    channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+    try {
+      final ByteBuffer header =
+        ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header, header.position()) < 0) {
+          throw new IOException(filename + ": truncated header");
+        }
+      }
+      for (int i = 0; i < MAGIC.length; i++) {
+        if (header.get(i) != MAGIC[i]) {
+          throw new IOException(filename + ": not a keyframe index");
+        }
+      }
+      if (header.getInt(8) != VERSION) {
+        throw new IOException(filename + ": unsupported format version " +
+                              header.getInt(8));
+      }
+      snapshotLength = header.getInt(12);
+      interval = header.getLong(16);
+      keyframeCount = header.getLong(24);
+      totalNumberOfSamples = header.getLong(32);
+      if ((snapshotLength <= 0) || (interval <= 0) || (keyframeCount <= 0) ||
+          (keyframeCount >
+           (channel.size() - HEADER_SIZE) / snapshotLength)) {
+        throw new IOException(filename + ": corrupt header");
+      }
+    } catch (final IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    replayBuffer = new double[(int)Math.min(interval, MAX_REPLAY_BLOCK)];
+  }
+
+  /**
+   * Analyzes the remaining samples of the wave with a DST of the
+   * specified coefficients, and writes a keyframe index with a
+   * snapshot every interval samples into the specified file.  The
+   * analysis is distributed over the specified number of threads,
+   * see TimeParallelDST.
+   * @return The opened index.
+   */
+  public static KeyframeIndex build(final FiniteWave wave,
+                                    final DSTCoefficients coefficients,
+                                    final int interval,
+                                    final String filename,
+                                    final int workerCount)
+    throws IOException
+  {
+    if (wave == null) {
+      throw new NullPointerException("wave");
+    }
+    if (coefficients == null) {
+      throw new NullPointerException("coefficients");
+    }
+    if (filename == null) {
+      throw new NullPointerException("filename");
+    }
+    if (interval <= 0) {
+      throw new IllegalArgumentException("interval <= 0");
+    }
+    final DSTSlidingWindow window = new DSTSlidingWindow(coefficients);
+    final long keyframeCount[] = new long[1];
+    final TimeParallelDST transform =
+      new TimeParallelDST(coefficients, interval, workerCount,
+                          TimeParallelDST.DEFAULT_CHUNKS_PER_GROUP);
+    final FileChannel out =
+      FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                       StandardOpenOption.TRUNCATE_EXISTING,
+                       StandardOpenOption.WRITE);
+    try {
+      out.position(HEADER_SIZE);
+      // keyframe 0 is the initial state
+      window.snapshot(out);
+      keyframeCount[0] = 1;
+      final int snapshotLength = (int)(out.position() - HEADER_SIZE);
+      try {
+        transform.analyze(wave, new TimeParallelDST.BoundaryListener() {
+            public void boundaryReached(final TimeParallelDST transform,
+                                        final long position,
+                                        final double re[],
+                                        final double im[])
+            {
+              if (position % interval != 0) {
+                // end of wave within an interval
+                return;
+              }
+              window.setState(re, im);
+              try {
+                window.snapshot(out);
+              } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+              }
+              keyframeCount[0]++;
+            }
+          });
+      } catch (final UncheckedIOException e) {
+        throw e.getCause();
+      } finally {
+        transform.shutdown();
+      }
+      final ByteBuffer header =
+        ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      header.put(MAGIC);
+      header.putInt(VERSION);
+      header.putInt(snapshotLength);
+      header.putLong(interval);
+      header.putLong(keyframeCount[0]);
+      header.putLong(transform.getPosition());
+      header.flip();
+      long position = 0;
+      while (header.hasRemaining()) {
+        position += out.write(header, position);
+      }
+    } finally {
+      out.close();
+    }
+    return new KeyframeIndex(filename);
+  }
+
+  public String getFilename()
+  {
+    return filename;
+  }
+
+  public long getInterval()
+  {
+    return interval;
+  }
+
+  public long getKeyframeCount()
+  {
+    return keyframeCount;
+  }
+
+  /**
+   * Returns the number of samples of the wave that the index has been
+   * built from.
+   */
+  public long getTotalNumberOfSamples()
+  {
+    return totalNumberOfSamples;
+  }
+
+  /**
+   * Restores the keyframe at or before the specified position into
+   * the transform.
+   * @return The position of the keyframe.
+   * @exception IOException If the keyframe can not be read, or has
+   * been written by a DST with a different configuration.
+   */
+  public synchronized long restoreKeyframe(final DSTSlidingWindow transform,
+                                           final long position)
+    throws IOException
+  {
+    if (transform == null) {
+      throw new NullPointerException("transform");
+    }
+    if (position < 0) {
+      throw new IllegalArgumentException("position < 0");
+    }
+    final long keyframe = Math.min(position / interval, keyframeCount - 1);
+    channel.position(HEADER_SIZE + keyframe * snapshotLength);
+    transform.restore(channel);
+    return keyframe * interval;
+  }
+
+  /**
+   * Brings the transform into the state after the specified number
+   * of samples of the wave, by restoring the nearest prior keyframe
+   * and replaying the remaining samples.  Afterwards, the wave is
+   * positioned right after the last sample replayed.
+   * @return The number of samples replayed, which is less than the
+   * interval unless the position lies beyond the last keyframe.
+   */
+  public synchronized long seek(final DSTSlidingWindow transform,
+                                final FiniteWave wave, final long position)
+    throws IOException
+  {
+    if (wave == null) {
+      throw new NullPointerException("wave");
+    }
+    if (position > totalNumberOfSamples) {
+      throw new IllegalArgumentException("position beyond end of wave");
+    }
+    final long start = restoreKeyframe(transform, position);
+    if (wave.getPosition() > start) {
+      wave.reset();
+    }
+    wave.skip(start - wave.getPosition());
+    long replayed = 0;
+    while (replayed < position - start) {
+      final int length =
+        wave.getNextSamples(replayBuffer, 0,
+                            (int)Math.min(replayBuffer.length,
+                                          position - start - replayed));
+      if (length == 0) {
+        throw new IOException("wave ends before position " + position);
+      }
+      transform.putBins(replayBuffer, 0, length);
+      replayed += length;
+    }
+    return replayed;
+  }
+
+  /**
+   * Closes the index file, such that the index can be used as
+   * resource of a try-with-resources statement.
+   */
+  public void close() throws IOException
+  {
+    channel.close();
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,182 @@
+/*
+ * LatencyHistogram.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Histogram of durations in nanoseconds with logarithmically spaced
+ * buckets: each power of two range is split into 2^SUB_BUCKET_BITS
+ * buckets, such that quantiles are accurate to within 1 /
+ * 2^SUB_BUCKET_BITS, i.e. 12.5%, of the true value.  Recording a
+ * duration costs a few shifts and two uncontended LongAdder updates
+ * and never allocates, and may be done from any thread.
+ */
+public class LatencyHistogram
+{
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+      public long applyAsLong(final long left, final long right)
+      {
+        return Math.max(left, right);
+      }
+    };
+
+  private final LongAdder buckets[];
+  private final LongAdder totalNanos;
+  private final LongAccumulator maxNanos;
+
+  public LatencyHistogram()
+  {
+    buckets = new LongAdder[BUCKETS];
+    for (int n = 0; n < BUCKETS; n++) {
+      buckets[n] = new LongAdder();
+    }
+    totalNanos = new LongAdder();
+    maxNanos = new LongAccumulator(MAX, 0);
+  }
+
+  /**
+   * Values below SUB_BUCKETS get a bucket of their own; above, the
+   * bucket is made up of the position of the highest one bit and the
+   * SUB_BUCKET_BITS bits below.
+   */
+  private static int getBucket(final long nanos)
+  {
+    if (nanos < SUB_BUCKETS) {
+      return nanos > 0 ? (int)nanos : 0;
+    }
+    final int shift = Long.SIZE - 1 - SUB_BUCKET_BITS -
+      Long.numberOfLeadingZeros(nanos);
+    return ((shift + 1) << SUB_BUCKET_BITS) + (int)(nanos >>> shift) -
+      SUB_BUCKETS;
+  }
+
+  /**
+   * Returns the largest value that falls into the specified bucket.
+   */
+  private static long getBucketLimit(final int bucket)
+  {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    final int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+    final long mantissa = SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1));
+    return ((mantissa + 1) << shift) - 1;
+  }
+
+  public void record(final long nanos)
+  {
+    buckets[getBucket(nanos)].increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+  }
+
+  /**
+   * Returns the number of recorded values.  Since the count is not
+   * kept separately, this sums up all buckets.
+   */
+  public long getCount()
+  {
+    long count = 0;
+    for (final LongAdder bucket : buckets) {
+      count += bucket.sum();
+    }
+    return count;
+  }
+
+  public long getTotalNanos()
+  {
+    return totalNanos.sum();
+  }
+
+  public double getMeanNanos()
+  {
+    final long count = getCount();
+    return count > 0 ? (double)getTotalNanos() / count : 0.0;
+  }
+
+  public long getMaxNanos()
+  {
+    return maxNanos.get();
+  }
+
+  /**
+   * Returns an upper bound of the specified quantile, i.e. the upper
+   * limit of the bucket that holds it, but not more than the maximum
+   * recorded value.  Returns 0, if nothing has been recorded.
+   * @param quantile The quantile in the range [0.0, 1.0].
+   */
+  public long getQuantileNanos(final double quantile)
+  {
+    if (!(quantile >= 0.0) || (quantile > 1.0)) {
+      throw new IllegalArgumentException("quantile not in [0.0..1.0]");
+    }
+    final long counts[] = new long[BUCKETS];
+    long total = 0;
+    for (int n = 0; n < BUCKETS; n++) {
+      counts[n] = buckets[n].sum();
+      total += counts[n];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long)Math.ceil(quantile * total));
+    long cumulated = 0;
+    for (int n = 0; n < BUCKETS; n++) {
+      cumulated += counts[n];
+      if (cumulated >= rank) {
+        return Math.min(getBucketLimit(n), getMaxNanos());
+      }
+    }
+    return getMaxNanos();
+  }
+
+  /**
+   * Clears all recorded values.  Values recorded concurrently may or
+   * may not survive.
+   */
+  public void reset()
+  {
+    for (final LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+    totalNanos.reset();
+    maxNanos.reset();
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
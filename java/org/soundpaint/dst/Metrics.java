@@ -0,0 +1,393 @@
+/*
+ * Metrics.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Runtime metrics of a processing pipeline: counters of processed
+ * samples and emitted frames, latency histograms of reading,
+ * transforming and reconstructing blocks of samples, and the depth
+ * of a queue of pending work.  Components such as FrameEmitter,
+ * SpectralProcessor and FingerprintExtractor record into an instance
+ * of this class, if one has been set via their setMetrics() method.
+ *
+ * Counters are LongAdder instances and histograms record only per
+ * block, not per sample, and components may record from any thread.
+ * Timing a block, i.e. taking its time and recording it, costs about
+ * 0.1 µs, which is not negligible for blocks of a few samples: at a
+ * hop of 1, timing every block slowed down ExampleApplication by
+ * about 10%.  Therefore, FrameEmitter times only every 16th block,
+ * and timing can be switched off altogether via setTimingEnabled(),
+ * leaving just the counters.  The metrics can be exposed as MBean via
+ * register() and printed periodically via MetricsDump.
+ */
+public class Metrics implements MetricsMBean
+{
+  public static final String DOMAIN = "org.soundpaint.dst";
+
+  private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+      public long applyAsLong(final long left, final long right)
+      {
+        return Math.max(left, right);
+      }
+    };
+
+  private final String name;
+  private final LongAdder samplesProcessed;
+  private final LongAdder framesEmitted;
+  private final LatencyHistogram transformNanos;
+  private final LatencyHistogram readNanos;
+  private final LatencyHistogram reconstructionNanos;
+  private volatile long queueDepth;
+  private final LongAccumulator maxQueueDepth;
+  private volatile long expectedSamples;
+  private volatile long startNanos;
+  private volatile boolean timingEnabled;
+  private ObjectName objectName;
+
+  private Metrics()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  public Metrics(final String name)
+  {
+    if (name == null) {
+      throw new NullPointerException("name");
+    }
+    this.name = name;
+    samplesProcessed = new LongAdder();
+    framesEmitted = new LongAdder();
+    transformNanos = new LatencyHistogram();
+    readNanos = new LatencyHistogram();
+    reconstructionNanos = new LatencyHistogram();
+    queueDepth = 0;
+    maxQueueDepth = new LongAccumulator(MAX, 0);
+    expectedSamples = 0;
+    startNanos = System.nanoTime();
+    timingEnabled = true;
+  }
+
+  /**
+   * Registers this instance with the platform MBean server under the
+   * object name DOMAIN:type=Metrics,name=&lt;name&gt;.
+   */
+  public synchronized void register() throws JMException
+  {
+    if (objectName != null) {
+      return;
+    }
+    final ObjectName objectName =
+      new ObjectName(DOMAIN + ":type=Metrics,name=" + ObjectName.quote(name));
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    this.objectName = objectName;
+  }
+
+  public synchronized void unregister() throws JMException
+  {
+    if (objectName == null) {
+      return;
+    }
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    if (server.isRegistered(objectName)) {
+      server.unregisterMBean(objectName);
+    }
+    objectName = null;
+  }
+
+  public String getName()
+  {
+    return name;
+  }
+
+  /**
+   * Enables or disables timing, i.e. tells components whether to
+   * take the time of their blocks and record it into the histograms.
+   * Counters are recorded either way.  Enabled by default.
+   */
+  public void setTimingEnabled(final boolean timingEnabled)
+  {
+    this.timingEnabled = timingEnabled;
+  }
+
+  public boolean isTimingEnabled()
+  {
+    return timingEnabled;
+  }
+
+  public void addSamplesProcessed(final long samples)
+  {
+    samplesProcessed.add(samples);
+  }
+
+  public long getSamplesProcessed()
+  {
+    return samplesProcessed.sum();
+  }
+
+  /**
+   * Sets the total number of samples to be processed, if known, for
+   * computing the progress.
+   */
+  public void setExpectedSamples(final long expectedSamples)
+  {
+    if (expectedSamples < 0) {
+      throw new IllegalArgumentException("expected samples < 0");
+    }
+    this.expectedSamples = expectedSamples;
+  }
+
+  public long getExpectedSamples()
+  {
+    return expectedSamples;
+  }
+
+  /**
+   * Returns the ratio of processed to expected samples, not more
+   * than 1.0, or 0.0, if the number of expected samples is unknown.
+   */
+  public double getProgress()
+  {
+    final long expectedSamples = this.expectedSamples;
+    return
+      expectedSamples > 0 ?
+      Math.min((double)getSamplesProcessed() / expectedSamples, 1.0) : 0.0;
+  }
+
+  public void incrementFramesEmitted()
+  {
+    framesEmitted.increment();
+  }
+
+  public void addFramesEmitted(final long frames)
+  {
+    framesEmitted.add(frames);
+  }
+
+  public long getFramesEmitted()
+  {
+    return framesEmitted.sum();
+  }
+
+  public double getSampleRate()
+  {
+    final long nanos = System.nanoTime() - startNanos;
+    return nanos > 0 ? getSamplesProcessed() / (nanos * 1.0e-9) : 0.0;
+  }
+
+  /**
+   * Sets the current number of pending work items, such as blocks or
+   * batches waiting for or being processed by workers.
+   */
+  public void setQueueDepth(final long queueDepth)
+  {
+    this.queueDepth = queueDepth;
+    maxQueueDepth.accumulate(queueDepth);
+  }
+
+  public long getQueueDepth()
+  {
+    return queueDepth;
+  }
+
+  public long getMaxQueueDepth()
+  {
+    return maxQueueDepth.get();
+  }
+
+  /**
+   * Records the time of putting a block of samples into a transform.
+   */
+  public void recordTransform(final long nanos)
+  {
+    transformNanos.record(nanos);
+  }
+
+  /**
+   * Records the time of reading a block of samples from their source.
+   */
+  public void recordRead(final long nanos)
+  {
+    readNanos.record(nanos);
+  }
+
+  /**
+   * Records the time of reconstructing a block of samples.
+   */
+  public void recordReconstruction(final long nanos)
+  {
+    reconstructionNanos.record(nanos);
+  }
+
+  public LatencyHistogram getTransformHistogram()
+  {
+    return transformNanos;
+  }
+
+  public LatencyHistogram getReadHistogram()
+  {
+    return readNanos;
+  }
+
+  public LatencyHistogram getReconstructionHistogram()
+  {
+    return reconstructionNanos;
+  }
+
+  public long getTransformCount()
+  {
+    return transformNanos.getCount();
+  }
+
+  public double getTransformMeanNanos()
+  {
+    return transformNanos.getMeanNanos();
+  }
+
+  public long getTransformP50Nanos()
+  {
+    return transformNanos.getQuantileNanos(0.5);
+  }
+
+  public long getTransformP99Nanos()
+  {
+    return transformNanos.getQuantileNanos(0.99);
+  }
+
+  public long getTransformMaxNanos()
+  {
+    return transformNanos.getMaxNanos();
+  }
+
+  public long getReadCount()
+  {
+    return readNanos.getCount();
+  }
+
+  public double getReadMeanNanos()
+  {
+    return readNanos.getMeanNanos();
+  }
+
+  public long getReadP50Nanos()
+  {
+    return readNanos.getQuantileNanos(0.5);
+  }
+
+  public long getReadP99Nanos()
+  {
+    return readNanos.getQuantileNanos(0.99);
+  }
+
+  public long getReadMaxNanos()
+  {
+    return readNanos.getMaxNanos();
+  }
+
+  public long getReconstructionCount()
+  {
+    return reconstructionNanos.getCount();
+  }
+
+  public double getReconstructionMeanNanos()
+  {
+    return reconstructionNanos.getMeanNanos();
+  }
+
+  public long getReconstructionP50Nanos()
+  {
+    return reconstructionNanos.getQuantileNanos(0.5);
+  }
+
+  public long getReconstructionP99Nanos()
+  {
+    return reconstructionNanos.getQuantileNanos(0.99);
+  }
+
+  public long getReconstructionMaxNanos()
+  {
+    return reconstructionNanos.getMaxNanos();
+  }
+
+  /**
+   * Clears all counters and histograms and restarts the sample rate
+   * measurement.  The expected number of samples is kept.
+   */
+  public void reset()
+  {
+    samplesProcessed.reset();
+    framesEmitted.reset();
+    transformNanos.reset();
+    readNanos.reset();
+    reconstructionNanos.reset();
+    maxQueueDepth.reset();
+    maxQueueDepth.accumulate(queueDepth);
+    startNanos = System.nanoTime();
+  }
+
+  private static void printHistogram(final PrintStream out,
+                                     final String label,
+                                     final LatencyHistogram histogram)
+  {
+    out.printf("%s [µs]: count %d, mean %.3f, p50 %.3f, p99 %.3f, max %.3f%n",
+               label, histogram.getCount(),
+               histogram.getMeanNanos() * 0.001,
+               histogram.getQuantileNanos(0.5) * 0.001,
+               histogram.getQuantileNanos(0.99) * 0.001,
+               histogram.getMaxNanos() * 0.001);
+  }
+
+  /**
+   * Pretty prints the current values of all metrics.
+   */
+  public void printReport(final PrintStream out)
+  {
+    out.printf("[metrics %s]%n", name);
+    out.printf("samples processed [#]: %d%n", getSamplesProcessed());
+    out.printf("frames emitted [#]: %d%n", getFramesEmitted());
+    out.printf("sample rate [samples/s]: %.1f%n", getSampleRate());
+    out.printf("queue depth [#]: %d (max. %d)%n",
+               getQueueDepth(), getMaxQueueDepth());
+    printHistogram(out, "transform", transformNanos);
+    printHistogram(out, "read", readNanos);
+    printHistogram(out, "reconstruction", reconstructionNanos);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
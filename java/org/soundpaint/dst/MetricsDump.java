@@ -0,0 +1,90 @@
+/*
+ * MetricsDump.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically prints the report of a Metrics instance from a
+ * daemon thread, until shutdown() is called.
+ */
+public class MetricsDump
+{
+  private final ScheduledExecutorService executor;
+
+  private MetricsDump()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  public MetricsDump(final Metrics metrics, final PrintStream out,
+                     final long periodMillis)
+  {
+    if (metrics == null) {
+      throw new NullPointerException("metrics");
+    }
+    if (out == null) {
+      throw new NullPointerException("out");
+    }
+    if (periodMillis <= 0) {
+      throw new IllegalArgumentException("period <= 0");
+    }
+    executor =
+      Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+          public Thread newThread(final Runnable runnable)
+          {
+            final Thread thread = new Thread(runnable, "metrics dump");
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    executor.scheduleAtFixedRate(new Runnable() {
+        public void run()
+        {
+          metrics.printReport(out);
+        }
+      }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops printing reports.
+   */
+  public void shutdown()
+  {
+    executor.shutdown();
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
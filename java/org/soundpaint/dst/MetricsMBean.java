@@ -0,0 +1,77 @@
+/*
+ * MetricsMBean.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+/**
+ * JMX management interface of Metrics.  All durations are in
+ * nanoseconds; quantiles are upper bounds accurate to within 12.5%.
+ */
+public interface MetricsMBean
+{
+  String getName();
+  boolean isTimingEnabled();
+  void setTimingEnabled(boolean timingEnabled);
+  long getSamplesProcessed();
+  long getExpectedSamples();
+  double getProgress();
+  long getFramesEmitted();
+
+  /**
+   * Returns the number of samples processed per second since
+   * creation or the last reset.
+   */
+  double getSampleRate();
+
+  long getQueueDepth();
+  long getMaxQueueDepth();
+
+  long getTransformCount();
+  double getTransformMeanNanos();
+  long getTransformP50Nanos();
+  long getTransformP99Nanos();
+  long getTransformMaxNanos();
+
+  long getReadCount();
+  double getReadMeanNanos();
+  long getReadP50Nanos();
+  long getReadP99Nanos();
+  long getReadMaxNanos();
+
+  long getReconstructionCount();
+  double getReconstructionMeanNanos();
+  long getReconstructionP50Nanos();
+  long getReconstructionP99Nanos();
+  long getReconstructionMaxNanos();
+
+  void reset();
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,358 @@
+/*
+ * MultiStreamDST.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Bank of independent DSTs, one per stream (e.g. audio channel), that
+ * all use the same coupling constant, number of spectral lines and
+ * frequency bounds.  The coefficients are stored only once, while the
+ * spectrum state of each stream is stored in a row of its own, indexed
+ * exactly like the coefficients, such that the update loop can be
+ * vectorized.  Each row is padded to a multiple of the cache line
+ * size, such that different streams can be updated concurrently.
+ *
+ * Streams may either be fed one by one with putBins(int, ...), which
+ * is safe to call concurrently for different streams, or all at once
+ * with interleaved samples with putInterleavedBins(), which schedules
+ * the streams across the worker threads of this bank.
+ */
+public class MultiStreamDST implements AutoCloseable
+{
+  /**
+   * Row length of the state rows is rounded up to a multiple of
+   * this many doubles (i.e. 64 bytes).
+   */
+  private final static int ROW_ALIGNMENT = 8;
+
+  private final static int LINES_PER_TILE = 512;
+
+  private class Worker implements Callable<Void>
+  {
+    private final int firstStream, lastStream;
+    private double streamSamples[];
+    private double frames[];
+    private int offset, frameCount;
+
+    private Worker(final int firstStream, final int lastStream)
+    {
+      this.firstStream = firstStream;
+      this.lastStream = lastStream;
+      streamSamples = new double[0];
+    }
+
+    private void setFrames(final double frames[],
+                           final int offset, final int frameCount)
+    {
+      this.frames = frames;
+      this.offset = offset;
+      this.frameCount = frameCount;
+    }
+
+    public Void call()
+    {
+      if (streamSamples.length < frameCount) {
+        streamSamples = new double[frameCount];
+      }
+      for (int stream = firstStream; stream < lastStream; stream++) {
+        for (int j = 0; j < frameCount; j++) {
+          streamSamples[j] = frames[offset + j * streams + stream];
+        }
+        update(stream, streamSamples, 0, frameCount);
+      }
+      frames = null;
+      return null;
+    }
+  }
+
+  private final DSTCoefficients coefficients;
+  private final int size;
+  private final int streams;
+  private final int rowLength;
+  private final double windowRe[][], windowIm[][];
+  private final DSTKernel kernel;
+
+  /**
+   * One filter cache per stream, such that streams can be
+   * reconstructed concurrently, possibly with different filters.
+   */
+  private final TransferFunctionCache filterCaches[];
+  private final List<Worker> workers;
+  private final ExecutorService executor;
+
+  private MultiStreamDST()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  public MultiStreamDST(final DSTCoefficients coefficients, final int streams)
+  {
+    this(coefficients, streams, Runtime.getRuntime().availableProcessors());
+  }
+
+  public MultiStreamDST(final DSTCoefficients coefficients,
+                        final int streams, final int threads)
+  {
+    if (coefficients == null) {
+      throw new NullPointerException("coefficients");
+    }
+    this.coefficients = coefficients;
+    size = coefficients.getSize();
+    if (streams <= 0) {
+      throw new IllegalArgumentException("streams <= 0");
+    }
+    this.streams = streams;
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads <= 0");
+    }
+    rowLength = (size + ROW_ALIGNMENT - 1) / ROW_ALIGNMENT * ROW_ALIGNMENT;
+    windowRe = new double[streams][rowLength];
+    windowIm = new double[streams][rowLength];
+    kernel = DSTKernelFactory.getDefault();
+    filterCaches = new TransferFunctionCache[streams];
+    for (int stream = 0; stream < streams; stream++) {
+      filterCaches[stream] = new TransferFunctionCache(size);
+    }
+    final int workerCount = Math.min(threads, streams);
+    workers = new ArrayList<Worker>(workerCount);
+    for (int n = 0; n < workerCount; n++) {
+      workers.add(new Worker(n * streams / workerCount,
+                             (n + 1) * streams / workerCount));
+    }
+    executor = Executors.newFixedThreadPool(workerCount, new ThreadFactory() {
+        public Thread newThread(final Runnable runnable)
+        {
+          final Thread thread = new Thread(runnable, "multi-stream DST worker");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+  }
+
+  public void printInfo(final PrintStream out, final double samplingFrequency)
+  {
+    final double lowerBound = coefficients.getLowerBound();
+    final double upperBound = coefficients.getUpperBound();
+    final double bandWidthNatural = Math.log(upperBound / lowerBound);
+    final double bandWidthInOctaves = bandWidthNatural / Math.log(2.0);
+    final double bandWidthInCent = bandWidthInOctaves * 1200.0;
+    final double resolution = bandWidthInCent / size;
+    out.println("sampling frequency [Hz]: " + samplingFrequency);
+    out.println("streams [#]: " + streams);
+    out.println("spectral lines per stream [#]: " + size);
+    out.println("lower frequency limit [Hz]: " +
+                lowerBound * samplingFrequency);
+    out.println("upper frequency limit [Hz]: " +
+                upperBound * samplingFrequency);
+    out.println("band width [octaves]: " + bandWidthInOctaves);
+    out.println("band width [cent]: " + bandWidthInCent);
+    out.println("resolution [cent per spectral line]: " + resolution);
+    out.println("state per stream [bytes]: " + 16 * rowLength);
+    out.println("update kernel: " + kernel.getName());
+    out.println("worker threads [#]: " + workers.size());
+  }
+
+  public DSTCoefficients getCoefficients()
+  {
+    return coefficients;
+  }
+
+  /**
+   * Returns the number of spectral lines per stream.
+   */
+  public int getSize()
+  {
+    return size;
+  }
+
+  public int getStreams()
+  {
+    return streams;
+  }
+
+  private void checkStream(final int stream)
+  {
+    if ((stream < 0) || (stream >= streams)) {
+      throw new IllegalArgumentException("stream out of range");
+    }
+  }
+
+  private void update(final int stream, final double samples[],
+                      final int offset, final int length)
+  {
+    final double rowRe[] = windowRe[stream];
+    final double rowIm[] = windowIm[stream];
+    final int stop = offset + length;
+    for (int tileStart = 0; tileStart < size; tileStart += LINES_PER_TILE) {
+      final int tileStop = Math.min(tileStart + LINES_PER_TILE, size);
+      for (int j = offset; j < stop; j++) {
+        kernel.updateLines(rowRe, rowIm,
+                           coefficients.shiftRe, coefficients.shiftIm,
+                           coefficients.weightRe, coefficients.weightIm,
+                           samples[j], tileStart, tileStop);
+      }
+    }
+  }
+
+  /**
+   * Puts the specified block of samples into the specified stream in
+   * the calling thread.  Different streams may be fed concurrently
+   * from different threads.
+   */
+  public void putBins(final int stream, final double samples[])
+  {
+    putBins(stream, samples, 0, samples.length);
+  }
+
+  /**
+   * Puts the specified block of samples into the specified stream in
+   * the calling thread.  Different streams may be fed concurrently
+   * from different threads.
+   */
+  public void putBins(final int stream, final double samples[],
+                      final int offset, final int length)
+  {
+    checkStream(stream);
+    SampleChecks.checkBlock(samples, offset, length);
+    for (int j = offset; j < offset + length; j++) {
+      SampleChecks.checkSample(samples[j]);
+    }
+    update(stream, samples, offset, length);
+  }
+
+  /**
+   * Puts in the specified number of frames of interleaved samples,
+   * i.e. the sample of stream s of frame j is expected at position
+   * offset + j * getStreams() + s.  The streams are distributed
+   * among the worker threads, each of which deinterleaves its streams
+   * into a private buffer.
+   */
+  public void putInterleavedBins(final double frames[],
+                                 final int offset, final int frameCount)
+  {
+    if ((long)frameCount * streams > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("block out of range");
+    }
+    SampleChecks.checkBlock(frames, offset, frameCount * streams);
+    for (int j = offset; j < offset + frameCount * streams; j++) {
+      SampleChecks.checkSample(frames[j]);
+    }
+    for (final Worker worker : workers) {
+      worker.setFrames(frames, offset, frameCount);
+    }
+    if (workers.size() == 1) {
+      workers.get(0).call();
+      return;
+    }
+    try {
+      for (final Future<Void> future : executor.invokeAll(workers)) {
+        future.get();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while processing block", e);
+    } catch (final ExecutionException e) {
+      throw new IllegalStateException("worker failed", e.getCause());
+    }
+  }
+
+  /**
+   * Returns a snapshot of the specified spectral line of the
+   * specified stream.
+   */
+  public Complex getLine(final int stream, final int index)
+  {
+    checkStream(stream);
+    if ((index < 0) || (index >= size)) {
+      throw new IllegalArgumentException("index out of range");
+    }
+    return ComplexFactory.createFromCartesian(windowRe[stream][index],
+                                              windowIm[stream][index]);
+  }
+
+  public double getReconstructedSample(final int stream)
+  {
+    return getReconstructedSample(stream, null);
+  }
+
+  public double getReconstructedSample(final int stream,
+                                       final TransferFunction filter)
+  {
+    checkStream(stream);
+    final double rowRe[] = windowRe[stream];
+    final double rowIm[] = windowIm[stream];
+    double sum = 0.0;
+    if (filter != null) {
+      final TransferFunctionCache filterCache = filterCaches[stream];
+      filterCache.update(filter);
+      final double filterRe[] = filterCache.getRe();
+      final double filterIm[] = filterCache.getIm();
+      for (int i = 0; i < size; i++) {
+        sum += rowRe[i] * filterRe[i] - rowIm[i] * filterIm[i];
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        sum += rowRe[i];
+      }
+    }
+    return sum * (Math.sqrt(Math.PI) / size);
+  }
+
+  /**
+   * Stops the worker threads.  After shutdown, streams can still be
+   * fed one by one with putBins(int, ...), but no more interleaved
+   * blocks can be put in.
+   */
+  public void shutdown()
+  {
+    executor.shutdown();
+  }
+
+  /**
+   * Same as shutdown(), such that this object can be used as
+   * resource of a try-with-resources statement.
+   */
+  public void close()
+  {
+    shutdown();
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,515 @@
+/*
+ * MultirateDSTSlidingWindow.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.PrintStream;
+
+/**
+ * DST with the same log-spaced spectral lines as DSTSlidingWindow,
+ * but with the lines split into octave bands that are each updated
+ * at a rate just high enough for their frequencies.  Band 0 holds the
+ * lines above half of the band fraction and is fed with the input
+ * signal at full rate; band b is fed with a copy of the input that
+ * has been low-pass filtered and decimated by a cascade of b halfband
+ * filters, i.e. at 1 / 2^b of the input rate.  To compensate for the
+ * lower rate, a line in band b with shift = μ0 e^(i phi) advances by
+ * 2^b samples at once, i.e. with signal shift^(2^b), and its full
+ * rate insert weight (1 - shift) is scaled by (1 - μ0^(2^b)) /
+ * (1 - μ0), i.e. the insert weight is
+ *
+ * (1 - μ0 e^(i phi)) * (1 - μ0^(2^b)) / (1 - μ0),
+ *
+ * such that a sine at the line's own frequency yields the same steady
+ * state amplitude and phase as with the full rate DST.
+ *
+ * Since the lines are log-spaced, each band holds about the same
+ * number of lines, such that the total cost is dominated by the
+ * upper bands: with n lines per band, it approaches 2n line updates
+ * per sample, no matter how many bands.  For the 7.6 octaves of the
+ * default frequency range with 2048 lines, all 8 bands yield 532
+ * line updates per sample, i.e. about one quarter of the full rate
+ * DST.
+ *
+ * Decimation is an approximation that holds as long as the time
+ * constant 1 / (1 - μ0) of the DST spans many decimated samples.
+ * Therefore, the number of bands is limited such that each band still
+ * sees at least minSamplesPerTimeConstant samples within the time
+ * constant, DEFAULT_MIN_SAMPLES_PER_TIME_CONSTANT unless specified
+ * otherwise; for small μ0, this transform thus degrades gracefully
+ * to a plain DST.  For the default μ0, whose time constant is about
+ * 137 samples, the default limit admits 4 bands, with all lines
+ * below the top three bands updated at 1/8 of the input rate, i.e.
+ * 624 line updates per sample or about 30% of the full rate DST.
+ * The limit matters for transients rather than for stationary
+ * signals: the state of band b changes only every 2^b samples and
+ * lags behind by the group delay of its decimation filters, i.e.
+ * HALFBAND_TAPS / 2 samples of each stage's input rate, which for
+ * the eighth band adds up to about 14 time constants of the default
+ * μ0.  MultirateBenchmark sweeps the limit.
+ */
+public class MultirateDSTSlidingWindow implements SlidingWindowTransform
+{
+  /**
+   * Highest line frequency, as fraction of a band's sampling rate,
+   * for which the line is put into the next lower rate band.  Well
+   * within the passband of the halfband filters.
+   */
+  private final static double MAX_BAND_FRACTION = 0.2;
+
+  /**
+   * Default minimum number of decimated samples of the lowest rate
+   * band within the time constant of the DST.
+   */
+  public final static int DEFAULT_MIN_SAMPLES_PER_TIME_CONSTANT = 16;
+
+  private final static int MAX_BANDS = 16;
+
+  private final static int HALFBAND_TAPS = 31;
+
+  /**
+   * Non-zero taps of a Blackman windowed halfband filter with
+   * HALFBAND_TAPS taps, excluding the center tap 0.5: since every
+   * other tap of a halfband filter is zero, only the even numbered
+   * taps remain.
+   */
+  private final static double HALFBAND_EVEN_TAPS[] = createHalfbandTaps();
+
+  private static double[] createHalfbandTaps()
+  {
+    final int center = HALFBAND_TAPS / 2;
+    final double taps[] = new double[center + 1];
+    double sum = 0.0;
+    for (int k = 0; k < taps.length; k++) {
+      final int n = 2 * k;
+      final int d = n - center;
+      final double window =
+        0.42 - 0.5 * Math.cos(2.0 * Math.PI * n / (HALFBAND_TAPS - 1)) +
+        0.08 * Math.cos(4.0 * Math.PI * n / (HALFBAND_TAPS - 1));
+      taps[k] = Math.sin(0.5 * Math.PI * d) / (Math.PI * d) * window;
+      sum += taps[k];
+    }
+    // normalize for unity gain at DC, with the center tap adding 0.5
+    for (int k = 0; k < taps.length; k++) {
+      taps[k] *= 0.5 / sum;
+    }
+    return taps;
+  }
+
+  /**
+   * Low-pass filters its input with a halfband filter and emits every
+   * second filtered sample.
+   */
+  private static class HalfbandDecimator
+  {
+    /**
+     * Ring buffer of the latest input samples, stored twice, such
+     * that the samples are always contiguous in the range
+     * [pos, pos + HALFBAND_TAPS).
+     */
+    private final double history[];
+    private int pos;
+    private boolean pending;
+    private double output;
+
+    private HalfbandDecimator()
+    {
+      history = new double[2 * HALFBAND_TAPS];
+      pos = 0;
+      pending = false;
+    }
+
+    /**
+     * Puts in the next input sample.  Returns <code>true</code>, if
+     * an output sample is available via getOutput().
+     */
+    private boolean put(final double sample)
+    {
+      history[pos] = sample;
+      history[pos + HALFBAND_TAPS] = sample;
+      pos = pos + 1 < HALFBAND_TAPS ? pos + 1 : 0;
+      pending = !pending;
+      if (pending) {
+        return false;
+      }
+      double sum = 0.5 * history[pos + HALFBAND_TAPS / 2];
+      for (int k = 0; k < HALFBAND_EVEN_TAPS.length; k++) {
+        sum += HALFBAND_EVEN_TAPS[k] * history[pos + 2 * k];
+      }
+      output = sum;
+      return true;
+    }
+
+    private double getOutput()
+    {
+      return output;
+    }
+  }
+
+  private final double μ0;
+  private final int size;
+  private final double lowerBound, upperBound;
+  private final int minSamplesPerTimeConstant;
+  private final int bands;
+
+  /**
+   * Band b comprises the lines [bandStart[b + 1], bandStart[b]), as
+   * lower line indices denote lower frequencies; i.e. bandStart[b]
+   * is the number of lines in band b or any lower rate band.
+   */
+  private final int bandStart[];
+
+  private final double windowRe[], windowIm[];
+  private final double signalShiftRe[], signalShiftIm[];
+  private final double insertWeightRe[], insertWeightIm[];
+  private final HalfbandDecimator decimators[];
+  private final double bandSamples[][];
+  private final DSTKernel kernel;
+  private final TransferFunctionCache filterCache;
+
+  private MultirateDSTSlidingWindow()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  public MultirateDSTSlidingWindow(final int size)
+  {
+    this(DSTSlidingWindow.DEFAULT_μ0, size,
+         DEFAULT_LOWER_BOUND, DEFAULT_UPPER_BOUND);
+  }
+
+  public MultirateDSTSlidingWindow(final double μ0, final int size,
+                                   final double lowerBound,
+                                   final double upperBound)
+  {
+    this(μ0, size, lowerBound, upperBound,
+         DEFAULT_MIN_SAMPLES_PER_TIME_CONSTANT);
+  }
+
+  /**
+   * @param minSamplesPerTimeConstant Minimum number of decimated
+   * samples of the lowest rate band within the time constant of the
+   * DST.  Smaller values admit more bands and thus save more cost,
+   * at the expense of accuracy.
+   */
+  public MultirateDSTSlidingWindow(final double μ0, final int size,
+                                   final double lowerBound,
+                                   final double upperBound,
+                                   final int minSamplesPerTimeConstant)
+  {
+    if ((μ0 < 0.0) || (μ0 >= 1.0)) {
+      throw new IllegalArgumentException("μ0 not in [0.0..1.0)");
+    }
+    this.μ0 = μ0;
+    if (size <= 0) {
+      throw new IllegalArgumentException("window size <= 0");
+    }
+    this.size = size;
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+    if (minSamplesPerTimeConstant <= 0) {
+      throw new IllegalArgumentException("minSamplesPerTimeConstant <= 0");
+    }
+    this.minSamplesPerTimeConstant = minSamplesPerTimeConstant;
+    final double timeConstant = 1.0 / (1.0 - μ0);
+    int maxBand = 0;
+    while ((maxBand + 1 < MAX_BANDS) &&
+           ((double)(1 << (maxBand + 1)) * minSamplesPerTimeConstant <=
+            timeConstant)) {
+      maxBand++;
+    }
+    final int lineBand[] = new int[size];
+    int highestBand = 0;
+    for (int i = 0; i < size; i++) {
+      final double frac =
+        -DSTCoefficients.computePhase(size, lowerBound, upperBound, i) /
+        (2.0 * Math.PI);
+      int band = 0;
+      while ((band < maxBand) &&
+             (frac * (1 << (band + 1)) <= MAX_BAND_FRACTION)) {
+        band++;
+      }
+      lineBand[i] = band;
+      highestBand = Math.max(highestBand, band);
+    }
+    bands = highestBand + 1;
+    bandStart = new int[bands + 1];
+    for (int i = 0; i < size; i++) {
+      for (int b = 0; b <= lineBand[i]; b++) {
+        bandStart[b]++;
+      }
+    }
+    windowRe = new double[size];
+    windowIm = new double[size];
+    signalShiftRe = new double[size];
+    signalShiftIm = new double[size];
+    insertWeightRe = new double[size];
+    insertWeightIm = new double[size];
+    for (int i = 0; i < size; i++) {
+      final int decimation = 1 << lineBand[i];
+      final double decay = Math.pow(μ0, decimation);
+      final double phi =
+        DSTCoefficients.computePhase(size, lowerBound, upperBound, i);
+      signalShiftRe[i] = decay * Math.cos(decimation * phi);
+      signalShiftIm[i] = decay * Math.sin(decimation * phi);
+      // Scale the full rate insert weight (1 - shift) such that a
+      // sine at the line's own frequency yields the same steady state
+      // amplitude and phase as with the full rate DST, i.e. by
+      // (1 - μ0^D) / (1 - μ0) rather than using (1 - shift^D).
+      final double gain = (1.0 - decay) / (1.0 - μ0);
+      insertWeightRe[i] = (1.0 - μ0 * Math.cos(phi)) * gain;
+      insertWeightIm[i] = -μ0 * Math.sin(phi) * gain;
+    }
+    decimators = new HalfbandDecimator[bands - 1];
+    for (int b = 0; b < bands - 1; b++) {
+      decimators[b] = new HalfbandDecimator();
+    }
+    bandSamples = new double[bands][0];
+    kernel = DSTKernelFactory.getDefault();
+    filterCache = new TransferFunctionCache(size);
+  }
+
+  public void printInfo(final PrintStream out, final double samplingFrequency)
+  {
+    final double bandWidthNatural = Math.log(upperBound / lowerBound);
+    final double bandWidthInOctaves = bandWidthNatural / Math.log(2.0);
+    final double bandWidthInCent = bandWidthInOctaves * 1200.0;
+    final double resolution = bandWidthInCent / size;
+    out.println("sampling frequency [Hz]: " + samplingFrequency);
+    out.println("spectral lines [#]: " + size);
+    out.println("lower frequency limit [Hz]: " +
+                lowerBound * samplingFrequency);
+    out.println("upper frequency limit [Hz]: " +
+                upperBound * samplingFrequency);
+    out.println("band width [octaves]: " + bandWidthInOctaves);
+    out.println("band width [cent]: " + bandWidthInCent);
+    out.println("resolution [cent per spectral line]: " + resolution);
+    out.println("min. samples per time constant [#]: " +
+                minSamplesPerTimeConstant);
+    double cost = 0.0;
+    for (int b = 0; b < bands; b++) {
+      final int lines = bandStart[b] - bandStart[b + 1];
+      out.println("band " + b + " [lines @ rate]: " + lines + " @ 1/" +
+                  (1 << b));
+      cost += (double)lines / (1 << b);
+    }
+    out.println("line updates per sample [#]: " + cost);
+    out.println("update kernel: " + kernel.getName());
+  }
+
+  public int getSize()
+  {
+    return size;
+  }
+
+  public double getμ0()
+  {
+    return μ0;
+  }
+
+  public double getLowerBound()
+  {
+    return lowerBound;
+  }
+
+  public double getUpperBound()
+  {
+    return upperBound;
+  }
+
+  public int getMinSamplesPerTimeConstant()
+  {
+    return minSamplesPerTimeConstant;
+  }
+
+  /**
+   * Returns the number of octave bands, i.e. 1 plus the number of
+   * decimation stages.
+   */
+  public int getBands()
+  {
+    return bands;
+  }
+
+  private void updateBand(final int band, final double sample)
+  {
+    kernel.updateLines(windowRe, windowIm, signalShiftRe, signalShiftIm,
+                       insertWeightRe, insertWeightIm, sample,
+                       bandStart[band + 1], bandStart[band]);
+  }
+
+  public void putBin(final double sample)
+  {
+    SampleChecks.checkSample(sample);
+    updateBand(0, sample);
+    double bandSample = sample;
+    for (int b = 1; b < bands; b++) {
+      if (!decimators[b - 1].put(bandSample)) {
+        break;
+      }
+      bandSample = decimators[b - 1].getOutput();
+      updateBand(b, bandSample);
+    }
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length)
+  {
+    putBins(samples, offset, length, null);
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length,
+                      final SampleListener listener)
+  {
+    SampleChecks.checkBlock(samples, offset, length);
+    final int stop = offset + length;
+    if (listener != null) {
+      for (int j = offset; j < stop; j++) {
+        putBin(samples[j]);
+        listener.samplePut(this, j);
+      }
+      return;
+    }
+    for (int j = offset; j < stop; j++) {
+      SampleChecks.checkSample(samples[j]);
+    }
+    // First run the decimation cascade over the whole block, then
+    // advance each band through its share of the block in tiles.
+    updateBlock(0, samples, offset, stop);
+    double input[] = samples;
+    int inputStart = offset;
+    int inputStop = stop;
+    for (int b = 1; b < bands; b++) {
+      if (bandSamples[b].length < (inputStop - inputStart) / 2 + 1) {
+        bandSamples[b] = new double[(inputStop - inputStart) / 2 + 1];
+      }
+      final double output[] = bandSamples[b];
+      final HalfbandDecimator decimator = decimators[b - 1];
+      int count = 0;
+      for (int j = inputStart; j < inputStop; j++) {
+        if (decimator.put(input[j])) {
+          output[count++] = decimator.getOutput();
+        }
+      }
+      updateBlock(b, output, 0, count);
+      input = output;
+      inputStart = 0;
+      inputStop = count;
+    }
+  }
+
+  private void updateBlock(final int band, final double samples[],
+                           final int start, final int stop)
+  {
+    for (int tileStart = bandStart[band + 1]; tileStart < bandStart[band];
+         tileStart += DSTSlidingWindow.LINES_PER_TILE) {
+      final int tileStop =
+        Math.min(tileStart + DSTSlidingWindow.LINES_PER_TILE,
+                 bandStart[band]);
+      for (int j = start; j < stop; j++) {
+        kernel.updateLines(windowRe, windowIm, signalShiftRe, signalShiftIm,
+                           insertWeightRe, insertWeightIm, samples[j],
+                           tileStart, tileStop);
+      }
+    }
+  }
+
+  /**
+   * Returns a snapshot of the spectral line with the specified index.
+   */
+  public Complex getLine(final int index)
+  {
+    if ((index < 0) || (index >= size)) {
+      throw new IllegalArgumentException("index out of range");
+    }
+    return ComplexFactory.createFromCartesian(windowRe[index],
+                                              windowIm[index]);
+  }
+
+  public void copyState(final double re[], final double im[])
+  {
+    SpectrumExport.checkBuffer(re, size);
+    SpectrumExport.checkBuffer(im, size);
+    SpectrumExport.copyState(windowRe, windowIm, 0, re, im, 0, size);
+  }
+
+  public void getPower(final double power[])
+  {
+    SpectrumExport.checkBuffer(power, size);
+    SpectrumExport.getPower(windowRe, windowIm, 0, power, 0, size);
+  }
+
+  public void getMagnitudes(final double magnitudes[])
+  {
+    SpectrumExport.checkBuffer(magnitudes, size);
+    SpectrumExport.getMagnitudes(windowRe, windowIm, 0, magnitudes, 0, size);
+  }
+
+  public void getLogMagnitudes(final float logMagnitudes[],
+                               final double floor,
+                               final boolean approximate)
+  {
+    SpectrumExport.checkBuffer(logMagnitudes, size);
+    SpectrumExport.getLogMagnitudes(windowRe, windowIm, 0, logMagnitudes, 0,
+                                    size, floor, approximate);
+  }
+
+  public void getPhases(final double phases[])
+  {
+    SpectrumExport.checkBuffer(phases, size);
+    SpectrumExport.getPhases(windowRe, windowIm, 0, phases, 0, size);
+  }
+
+  public double getReconstructedSample()
+  {
+    return getReconstructedSample(null);
+  }
+
+  public double getReconstructedSample(final TransferFunction filter)
+  {
+    double sum = 0.0;
+    if (filter != null) {
+      filterCache.update(filter);
+      final double filterRe[] = filterCache.getRe();
+      final double filterIm[] = filterCache.getIm();
+      for (int i = 0; i < size; i++) {
+        sum += windowRe[i] * filterRe[i] - windowIm[i] * filterIm[i];
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        sum += windowRe[i];
+      }
+    }
+    return sum * (Math.sqrt(Math.PI) / size);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
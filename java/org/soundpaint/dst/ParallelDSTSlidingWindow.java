@@ -0,0 +1,411 @@
+/*
+ * ParallelDSTSlidingWindow.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * DST that shares the work of updating the spectral lines among
+ * multiple threads.  The range of spectral lines is split into
+ * contiguous shards, each of which is exclusively owned and updated
+ * by one worker.  Workers synchronize only once per block of samples
+ * passed to putBins(), such that for large numbers of spectral lines,
+ * throughput scales with the number of cores.
+ *
+ * The spectrum is exactly the same as that of a DSTSlidingWindow with
+ * the same parameters.
+ */
+public class ParallelDSTSlidingWindow
+  implements SlidingWindowTransform, AutoCloseable
+{
+  /**
+   * Minimum number of spectral lines per shard.  Below that, the cost
+   * of synchronizing workers outweighs the gain of parallel
+   * execution.
+   */
+  private final static int MIN_LINES_PER_SHARD = 1024;
+
+  /**
+   * Number of unused array elements before and after the state of
+   * each shard, such that states of different shards never share a
+   * cache line (assuming cache lines of up to 64 bytes).
+   */
+  private final static int PADDING = 8;
+
+  private final static int LINES_PER_TILE = 512;
+
+  private static class Shard implements Callable<Void>
+  {
+    private final int lines;
+    private final double windowRe[], windowIm[];
+    private final double signalShiftRe[], signalShiftIm[];
+    private final double insertWeightRe[], insertWeightIm[];
+    private final DSTKernel kernel;
+    private double samples[];
+    private int offset, length;
+
+    private Shard(final double μ0, final int size,
+                  final double lowerBound, final double upperBound,
+                  final int from, final int to, final DSTKernel kernel)
+    {
+      lines = to - from;
+      windowRe = new double[PADDING + lines + PADDING];
+      windowIm = new double[PADDING + lines + PADDING];
+      signalShiftRe = new double[PADDING + lines + PADDING];
+      signalShiftIm = new double[PADDING + lines + PADDING];
+      insertWeightRe = new double[PADDING + lines + PADDING];
+      insertWeightIm = new double[PADDING + lines + PADDING];
+      DSTCoefficients.computeCoefficients(μ0, size, lowerBound, upperBound,
+                                          from, to,
+                                          signalShiftRe, signalShiftIm,
+                                          insertWeightRe, insertWeightIm,
+                                          PADDING);
+      this.kernel = kernel;
+    }
+
+    private void updateLines(final double sample, final int from, final int to)
+    {
+      kernel.updateLines(windowRe, windowIm, signalShiftRe, signalShiftIm,
+                         insertWeightRe, insertWeightIm, sample, from, to);
+    }
+
+    private void setBlock(final double samples[],
+                          final int offset, final int length)
+    {
+      this.samples = samples;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    public Void call()
+    {
+      final int stop = offset + length;
+      final int linesStop = PADDING + lines;
+      for (int tileStart = PADDING; tileStart < linesStop;
+           tileStart += LINES_PER_TILE) {
+        final int tileStop = Math.min(tileStart + LINES_PER_TILE, linesStop);
+        for (int j = offset; j < stop; j++) {
+          updateLines(samples[j], tileStart, tileStop);
+        }
+      }
+      samples = null;
+      return null;
+    }
+  }
+
+  private final double μ0;
+  private final int size;
+  private final double lowerBound, upperBound;
+  private final int linesPerShard;
+  private final Shard shards[];
+  private final List<Shard> tasks;
+  private final ExecutorService executor;
+  private final TransferFunctionCache filterCache;
+
+  private ParallelDSTSlidingWindow()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  public ParallelDSTSlidingWindow(final int size)
+  {
+    this(DSTSlidingWindow.DEFAULT_μ0, size,
+         DEFAULT_LOWER_BOUND, DEFAULT_UPPER_BOUND,
+         Runtime.getRuntime().availableProcessors());
+  }
+
+  public ParallelDSTSlidingWindow(final double μ0, final int size,
+                                  final double lowerBound,
+                                  final double upperBound,
+                                  final int threads)
+  {
+    if ((μ0 < 0.0) || (μ0 >= 1.0)) {
+      throw new IllegalArgumentException("μ0 not in [0.0..1.0)");
+    }
+    this.μ0 = μ0;
+    if (size <= 0) {
+      throw new IllegalArgumentException("window size <= 0");
+    }
+    this.size = size;
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads <= 0");
+    }
+    final int maxShards = (size + MIN_LINES_PER_SHARD - 1) / MIN_LINES_PER_SHARD;
+    final int shardCount = Math.min(threads, maxShards);
+    linesPerShard = (size + shardCount - 1) / shardCount;
+    shards = new Shard[(size + linesPerShard - 1) / linesPerShard];
+    final DSTKernel kernel = DSTKernelFactory.getDefault();
+    for (int n = 0; n < shards.length; n++) {
+      final int from = n * linesPerShard;
+      final int to = Math.min(from + linesPerShard, size);
+      shards[n] =
+        new Shard(μ0, size, lowerBound, upperBound, from, to, kernel);
+    }
+    filterCache = new TransferFunctionCache(size);
+    tasks = new ArrayList<Shard>(shards.length);
+    for (final Shard shard : shards) {
+      tasks.add(shard);
+    }
+    executor = Executors.newFixedThreadPool(shards.length, new ThreadFactory() {
+        public Thread newThread(final Runnable runnable)
+        {
+          final Thread thread = new Thread(runnable, "DST worker");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+  }
+
+  public void printInfo(final PrintStream out, final double samplingFrequency)
+  {
+    final double bandWidthNatural = Math.log(upperBound / lowerBound);
+    final double bandWidthInOctaves = bandWidthNatural / Math.log(2.0);
+    final double bandWidthInCent = bandWidthInOctaves * 1200.0;
+    final double resolution = bandWidthInCent / size;
+    out.println("sampling frequency [Hz]: " + samplingFrequency);
+    out.println("spectral lines [#]: " + size);
+    out.println("lower frequency limit [Hz]: " +
+                lowerBound * samplingFrequency);
+    out.println("upper frequency limit [Hz]: " +
+                upperBound * samplingFrequency);
+    out.println("band width [octaves]: " + bandWidthInOctaves);
+    out.println("band width [cent]: " + bandWidthInCent);
+    out.println("resolution [cent per spectral line]: " + resolution);
+    out.println("update kernel: " + DSTKernelFactory.getDefaultKernelName());
+    out.println("worker threads [#]: " + shards.length);
+  }
+
+  public int getSize()
+  {
+    return size;
+  }
+
+  public double getμ0()
+  {
+    return μ0;
+  }
+
+  public double getLowerBound()
+  {
+    return lowerBound;
+  }
+
+  public double getUpperBound()
+  {
+    return upperBound;
+  }
+
+  /**
+   * Puts in the next sample in the calling thread.  Since
+   * synchronizing with the workers for each single sample would be
+   * far too expensive, prefer putBins() for throughput.
+   */
+  public void putBin(final double sample)
+  {
+    SampleChecks.checkSample(sample);
+    for (final Shard shard : shards) {
+      shard.updateLines(sample, PADDING, PADDING + shard.lines);
+    }
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length)
+  {
+    putBins(samples, offset, length, null);
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length,
+                      final SampleListener listener)
+  {
+    SampleChecks.checkBlock(samples, offset, length);
+    final int stop = offset + length;
+    if (listener != null) {
+      for (int j = offset; j < stop; j++) {
+        putBin(samples[j]);
+        listener.samplePut(this, j);
+      }
+      return;
+    }
+    for (int j = offset; j < stop; j++) {
+      SampleChecks.checkSample(samples[j]);
+    }
+    if (shards.length == 1) {
+      shards[0].setBlock(samples, offset, length);
+      shards[0].call();
+      return;
+    }
+    for (final Shard shard : shards) {
+      shard.setBlock(samples, offset, length);
+    }
+    try {
+      for (final Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while processing block", e);
+    } catch (final ExecutionException e) {
+      throw new IllegalStateException("worker failed", e.getCause());
+    }
+  }
+
+  public Complex getLine(final int index)
+  {
+    if ((index < 0) || (index >= size)) {
+      throw new IllegalArgumentException("index out of range");
+    }
+    final Shard shard = shards[index / linesPerShard];
+    final int pos = PADDING + index % linesPerShard;
+    return ComplexFactory.createFromCartesian(shard.windowRe[pos],
+                                              shard.windowIm[pos]);
+  }
+
+  public void copyState(final double re[], final double im[])
+  {
+    SpectrumExport.checkBuffer(re, size);
+    SpectrumExport.checkBuffer(im, size);
+    int index = 0;
+    for (final Shard shard : shards) {
+      SpectrumExport.copyState(shard.windowRe, shard.windowIm, PADDING,
+                               re, im, index, shard.lines);
+      index += shard.lines;
+    }
+  }
+
+  public void getPower(final double power[])
+  {
+    SpectrumExport.checkBuffer(power, size);
+    int index = 0;
+    for (final Shard shard : shards) {
+      SpectrumExport.getPower(shard.windowRe, shard.windowIm, PADDING,
+                              power, index, shard.lines);
+      index += shard.lines;
+    }
+  }
+
+  public void getMagnitudes(final double magnitudes[])
+  {
+    SpectrumExport.checkBuffer(magnitudes, size);
+    int index = 0;
+    for (final Shard shard : shards) {
+      SpectrumExport.getMagnitudes(shard.windowRe, shard.windowIm, PADDING,
+                                   magnitudes, index, shard.lines);
+      index += shard.lines;
+    }
+  }
+
+  public void getLogMagnitudes(final float logMagnitudes[],
+                               final double floor,
+                               final boolean approximate)
+  {
+    SpectrumExport.checkBuffer(logMagnitudes, size);
+    int index = 0;
+    for (final Shard shard : shards) {
+      SpectrumExport.getLogMagnitudes(shard.windowRe, shard.windowIm,
+                                      PADDING, logMagnitudes, index,
+                                      shard.lines, floor, approximate);
+      index += shard.lines;
+    }
+  }
+
+  public void getPhases(final double phases[])
+  {
+    SpectrumExport.checkBuffer(phases, size);
+    int index = 0;
+    for (final Shard shard : shards) {
+      SpectrumExport.getPhases(shard.windowRe, shard.windowIm, PADDING,
+                               phases, index, shard.lines);
+      index += shard.lines;
+    }
+  }
+
+  public double getReconstructedSample()
+  {
+    return getReconstructedSample(null);
+  }
+
+  public double getReconstructedSample(final TransferFunction filter)
+  {
+    double sum = 0.0;
+    if (filter != null) {
+      filterCache.update(filter);
+      final double filterRe[] = filterCache.getRe();
+      final double filterIm[] = filterCache.getIm();
+      int index = 0;
+      for (final Shard shard : shards) {
+        for (int pos = PADDING; pos < PADDING + shard.lines; pos++) {
+          sum +=
+            shard.windowRe[pos] * filterRe[index] -
+            shard.windowIm[pos] * filterIm[index];
+          index++;
+        }
+      }
+    } else {
+      for (final Shard shard : shards) {
+        for (int pos = PADDING; pos < PADDING + shard.lines; pos++) {
+          sum += shard.windowRe[pos];
+        }
+      }
+    }
+    return sum * (Math.sqrt(Math.PI) / size);
+  }
+
+  /**
+   * Stops the worker threads.  After shutdown, this transform can
+   * still be read, but no more blocks can be put in.
+   */
+  public void shutdown()
+  {
+    executor.shutdown();
+  }
+
+  /**
+   * Same as shutdown(), such that this transform can be used as
+   * resource of a try-with-resources statement.
+   */
+  public void close()
+  {
+    shutdown();
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
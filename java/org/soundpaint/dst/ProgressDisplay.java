@@ -55,11 +55,59 @@ public class ProgressDisplay implements Runnable
     String getProgressDisplayValue();
   }
 
+  /**
+   * Progress of the samples processed as recorded by a Metrics
+   * instance, relative to its expected number of samples.
+   */
+  private static class MetricsProgressInfo implements ProgressInfo
+  {
+    private final Metrics metrics;
+    private long samplesProcessed, expectedSamples;
+
+    private MetricsProgressInfo(final Metrics metrics)
+    {
+      if (metrics == null)
+        throw new NullPointerException("metrics");
+      this.metrics = metrics;
+    }
+
+    public void sampleAndHold()
+    {
+      expectedSamples = metrics.getExpectedSamples();
+      samplesProcessed = metrics.getSamplesProcessed();
+    }
+
+    public double getProgressValue()
+    {
+      return
+        expectedSamples > 0 ?
+        Math.min((double)samplesProcessed / expectedSamples, 1.0) : 0.0;
+    }
+
+    public String getProgressDisplayValue()
+    {
+      final double percent = getProgressValue() * 100.0;
+      return
+        String.format("[%d of %d samples (%3.2f%%)]",
+                      samplesProcessed, expectedSamples, percent);
+    }
+  }
+
   private final ProgressInfo progressInfo;
 
   private ProgressDisplay()
   {
-    this(null);
+    this((ProgressInfo)null);
+  }
+
+  /**
+   * Displays the progress of the samples processed as recorded by
+   * the specified metrics, which must have its number of expected
+   * samples set.
+   */
+  public ProgressDisplay(final Metrics metrics)
+  {
+    this(createProgressInfo(metrics));
   }
 
   public ProgressDisplay(final ProgressInfo progressInfo)
@@ -69,6 +117,14 @@ public class ProgressDisplay implements Runnable
     this.progressInfo = progressInfo;
   }
 
+  /**
+   * Returns a view on the specified metrics as progress info.
+   */
+  public static ProgressInfo createProgressInfo(final Metrics metrics)
+  {
+    return new MetricsProgressInfo(metrics);
+  }
+
   public void run()
   {
     boolean finished = false;
@@ -0,0 +1,159 @@
+/*
+ * RealFFT.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+/**
+ * Radix-2 FFT of real valued input of power of two length n.  The
+ * input is packed into a complex sequence of length n / 2 with even
+ * samples as real and odd samples as imaginary parts, which is
+ * transformed by an iterative in-place radix-2 FFT and then split
+ * into the spectrum of the real input.  Bit reversal permutation and
+ * all twiddle factors are computed upon construction, such that a
+ * transform neither allocates nor calls trigonometric functions.
+ *
+ * Instances keep working buffers and are therefore not thread-safe.
+ */
+class RealFFT
+{
+  private final int n, half;
+  private final int bitReversal[];
+
+  /**
+   * Twiddle factors e^(-2πi k / half) of the complex FFT, for
+   * 0 &le; k &lt; half / 2.
+   */
+  private final double fftTwiddleRe[], fftTwiddleIm[];
+
+  /**
+   * Twiddle factors e^(-2πi k / n) of the split step, for
+   * 0 &le; k &le; half.
+   */
+  private final double splitTwiddleRe[], splitTwiddleIm[];
+
+  private final double bufferRe[], bufferIm[];
+
+  private RealFFT()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * @param n The number of real input samples, which must be a power
+   * of two and at least 2.
+   */
+  RealFFT(final int n)
+  {
+    if ((n < 2) || ((n & (n - 1)) != 0)) {
+      throw new IllegalArgumentException("FFT size must be a power of two >= 2");
+    }
+    this.n = n;
+    half = n / 2;
+    bitReversal = new int[half];
+    final int bits = Integer.numberOfTrailingZeros(half);
+    for (int k = 0; k < half; k++) {
+      bitReversal[k] = bits > 0 ? Integer.reverse(k) >>> (32 - bits) : 0;
+    }
+    fftTwiddleRe = new double[Math.max(half / 2, 1)];
+    fftTwiddleIm = new double[Math.max(half / 2, 1)];
+    for (int k = 0; k < fftTwiddleRe.length; k++) {
+      final double angle = -2.0 * Math.PI * k / half;
+      fftTwiddleRe[k] = Math.cos(angle);
+      fftTwiddleIm[k] = Math.sin(angle);
+    }
+    splitTwiddleRe = new double[half + 1];
+    splitTwiddleIm = new double[half + 1];
+    for (int k = 0; k <= half; k++) {
+      final double angle = -2.0 * Math.PI * k / n;
+      splitTwiddleRe[k] = Math.cos(angle);
+      splitTwiddleIm[k] = Math.sin(angle);
+    }
+    bufferRe = new double[half];
+    bufferIm = new double[half];
+  }
+
+  int getSize()
+  {
+    return n;
+  }
+
+  /**
+   * Transforms n real samples into the n / 2 + 1 non-redundant bins
+   * X[k] = sum_{m=0}^{n-1} x[m] * e^(-2πi k m / n), 0 &le; k &le; n / 2.
+   * @param re Receives the real parts; must provide room for at
+   * least n / 2 + 1 values.
+   * @param im Receives the imaginary parts; must provide room for at
+   * least n / 2 + 1 values.
+   */
+  void transform(final double samples[], final double re[], final double im[])
+  {
+    for (int k = 0; k < half; k++) {
+      final int m = bitReversal[k];
+      bufferRe[m] = samples[2 * k];
+      bufferIm[m] = samples[2 * k + 1];
+    }
+    for (int length = 2; length <= half; length <<= 1) {
+      final int halfLength = length >> 1;
+      final int twiddleStep = half / length;
+      for (int start = 0; start < half; start += length) {
+        for (int j = 0; j < halfLength; j++) {
+          final double wRe = fftTwiddleRe[j * twiddleStep];
+          final double wIm = fftTwiddleIm[j * twiddleStep];
+          final int a = start + j;
+          final int b = a + halfLength;
+          final double tRe = bufferRe[b] * wRe - bufferIm[b] * wIm;
+          final double tIm = bufferRe[b] * wIm + bufferIm[b] * wRe;
+          bufferRe[b] = bufferRe[a] - tRe;
+          bufferIm[b] = bufferIm[a] - tIm;
+          bufferRe[a] += tRe;
+          bufferIm[a] += tIm;
+        }
+      }
+    }
+    // With Z = FFT(z), the spectra of even and odd samples are
+    // E[k] = (Z[k] + conj(Z[half - k])) / 2 and
+    // O[k] = (Z[k] - conj(Z[half - k])) / 2i, and X[k] = E[k] + w^k O[k].
+    for (int k = 0; k <= half; k++) {
+      final int k0 = k < half ? k : 0;
+      final int k1 = k > 0 ? half - k : 0;
+      final double zRe = bufferRe[k0], zIm = bufferIm[k0];
+      final double cRe = bufferRe[k1], cIm = -bufferIm[k1];
+      final double eRe = 0.5 * (zRe + cRe);
+      final double eIm = 0.5 * (zIm + cIm);
+      final double oRe = 0.5 * (zIm - cIm);
+      final double oIm = -0.5 * (zRe - cRe);
+      final double wRe = splitTwiddleRe[k], wIm = splitTwiddleIm[k];
+      re[k] = eRe + oRe * wRe - oIm * wIm;
+      im[k] = eIm + oRe * wIm + oIm * wRe;
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
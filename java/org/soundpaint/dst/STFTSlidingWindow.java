@@ -0,0 +1,462 @@
+/*
+ * STFTSlidingWindow.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.PrintStream;
+
+/**
+ * Short-time Fourier transform over the most recent fftSize samples,
+ * recomputed by a real FFT every hop samples and interpolated onto
+ * the same logarithmically spaced frequencies as the DST.  Between
+ * two frames, the spectrum remains unchanged, such that its cost is
+ * about (fftSize log2 fftSize + size) / hop operations per sample,
+ * compared to size operations per sample for the sliding DFT and the
+ * DST.  This transform therefore serves as a throughput baseline for
+ * measuring the point where the FFT outweighs per-sample updates.
+ *
+ * Before the transform, the samples are multiplied with a window
+ * function.  The magnitude of each line is linearly interpolated
+ * between the two FFT bins enclosing its frequency, while its phase
+ * is taken from the nearest bin.  Magnitudes are scaled by fftSize
+ * divided by the sum of the window function, such that a sinusoid
+ * results in about the same magnitude as with a sliding DFT over
+ * fftSize samples; phases refer to the same time origin as those of
+ * the sliding DFT for frequencies that are bin-centered.  Note that
+ * lines below the frequency of the first bin (i.e. lowerBound *
+ * fftSize &lt; 1) are not resolved.
+ *
+ * The reconstructed sample is computed from the spectrum of the most
+ * recent frame the same way as with the sliding DFT, and is thus
+ * only a coarse approximation for hop &gt; 1.
+ */
+public class STFTSlidingWindow implements SlidingWindowTransform
+{
+  public static final int WINDOW_RECTANGULAR = 0;
+  public static final int WINDOW_HANN = 1;
+  public static final int WINDOW_HAMMING = 2;
+  public static final int WINDOW_BLACKMAN = 3;
+
+  private static final String WINDOW_NAMES[] = {
+    "rectangular", "Hann", "Hamming", "Blackman"
+  };
+
+  private final int size;
+  private final int fftSize;
+  private final int hop;
+  private final int windowFunction;
+  private final double lowerBound, upperBound;
+  private final RealFFT fft;
+  private final double windowWeights[];
+  private final double frame[];
+  private final double binRe[], binIm[], binMagnitudes[];
+
+  /**
+   * For each line, the index of the lower of the two enclosing bins,
+   * the fraction of the distance towards the upper one, and the index
+   * of the nearest bin.
+   */
+  private final int lowerBin[], nearestBin[];
+  private final double upperBinWeight[];
+
+  private final double windowRe[], windowIm[];
+  private final double reconstructionWeightRe[], reconstructionWeightIm[];
+
+  /**
+   * Ring buffer of the samples within the window; the oldest one is
+   * at slidePos.
+   */
+  private final double signalWindow[];
+  private int slidePos;
+  private int samplesUntilFrame;
+  private long frameCount;
+  private final TransferFunctionCache filterCache;
+
+  private STFTSlidingWindow()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * Creates an STFT with Hann window over the smallest power of two
+   * number of samples that is not less than size.
+   */
+  public STFTSlidingWindow(final int size, final int hop)
+  {
+    this(size, getDefaultFFTSize(size), hop, WINDOW_HANN,
+         DEFAULT_LOWER_BOUND, DEFAULT_UPPER_BOUND);
+  }
+
+  /**
+   * @param size The number of spectral lines.
+   * @param fftSize The number of samples within the window, which
+   * must be a power of two and at least 2.
+   * @param hop The number of samples after which the spectrum is
+   * recomputed.
+   * @param windowFunction One of WINDOW_RECTANGULAR, WINDOW_HANN,
+   * WINDOW_HAMMING and WINDOW_BLACKMAN.
+   */
+  public STFTSlidingWindow(final int size, final int fftSize, final int hop,
+                           final int windowFunction,
+                           final double lowerBound, final double upperBound)
+  {
+    if (size <= 0) {
+      throw new IllegalArgumentException("window size <= 0");
+    }
+    if (hop <= 0) {
+      throw new IllegalArgumentException("hop <= 0");
+    }
+    if ((windowFunction < WINDOW_RECTANGULAR) ||
+        (windowFunction > WINDOW_BLACKMAN)) {
+      throw new IllegalArgumentException("unknown window function");
+    }
+    if ((lowerBound <= 0.0) || (upperBound <= lowerBound) ||
+        (upperBound > 0.5)) {
+      throw new IllegalArgumentException("bounds must satisfy 0 < lowerBound < upperBound <= 0.5");
+    }
+    fft = new RealFFT(fftSize);
+    this.size = size;
+    this.fftSize = fftSize;
+    this.hop = hop;
+    this.windowFunction = windowFunction;
+    this.lowerBound = lowerBound;
+    this.upperBound = upperBound;
+    windowWeights = new double[fftSize];
+    double weightSum = 0.0;
+    for (int n = 0; n < fftSize; n++) {
+      windowWeights[n] = getWindowWeight(windowFunction, n, fftSize);
+      weightSum += windowWeights[n];
+    }
+    final double gain = fftSize / weightSum;
+    for (int n = 0; n < fftSize; n++) {
+      windowWeights[n] *= gain;
+    }
+    frame = new double[fftSize];
+    binRe = new double[fftSize / 2 + 1];
+    binIm = new double[fftSize / 2 + 1];
+    binMagnitudes = new double[fftSize / 2 + 1];
+    lowerBin = new int[size];
+    nearestBin = new int[size];
+    upperBinWeight = new double[size];
+    windowRe = new double[size];
+    windowIm = new double[size];
+    reconstructionWeightRe = new double[size];
+    reconstructionWeightIm = new double[size];
+    final double bandWidthNatural = Math.log(upperBound / lowerBound);
+    for (int i = 0; i < size; i++) {
+      final double frac =
+        lowerBound * Math.exp(((double)i) / size * bandWidthNatural);
+      final double binPos = frac * fftSize;
+      lowerBin[i] = Math.min((int)binPos, fftSize / 2 - 1);
+      upperBinWeight[i] = binPos - lowerBin[i];
+      nearestBin[i] = (int)Math.round(binPos);
+      final Complex signalReverseShift =
+        ComplexFactory.createFromPolar(1.0 / (2.0 * Math.PI),
+                                       -2.0 * Math.PI * frac);
+      reconstructionWeightRe[i] = signalReverseShift.getRealPart() / size;
+      reconstructionWeightIm[i] = signalReverseShift.getImaginaryPart() / size;
+    }
+    signalWindow = new double[fftSize];
+    slidePos = 0;
+    samplesUntilFrame = hop;
+    frameCount = 0;
+    filterCache = new TransferFunctionCache(size);
+  }
+
+  private static int getDefaultFFTSize(final int size)
+  {
+    if (size <= 0) {
+      throw new IllegalArgumentException("window size <= 0");
+    }
+    if (size > 1 << 30) {
+      throw new IllegalArgumentException("window size too large");
+    }
+    return Math.max(Integer.highestOneBit(size - 1) << 1, 2);
+  }
+
+  /**
+   * Returns the periodic variant of the specified window function
+   * for the sample at index n of a window of the specified length.
+   */
+  private static double getWindowWeight(final int windowFunction,
+                                        final int n, final int length)
+  {
+    final double phase = 2.0 * Math.PI * n / length;
+    switch (windowFunction) {
+    case WINDOW_RECTANGULAR:
+      return 1.0;
+    case WINDOW_HANN:
+      return 0.5 - 0.5 * Math.cos(phase);
+    case WINDOW_HAMMING:
+      return 0.54 - 0.46 * Math.cos(phase);
+    case WINDOW_BLACKMAN:
+      return 0.42 - 0.5 * Math.cos(phase) + 0.08 * Math.cos(2.0 * phase);
+    default:
+      throw new IllegalArgumentException("unknown window function");
+    }
+  }
+
+  public void printInfo(final PrintStream out, final double samplingFrequency)
+  {
+    final double bandWidthNatural = Math.log(upperBound / lowerBound);
+    final double bandWidthInOctaves = bandWidthNatural / Math.log(2.0);
+    final double bandWidthInCent = bandWidthInOctaves * 1200.0;
+    final double resolution = bandWidthInCent / size;
+    out.println("sampling frequency [Hz]: " + samplingFrequency);
+    out.println("spectral lines [#]: " + size);
+    out.println("lower frequency limit [Hz]: " +
+                lowerBound * samplingFrequency);
+    out.println("upper frequency limit [Hz]: " +
+                upperBound * samplingFrequency);
+    out.println("band width [octaves]: " + bandWidthInOctaves);
+    out.println("band width [cent]: " + bandWidthInCent);
+    out.println("resolution [cent per spectral line]: " + resolution);
+    out.println("FFT size [samples]: " + fftSize);
+    out.println("FFT bin spacing [Hz]: " + samplingFrequency / fftSize);
+    out.println("hop [samples]: " + hop);
+    out.println("window function: " + WINDOW_NAMES[windowFunction]);
+  }
+
+  public int getSize()
+  {
+    return size;
+  }
+
+  public int getFFTSize()
+  {
+    return fftSize;
+  }
+
+  public int getHop()
+  {
+    return hop;
+  }
+
+  public int getWindowFunction()
+  {
+    return windowFunction;
+  }
+
+  public double getLowerBound()
+  {
+    return lowerBound;
+  }
+
+  public double getUpperBound()
+  {
+    return upperBound;
+  }
+
+  /**
+   * Returns the number of frames, i.e. completed hops, so far.  Note
+   * that putBins() actually computes only the last frame of a block.
+   */
+  public long getFrameCount()
+  {
+    return frameCount;
+  }
+
+  private void slide(final double samples[], final int offset,
+                     final int length)
+  {
+    for (int j = 0; j < length; j++) {
+      SampleChecks.checkSample(samples[offset + j]);
+      signalWindow[slidePos] = samples[offset + j];
+      slidePos++;
+      if (slidePos == fftSize) {
+        slidePos = 0;
+      }
+    }
+  }
+
+  /**
+   * Transforms the windowed samples of the ring buffer and
+   * interpolates the bins onto the spectral lines.
+   */
+  private void computeFrame()
+  {
+    final int tail = fftSize - slidePos;
+    for (int n = 0; n < tail; n++) {
+      frame[n] = signalWindow[slidePos + n] * windowWeights[n];
+    }
+    for (int n = tail; n < fftSize; n++) {
+      frame[n] = signalWindow[n - tail] * windowWeights[n];
+    }
+    fft.transform(frame, binRe, binIm);
+    for (int k = 0; k < binMagnitudes.length; k++) {
+      binMagnitudes[k] = Math.sqrt(binRe[k] * binRe[k] + binIm[k] * binIm[k]);
+    }
+    for (int i = 0; i < size; i++) {
+      final int k0 = lowerBin[i];
+      final double t = upperBinWeight[i];
+      final double magnitude =
+        (1.0 - t) * binMagnitudes[k0] + t * binMagnitudes[k0 + 1];
+      final int k = nearestBin[i];
+      final double nearestMagnitude = binMagnitudes[k];
+      if (nearestMagnitude > 0.0) {
+        final double scale = magnitude / nearestMagnitude;
+        windowRe[i] = binRe[k] * scale;
+        windowIm[i] = binIm[k] * scale;
+      } else {
+        windowRe[i] = magnitude;
+        windowIm[i] = 0.0;
+      }
+    }
+    frameCount++;
+  }
+
+  public void putBin(final double sample)
+  {
+    SampleChecks.checkSample(sample);
+    signalWindow[slidePos] = sample;
+    slidePos++;
+    if (slidePos == fftSize) {
+      slidePos = 0;
+    }
+    samplesUntilFrame--;
+    if (samplesUntilFrame == 0) {
+      samplesUntilFrame = hop;
+      computeFrame();
+    }
+  }
+
+  public void putBins(final double samples[],
+                      final int offset, final int length)
+  {
+    putBins(samples, offset, length, null);
+  }
+
+  /**
+   * Without listener, only the last frame that falls into the block
+   * is actually computed, since the others are not observable.
+   */
+  public void putBins(final double samples[],
+                      final int offset, final int length,
+                      final SampleListener listener)
+  {
+    SampleChecks.checkBlock(samples, offset, length);
+    if (listener != null) {
+      for (int j = 0; j < length; j++) {
+        putBin(samples[offset + j]);
+        listener.samplePut(this, offset + j);
+      }
+      return;
+    }
+    if (length < samplesUntilFrame) {
+      slide(samples, offset, length);
+      samplesUntilFrame -= length;
+      return;
+    }
+    final int frames = 1 + (length - samplesUntilFrame) / hop;
+    final int lastFrameEnd = samplesUntilFrame + (frames - 1) * hop;
+    slide(samples, offset, lastFrameEnd);
+    computeFrame();
+    frameCount += frames - 1;
+    slide(samples, offset + lastFrameEnd, length - lastFrameEnd);
+    samplesUntilFrame = hop - (length - lastFrameEnd);
+  }
+
+  public Complex getLine(final int index)
+  {
+    if ((index < 0) || (index >= size)) {
+      throw new IllegalArgumentException("index out of range");
+    }
+    return ComplexFactory.createFromCartesian(windowRe[index],
+                                              windowIm[index]);
+  }
+
+  public void copyState(final double re[], final double im[])
+  {
+    SpectrumExport.checkBuffer(re, size);
+    SpectrumExport.checkBuffer(im, size);
+    SpectrumExport.copyState(windowRe, windowIm, 0, re, im, 0, size);
+  }
+
+  public void getPower(final double power[])
+  {
+    SpectrumExport.checkBuffer(power, size);
+    SpectrumExport.getPower(windowRe, windowIm, 0, power, 0, size);
+  }
+
+  public void getMagnitudes(final double magnitudes[])
+  {
+    SpectrumExport.checkBuffer(magnitudes, size);
+    SpectrumExport.getMagnitudes(windowRe, windowIm, 0, magnitudes, 0, size);
+  }
+
+  public void getLogMagnitudes(final float logMagnitudes[],
+                               final double floor,
+                               final boolean approximate)
+  {
+    SpectrumExport.checkBuffer(logMagnitudes, size);
+    SpectrumExport.getLogMagnitudes(windowRe, windowIm, 0,
+                                    logMagnitudes, 0, size,
+                                    floor, approximate);
+  }
+
+  public void getPhases(final double phases[])
+  {
+    SpectrumExport.checkBuffer(phases, size);
+    SpectrumExport.getPhases(windowRe, windowIm, 0, phases, 0, size);
+  }
+
+  public double getReconstructedSample()
+  {
+    return getReconstructedSample(null);
+  }
+
+  public double getReconstructedSample(final TransferFunction filter)
+  {
+    double sum = 0.0;
+    if (filter == null) {
+      for (int i = 0; i < size; i++) {
+        sum +=
+          windowRe[i] * reconstructionWeightRe[i] -
+          windowIm[i] * reconstructionWeightIm[i];
+      }
+      return sum;
+    }
+    filterCache.update(filter);
+    final double filterRe[] = filterCache.getRe();
+    final double filterIm[] = filterCache.getIm();
+    for (int i = 0; i < size; i++) {
+      final double lineRe =
+        windowRe[i] * reconstructionWeightRe[i] -
+        windowIm[i] * reconstructionWeightIm[i];
+      final double lineIm =
+        windowRe[i] * reconstructionWeightIm[i] +
+        windowIm[i] * reconstructionWeightRe[i];
+      sum += lineRe * filterRe[i] - lineIm * filterIm[i];
+    }
+    return sum;
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
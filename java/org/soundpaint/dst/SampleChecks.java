@@ -0,0 +1,69 @@
+/*
+ * SampleChecks.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+/**
+ * Argument checks for the sample input of the transforms, shared by
+ * all implementations of SlidingWindowTransform.
+ */
+class SampleChecks
+{
+  private SampleChecks()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * Checks the sample once per call rather than once per spectral
+   * line, thus keeping the behavior of the complex number classes
+   * that raise on NaN and infinite values.
+   */
+  static void checkSample(final double sample)
+  {
+    if (AbstractComplex.RAISE_ON_NAN && Double.isNaN(sample))
+      throw new ArithmeticException("NaN(sample)");
+    if (AbstractComplex.RAISE_ON_INFINITY && Double.isInfinite(sample))
+      throw new ArithmeticException("Infinity(sample)");
+  }
+
+  static void checkBlock(final double samples[],
+                         final int offset, final int length)
+  {
+    if (samples == null) {
+      throw new NullPointerException("samples");
+    }
+    if ((offset < 0) || (length < 0) || (offset > samples.length - length)) {
+      throw new IllegalArgumentException("block out of range");
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,129 @@
+/*
+ * ScalarDSTKernel.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+/**
+ * Plain Java implementation of the DST update that runs on any JVM.
+ */
+class ScalarDSTKernel implements DSTKernel
+{
+  public String getName()
+  {
+    return "scalar";
+  }
+
+  public void updateLines(final double windowRe[], final double windowIm[],
+                          final double shiftRe[], final double shiftIm[],
+                          final double weightRe[], final double weightIm[],
+                          final double sample, final int from, final int to)
+  {
+    for (int i = from; i < to; i++) {
+      final double re = windowRe[i];
+      final double im = windowIm[i];
+      windowRe[i] = re * shiftRe[i] - im * shiftIm[i] + sample * weightRe[i];
+      windowIm[i] = re * shiftIm[i] + im * shiftRe[i] + sample * weightIm[i];
+    }
+  }
+
+  private static void addDelta(final float windowRe[], final float windowIm[],
+                               final float deltaRe[], final float deltaIm[],
+                               final float sample, final int from, final int to)
+  {
+    for (int i = from; i < to; i++) {
+      final float wRe = windowRe[i];
+      final float wIm = windowIm[i];
+      final float re = wRe - sample;
+      windowRe[i] = wRe + (re * deltaRe[i] - wIm * deltaIm[i]);
+      windowIm[i] = wIm + (re * deltaIm[i] + wIm * deltaRe[i]);
+    }
+  }
+
+  public void updateLines(final float windowRe[], final float windowIm[],
+                          final float deltaHiRe[], final float deltaHiIm[],
+                          final float deltaLoRe[], final float deltaLoIm[],
+                          final float sample, final int from, final int to)
+  {
+    // Two passes rather than one fused loop: with twice as many float
+    // lanes, the JIT compiler unrolls the loop twice as far for
+    // vectorization, which it gives up for the body of the fused loop.
+    addDelta(windowRe, windowIm, deltaLoRe, deltaLoIm, sample, from, to);
+    addDelta(windowRe, windowIm, deltaHiRe, deltaHiIm, sample, from, to);
+  }
+
+  public double updateLinesAndSum(final double windowRe[],
+                                  final double windowIm[],
+                                  final double shiftRe[],
+                                  final double shiftIm[],
+                                  final double weightRe[],
+                                  final double weightIm[],
+                                  final double filterRe[],
+                                  final double filterIm[],
+                                  final double sample,
+                                  final int from, final int to)
+  {
+    // Rather than fusing the loops, which would keep the JIT
+    // compiler from vectorizing the update, the lines are summed up
+    // right after the update, while still in the L1 cache.  Four
+    // independent partial sums keep the additions from forming a
+    // single chain that is bound by the latency of the adder.
+    updateLines(windowRe, windowIm, shiftRe, shiftIm, weightRe, weightIm,
+                sample, from, to);
+    double sum0 = 0.0, sum1 = 0.0, sum2 = 0.0, sum3 = 0.0;
+    int i = from;
+    if (filterRe == null) {
+      for (; i + 3 < to; i += 4) {
+        sum0 += windowRe[i];
+        sum1 += windowRe[i + 1];
+        sum2 += windowRe[i + 2];
+        sum3 += windowRe[i + 3];
+      }
+      for (; i < to; i++) {
+        sum0 += windowRe[i];
+      }
+    } else {
+      for (; i + 3 < to; i += 4) {
+        sum0 += windowRe[i] * filterRe[i] - windowIm[i] * filterIm[i];
+        sum1 += windowRe[i + 1] * filterRe[i + 1] -
+          windowIm[i + 1] * filterIm[i + 1];
+        sum2 += windowRe[i + 2] * filterRe[i + 2] -
+          windowIm[i + 2] * filterIm[i + 2];
+        sum3 += windowRe[i + 3] * filterRe[i + 3] -
+          windowIm[i + 3] * filterIm[i + 3];
+      }
+      for (; i < to; i++) {
+        sum0 += windowRe[i] * filterRe[i] - windowIm[i] * filterIm[i];
+      }
+    }
+    return (sum0 + sum1) + (sum2 + sum3);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
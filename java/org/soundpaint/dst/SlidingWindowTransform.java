@@ -44,6 +44,21 @@ public interface SlidingWindowTransform
    */
   public static final double DEFAULT_UPPER_BOUND = 0.2; // [samplingFrequency]
 
+  /**
+   * Listener for callers of the block methods that need to inspect
+   * the spectrum after each single sample of the block.
+   */
+  public static interface SampleListener
+  {
+    /**
+     * Called right after the sample at the specified offset of the
+     * block has been put into the transform, such that the spectrum
+     * reflects all samples of the block up to and including that
+     * sample.
+     */
+    void samplePut(final SlidingWindowTransform transform, final int offset);
+  }
+
   /**
    * Returns the window size.
    */
@@ -62,11 +77,82 @@ public interface SlidingWindowTransform
   void putBin(final double sample);
 
   /**
-   * Returns the spectral line with the specified index as complex
-   * value that represents amplitude and phase of the spectral line.
+   * Puts in the specified block of samples, as if putBin() was
+   * called for each sample of the block in turn.  Since the
+   * intermediate spectra are not observable, implementations are
+   * free to reorder the computation for better cache locality, which
+   * is why this method is much faster than a series of calls to
+   * putBin() for large blocks and many spectral lines.
+   */
+  void putBins(final double samples[], final int offset, final int length);
+
+  /**
+   * Puts in the specified block of samples, as if putBin() was
+   * called for each sample of the block in turn.
+   * @param listener If not <code>null</code>, the listener is called
+   * after each single sample of the block.  Note that in this case,
+   * the computation can not be reordered, such that performance is
+   * no better than that of calling putBin() for each sample.
+   */
+  void putBins(final double samples[], final int offset, final int length,
+               final SampleListener listener);
+
+  /**
+   * Returns a snapshot of the spectral line with the specified index
+   * as complex value that represents amplitude and phase of the
+   * spectral line.  For reading many lines, prefer the bulk methods
+   * below.
    */
   Complex getLine(final int index);
 
+  /**
+   * Copies the real and imaginary parts of all spectral lines into
+   * the specified arrays, each of which must provide room for at
+   * least getSize() values.
+   */
+  void copyState(final double re[], final double im[]);
+
+  /**
+   * Stores the power, i.e. the squared magnitude, of each spectral
+   * line into the specified array, which must provide room for at
+   * least getSize() values.
+   */
+  void getPower(final double power[]);
+
+  /**
+   * Stores the magnitude of each spectral line into the specified
+   * array, which must provide room for at least getSize() values.
+   */
+  void getMagnitudes(final double magnitudes[]);
+
+  /**
+   * Stores the magnitude in dB of each spectral line, but not less
+   * than the specified floor, into the specified array, which must
+   * provide room for at least getSize() values.
+   */
+  default void getLogMagnitudes(final float logMagnitudes[],
+                                final double floor)
+  {
+    getLogMagnitudes(logMagnitudes, floor, false);
+  }
+
+  /**
+   * Like getLogMagnitudes(float[], double), but optionally replaces
+   * the logarithm by a much faster approximation that is precise to
+   * about 1e-5 dB, which is sufficient for rendering.  There is no
+   * approximate mode for magnitudes, since the square root already
+   * compiles to a single, vectorizable machine instruction.
+   */
+  void getLogMagnitudes(final float logMagnitudes[], final double floor,
+                        final boolean approximate);
+
+  /**
+   * Stores the phase of each spectral line in the range [-π, π] into
+   * the specified array, which must provide room for at least
+   * getSize() values.
+   */
+  void getPhases(final double phases[]);
+
   /**
    * Returns the normalized sum of the spectrum.
    */
@@ -80,6 +166,46 @@ public interface SlidingWindowTransform
    * as if an identity function would be passed as filter.
    */
   double getReconstructedSample(final TransferFunction filter);
+
+  /**
+   * Puts in the next sample and returns the reconstructed sample of
+   * the updated spectrum with the specified filter applied, as if
+   * putBin() and getReconstructedSample() were called in turn.
+   * Implementations may fuse both into a single pass over the
+   * spectrum.
+   * @param filter The filter function to apply, or
+   * <code>null</code> for no filter.
+   */
+  default double putBinAndReconstruct(final double sample,
+                                      final TransferFunction filter)
+  {
+    putBin(sample);
+    return getReconstructedSample(filter);
+  }
+
+  /**
+   * Puts in the specified block of samples and stores the
+   * reconstructed sample after each input sample into the specified
+   * output array, as if putBinAndReconstruct() was called for each
+   * sample of the block in turn.
+   * @param reconstructed The output array, which must provide room
+   * for length samples starting at reconstructedOffset.
+   * @param filter The filter function to apply, or
+   * <code>null</code> for no filter.
+   */
+  default void reconstruct(final double samples[],
+                           final int offset, final int length,
+                           final double reconstructed[],
+                           final int reconstructedOffset,
+                           final TransferFunction filter)
+  {
+    SampleChecks.checkBlock(samples, offset, length);
+    SampleChecks.checkBlock(reconstructed, reconstructedOffset, length);
+    for (int j = 0; j < length; j++) {
+      reconstructed[reconstructedOffset + j] =
+        putBinAndReconstruct(samples[offset + j], filter);
+    }
+  }
 }
 
 /*
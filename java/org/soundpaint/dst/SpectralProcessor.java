@@ -0,0 +1,294 @@
+/*
+ * SpectralProcessor.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Continuous analysis, filter and resynthesis chain: pulls samples
+ * from a wave, runs them block by block through a sliding window
+ * transform, applies a filter in the spectral domain, and pushes the
+ * reconstructed samples to a sink.  All buffers are allocated once
+ * upon construction, with their size bounded by the block size.
+ *
+ * The filter may be exchanged with setFilter(), or may change its
+ * transfer values (announced via its modification count) at any
+ * time; either change takes effect with the next block.  Hence, the
+ * block size also determines the time resolution of time-varying
+ * filters.
+ *
+ * The cost of each block is measured separately for reading,
+ * transforming (including filtering and reconstruction) and writing.
+ */
+public class SpectralProcessor
+{
+  /**
+   * Receives the reconstructed samples.
+   */
+  public static interface SampleSink
+  {
+    /**
+     * Called once for each processed block.  The sink must not keep
+     * a reference to the array, since the array is reused for the
+     * next block.
+     */
+    void putSamples(final double samples[], final int offset,
+                    final int length) throws IOException;
+  }
+
+  private final Wave wave;
+  private final SlidingWindowTransform transform;
+  private final SampleSink sink;
+  private final double input[], output[];
+  private volatile TransferFunction filter;
+  private long sampleCount;
+  private long blockCount;
+  private long readNanos, transformNanos, writeNanos;
+  private long maxBlockNanos;
+  private volatile Metrics metrics;
+
+  private SpectralProcessor()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * @param filter The filter to apply, or <code>null</code> for
+   * plain resynthesis.
+   */
+  public SpectralProcessor(final Wave wave,
+                           final SlidingWindowTransform transform,
+                           final TransferFunction filter,
+                           final SampleSink sink,
+                           final int blockSize)
+  {
+    if (wave == null) {
+      throw new NullPointerException("wave");
+    }
+    if (transform == null) {
+      throw new NullPointerException("transform");
+    }
+    if (sink == null) {
+      throw new NullPointerException("sink");
+    }
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("block size <= 0");
+    }
+    checkFilter(transform, filter);
+    this.wave = wave;
+    this.transform = transform;
+    this.filter = filter;
+    this.sink = sink;
+    input = new double[blockSize];
+    output = new double[blockSize];
+  }
+
+  private static void checkFilter(final SlidingWindowTransform transform,
+                                  final TransferFunction filter)
+  {
+    if ((filter != null) && (filter.getLength() != transform.getSize())) {
+      throw new IllegalArgumentException("bad filter length");
+    }
+  }
+
+  /**
+   * Replaces the filter, starting with the next block.  May be called
+   * from any thread.
+   * @param filter The filter to apply, or <code>null</code> for
+   * plain resynthesis.
+   */
+  public void setFilter(final TransferFunction filter)
+  {
+    checkFilter(transform, filter);
+    this.filter = filter;
+  }
+
+  public TransferFunction getFilter()
+  {
+    return filter;
+  }
+
+  /**
+   * Sets the metrics to record processed samples and the time of
+   * reading and reconstructing each block into, in addition to the
+   * statistics kept by this processor.  Since the transform is fused
+   * with the reconstruction, its time is recorded as reconstruction
+   * time.
+   * @param metrics The metrics, or <code>null</code> for no
+   * recording.
+   */
+  public void setMetrics(final Metrics metrics)
+  {
+    this.metrics = metrics;
+  }
+
+  public Metrics getMetrics()
+  {
+    return metrics;
+  }
+
+  public SlidingWindowTransform getTransform()
+  {
+    return transform;
+  }
+
+  public int getBlockSize()
+  {
+    return input.length;
+  }
+
+  /**
+   * Processes the next block of up to getBlockSize() samples.
+   * @return The number of samples processed, which is less than the
+   * block size only upon reaching the end of the wave.
+   */
+  public int processBlock() throws IOException
+  {
+    final long start = System.nanoTime();
+    int length = 0;
+    while ((length < input.length) && !wave.eof()) {
+      input[length++] = wave.getNextSample();
+    }
+    if (length == 0) {
+      return 0;
+    }
+    final long read = System.nanoTime();
+    transform.reconstruct(input, 0, length, output, 0, filter);
+    final long transformed = System.nanoTime();
+    sink.putSamples(output, 0, length);
+    final long stop = System.nanoTime();
+    readNanos += read - start;
+    transformNanos += transformed - read;
+    writeNanos += stop - transformed;
+    maxBlockNanos = Math.max(maxBlockNanos, stop - start);
+    blockCount++;
+    sampleCount += length;
+    final Metrics metrics = this.metrics;
+    if (metrics != null) {
+      if (metrics.isTimingEnabled()) {
+        metrics.recordRead(read - start);
+        metrics.recordReconstruction(transformed - read);
+      }
+      metrics.addSamplesProcessed(length);
+    }
+    return length;
+  }
+
+  /**
+   * Processes blocks until the end of the wave is reached or at
+   * least the specified number of samples has been processed.
+   * @return The number of samples processed.
+   */
+  public long process(final long maxSamples) throws IOException
+  {
+    long count = 0;
+    while (count < maxSamples) {
+      final int length = processBlock();
+      if (length == 0) {
+        break;
+      }
+      count += length;
+    }
+    return count;
+  }
+
+  public long getSampleCount()
+  {
+    return sampleCount;
+  }
+
+  public long getBlockCount()
+  {
+    return blockCount;
+  }
+
+  /**
+   * Returns the average end-to-end cost of a block in nanoseconds.
+   */
+  public double getAverageBlockNanos()
+  {
+    return
+      blockCount > 0 ?
+      (double)(readNanos + transformNanos + writeNanos) / blockCount : 0.0;
+  }
+
+  /**
+   * Returns the maximum end-to-end cost of any block in nanoseconds.
+   */
+  public long getMaxBlockNanos()
+  {
+    return maxBlockNanos;
+  }
+
+  public long getReadNanos()
+  {
+    return readNanos;
+  }
+
+  public long getTransformNanos()
+  {
+    return transformNanos;
+  }
+
+  public long getWriteNanos()
+  {
+    return writeNanos;
+  }
+
+  /**
+   * Pretty prints the cost measured so far.  The real time factor is
+   * the ratio of the duration of the processed samples at the
+   * specified sampling frequency to the processing time; it must
+   * stay above 1.0 for real time operation.
+   */
+  public void printStatistics(final PrintStream out,
+                              final double samplingFrequency)
+  {
+    final long totalNanos = readNanos + transformNanos + writeNanos;
+    out.println("samples processed [#]: " + sampleCount);
+    out.println("blocks processed [#]: " + blockCount);
+    out.println("block size [samples]: " + input.length);
+    out.printf("average block cost [µs]: %.3f%n",
+               getAverageBlockNanos() * 0.001);
+    out.printf("maximum block cost [µs]: %.3f%n", maxBlockNanos * 0.001);
+    if (totalNanos > 0) {
+      out.printf("read / transform / write [%%]: %.1f / %.1f / %.1f%n",
+                 100.0 * readNanos / totalNanos,
+                 100.0 * transformNanos / totalNanos,
+                 100.0 * writeNanos / totalNanos);
+      out.printf("real time factor: %.3f%n",
+                 sampleCount / samplingFrequency / (totalNanos * 1.0e-9));
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,185 @@
+/*
+ * SpectrumExport.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+/**
+ * Loops for exporting spectra that are kept as separate arrays of
+ * real and imaginary parts into caller supplied arrays.  The loops
+ * are kept free of calls and branches, such that the JIT compiler
+ * can vectorize them where the hardware supports it.
+ */
+class SpectrumExport
+{
+  /**
+   * 10 / log2(10), for converting log2 of a power into dB.
+   */
+  private final static double DB_PER_OCTAVE_OF_POWER =
+    10.0 / (Math.log(10.0) / Math.log(2.0));
+
+  private SpectrumExport()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  static void checkBuffer(final double buffer[], final int size)
+  {
+    if (buffer == null) {
+      throw new NullPointerException("buffer");
+    }
+    if (buffer.length < size) {
+      throw new IllegalArgumentException("buffer too small");
+    }
+  }
+
+  static void checkBuffer(final float buffer[], final int size)
+  {
+    if (buffer == null) {
+      throw new NullPointerException("buffer");
+    }
+    if (buffer.length < size) {
+      throw new IllegalArgumentException("buffer too small");
+    }
+  }
+
+  static void copyState(final double windowRe[], final double windowIm[],
+                        final int from,
+                        final double re[], final double im[],
+                        final int offset, final int length)
+  {
+    System.arraycopy(windowRe, from, re, offset, length);
+    System.arraycopy(windowIm, from, im, offset, length);
+  }
+
+  static void getPower(final double windowRe[], final double windowIm[],
+                       final int from,
+                       final double power[], final int offset,
+                       final int length)
+  {
+    for (int i = 0; i < length; i++) {
+      final double re = windowRe[from + i];
+      final double im = windowIm[from + i];
+      power[offset + i] = re * re + im * im;
+    }
+  }
+
+  static void getMagnitudes(final double windowRe[], final double windowIm[],
+                            final int from,
+                            final double magnitudes[], final int offset,
+                            final int length)
+  {
+    for (int i = 0; i < length; i++) {
+      final double re = windowRe[from + i];
+      final double im = windowIm[from + i];
+      magnitudes[offset + i] = Math.sqrt(re * re + im * im);
+    }
+  }
+
+  /**
+   * Exports the magnitudes in dB, i.e. 10 * log10(power), computed
+   * from the power rather than the magnitude, thus saving the square
+   * root.
+   * @param floor Lower limit in dB of any exported value; also
+   * applies to lines with zero power.
+   * @param approximate If <code>true</code>, the logarithm is
+   * approximated by fastLog2(), which is precise to about 1e-5 dB,
+   * i.e. more than sufficient for rendering.
+   */
+  static void getLogMagnitudes(final double windowRe[],
+                               final double windowIm[],
+                               final int from,
+                               final float logMagnitudes[],
+                               final int offset, final int length,
+                               final double floor,
+                               final boolean approximate)
+  {
+    if (approximate) {
+      for (int i = 0; i < length; i++) {
+        final double re = windowRe[from + i];
+        final double im = windowIm[from + i];
+        final double db =
+          DB_PER_OCTAVE_OF_POWER * fastLog2(re * re + im * im);
+        logMagnitudes[offset + i] = (float)Math.max(db, floor);
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        final double re = windowRe[from + i];
+        final double im = windowIm[from + i];
+        final double db = 10.0 * Math.log10(re * re + im * im);
+        logMagnitudes[offset + i] = (float)Math.max(db, floor);
+      }
+    }
+  }
+
+  static void getPhases(final double windowRe[], final double windowIm[],
+                        final int from,
+                        final double phases[], final int offset,
+                        final int length)
+  {
+    for (int i = 0; i < length; i++) {
+      phases[offset + i] = Math.atan2(windowIm[from + i], windowRe[from + i]);
+    }
+  }
+
+  /**
+   * Returns 10 * log10(power), optionally approximated with
+   * fastLog2().
+   */
+  static double powerToDecibels(final double power,
+                                final boolean approximate)
+  {
+    return
+      approximate ?
+      DB_PER_OCTAVE_OF_POWER * fastLog2(power) :
+      10.0 * Math.log10(power);
+  }
+
+  /**
+   * Approximates log2(x) for positive, normal x from the exponent of
+   * x plus a polynomial of its mantissa, with an absolute error of
+   * less than 1e-5.  Returns a large negative value for zero and
+   * subnormal x, which is meant to be clipped by the caller.
+   */
+  static double fastLog2(final double x)
+  {
+    final long bits = Double.doubleToRawLongBits(x);
+    final int exponent = (int)((bits >>> 52) & 0x7ff) - 1023;
+    final double m =
+      Double.longBitsToDouble((bits & 0x000fffffffffffffL) |
+                              0x3ff0000000000000L) - 1.0;
+    // minimax approximation of log2(1 + m) for m in [0, 1)
+    final double p =
+      m * (1.4425449 + m * (-0.7181452 + m * (0.4575485 +
+      m * (-0.2779042 + m * (0.1217970 - m * 0.0258411)))));
+    return exponent + p;
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,256 @@
+/*
+ * SpectrumRenderer.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * Renders the frames of a sliding window transform the way
+ * ExampleApplication shows them: one image row per frame, with the
+ * magnitude of each spectral line as HSV pixel, followed by plots of
+ * the latest original and reconstructed sample, plus one line of wave
+ * plot data per frame.
+ *
+ * The stages of the pipeline can be measured by a stage clock, which
+ * is told whenever a stage is done.  Without a clock, nothing is
+ * measured.
+ */
+public class SpectrumRenderer implements FrameEmitter.FrameListener
+{
+  public static final int STAGE_DECODE = 0;
+  public static final int STAGE_TRANSFORM = 1;
+  public static final int STAGE_RECONSTRUCT = 2;
+  public static final int STAGE_RENDER = 3;
+  public static final int STAGE_PLOT = 4;
+  public static final int STAGE_COUNT = 5;
+
+  private static final double doublePI = 2.0 * Math.PI;
+
+  /**
+   * Receives the boundaries of the stages of the pipeline.
+   */
+  public static interface StageClock
+  {
+    /**
+     * Called before the samples of each hop are read.
+     */
+    void start();
+
+    /**
+     * Called when the specified stage is done, i.e. everything since
+     * the last call of start() or stop() belongs to that stage.
+     */
+    void stop(final int stage);
+  }
+
+  private static final StageClock NO_CLOCK = new StageClock() {
+      public void start() {}
+      public void stop(final int stage) {}
+    };
+
+  private final PPMStreamOutput imageStream;
+  private final PrintWriter plotWriter;
+  private final int plotHeight;
+  private final double brightness;
+  private StageClock clock;
+  private Metrics metrics;
+  private double lastSample;
+  private long frameCount;
+
+  private SpectrumRenderer()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * @param imageStream The image to write one row per frame to, or
+   * <code>null</code> for no image.  Its width must be the size of
+   * the transform plus twice the plot height, if there is a plot.
+   * @param plotWriter The writer for the wave plot data, or
+   * <code>null</code> for neither writing plot data nor plotting
+   * samples into the image.
+   * @param plotHeight The height of each sample plot in pixels.
+   * @param brightness The factor to scale magnitudes to HSV values.
+   */
+  public SpectrumRenderer(final PPMStreamOutput imageStream,
+                          final PrintWriter plotWriter,
+                          final int plotHeight, final double brightness)
+  {
+    if ((plotWriter != null) && (plotHeight <= 0)) {
+      throw new IllegalArgumentException("plot height <= 0");
+    }
+    this.imageStream = imageStream;
+    this.plotWriter = plotWriter;
+    this.plotHeight = plotHeight;
+    this.brightness = brightness;
+    clock = NO_CLOCK;
+    metrics = null;
+  }
+
+  /**
+   * Sets the clock to tell the stage boundaries to, or
+   * <code>null</code> for not measuring anything.
+   */
+  public void setStageClock(final StageClock clock)
+  {
+    this.clock = clock != null ? clock : NO_CLOCK;
+  }
+
+  /**
+   * Sets the metrics that the frame emitter of render() reports to,
+   * or <code>null</code> for no metrics.
+   */
+  public void setMetrics(final Metrics metrics)
+  {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the number of frames rendered so far.
+   */
+  public long getFrameCount()
+  {
+    return frameCount;
+  }
+
+  /**
+   * Reads the specified number of samples from the wave, runs them
+   * through the transform, and renders a frame every hop samples.
+   */
+  public void render(final SlidingWindowTransform transform,
+                     final Wave wave, final long samples, final int hop)
+    throws IOException
+  {
+    if (transform == null) {
+      throw new NullPointerException("transform");
+    }
+    if (wave == null) {
+      throw new NullPointerException("wave");
+    }
+    if (samples < 0) {
+      throw new IllegalArgumentException("samples < 0");
+    }
+    final FrameEmitter frameEmitter =
+      new FrameEmitter(transform, hop, new double[transform.getSize()],
+                       this);
+    frameEmitter.setMetrics(metrics);
+    final double hopSamples[] = new double[hop];
+    try {
+      for (long sampleCount = 0; sampleCount < samples;
+           sampleCount += hopSamples.length) {
+        clock.start();
+        final int count =
+          (int)Math.min(hopSamples.length, samples - sampleCount);
+        for (int j = 0; j < count; j++) {
+          hopSamples[j] = wave.getNextSample();
+        }
+        lastSample = hopSamples[count - 1];
+        clock.stop(STAGE_DECODE);
+        frameEmitter.putBins(hopSamples, 0, count);
+        clock.stop(STAGE_TRANSFORM);
+      }
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  public void frameEmitted(final FrameEmitter emitter,
+                           final long sampleCount,
+                           final double magnitudes[], final double phases[])
+  {
+    clock.stop(STAGE_TRANSFORM);
+    try {
+      writeFrame(emitter.getTransform(), sampleCount, magnitudes);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    frameCount++;
+  }
+
+  private void writeFrame(final SlidingWindowTransform transform,
+                          final long sampleCount,
+                          final double magnitudes[])
+    throws IOException
+  {
+    if (imageStream != null) {
+      for (int i = 0; i < transform.getSize(); i++) {
+        final double value = magnitudes[i];
+        final double hue = (value - 0.5) * doublePI;
+        imageStream.putPixel(hue, 1.0, brightness * value);
+      }
+      clock.stop(STAGE_RENDER);
+    }
+    if (plotWriter != null) {
+      final double reconstructedSample = transform.getReconstructedSample();
+      clock.stop(STAGE_RECONSTRUCT);
+      if (imageStream != null) {
+        putSample(imageStream, plotHeight, lastSample, -1.0, +1.0);
+        putSample(imageStream, plotHeight, reconstructedSample, -1.0, +1.0);
+        clock.stop(STAGE_RENDER);
+      }
+      plotWriter.printf("%5d %5.3f %5.3f\r\n",
+                        sampleCount - 1, lastSample, reconstructedSample);
+      clock.stop(STAGE_PLOT);
+    }
+  }
+
+  private static void putSample(final PPMStreamOutput imageStream,
+                                final int displayHeight,
+                                final double sample,
+                                final double lowerBound,
+                                final double upperBound)
+    throws IOException
+  {
+    final double scale = (upperBound - lowerBound) / displayHeight;
+    boolean matched = false;
+    int i;
+    for (i = 0; i < displayHeight - 1; i++) {
+      if (!matched) {
+        if (lowerBound + scale * i >= sample) {
+          matched = true;
+          break;
+        }
+      }
+      imageStream.putPixel(0, 0, 0);
+    }
+    imageStream.putPixel(255, 255, 255);
+    if (!matched) {
+      return;
+    }
+    for (i++; i < displayHeight; i++) {
+      imageStream.putPixel(0, 0, 0);
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
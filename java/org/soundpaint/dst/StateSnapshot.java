@@ -0,0 +1,201 @@
+/*
+ * StateSnapshot.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Binary format for snapshots of the state of a sliding window
+ * transform (all values little endian):
+ *
+ * <pre>
+ *  offset  type     content
+ *       0  byte[8]  magic "DSTSTATE"
+ *       8  int      format version (1)
+ *      12  int      kind of transform (KIND_DST or KIND_DFT)
+ *      16  long     configuration fingerprint
+ *      24  int      size, i.e. number of spectral lines
+ *      28  int      payload length in bytes
+ *      32           payload, as defined by the transform
+ *       n  int      CRC-32 of all preceding bytes
+ * </pre>
+ *
+ * The configuration fingerprint is a hash over all parameters that
+ * determine the coefficients of the transform, such that a snapshot
+ * can not be restored into a transform that would continue
+ * differently.  The whole snapshot is read and checked before the
+ * state of the transform is touched.
+ */
+class StateSnapshot
+{
+  static final int KIND_DST = 1;
+  static final int KIND_DFT = 2;
+
+  private static final byte MAGIC[] = {
+    'D', 'S', 'T', 'S', 'T', 'A', 'T', 'E'
+  };
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 32;
+  private static final int TRAILER_SIZE = 4;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private StateSnapshot()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * Returns a 64 bit FNV-1a hash over the specified values.
+   */
+  static long fingerprint(final long... values)
+  {
+    long hash = FNV_OFFSET_BASIS;
+    for (final long value : values) {
+      for (int shift = 0; shift < 64; shift += 8) {
+        hash ^= (value >>> shift) & 0xff;
+        hash *= FNV_PRIME;
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Returns a buffer with the header already filled in and the
+   * position at the start of the payload, ready for the transform to
+   * put its payload.
+   */
+  static ByteBuffer createBuffer(final int kind, final long fingerprint,
+                                 final int size, final int payloadLength)
+  {
+    final ByteBuffer buffer =
+      ByteBuffer.allocate(HEADER_SIZE + payloadLength + TRAILER_SIZE).
+      order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put(MAGIC);
+    buffer.putInt(VERSION);
+    buffer.putInt(kind);
+    buffer.putLong(fingerprint);
+    buffer.putInt(size);
+    buffer.putInt(payloadLength);
+    return buffer;
+  }
+
+  /**
+   * Appends the checksum to the completely filled buffer and writes
+   * it to the channel.
+   */
+  static void write(final ByteBuffer buffer, final WritableByteChannel channel)
+    throws IOException
+  {
+    if (channel == null) {
+      throw new NullPointerException("channel");
+    }
+    if (buffer.remaining() != TRAILER_SIZE) {
+      throw new IllegalStateException("payload length mismatch");
+    }
+    final CRC32 crc = new CRC32();
+    crc.update(buffer.array(), 0, buffer.position());
+    buffer.putInt((int)crc.getValue());
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  /**
+   * Reads a complete snapshot from the channel and checks it against
+   * the expected kind, fingerprint, size and payload length.
+   * @return A buffer positioned at the start of the payload.
+   */
+  static ByteBuffer read(final ReadableByteChannel channel, final int kind,
+                         final long fingerprint, final int size,
+                         final int payloadLength)
+    throws IOException
+  {
+    if (channel == null) {
+      throw new NullPointerException("channel");
+    }
+    final ByteBuffer header =
+      ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    readFully(channel, header);
+    for (int i = 0; i < MAGIC.length; i++) {
+      if (header.get(i) != MAGIC[i]) {
+        throw new IOException("not a transform state snapshot");
+      }
+    }
+    if (header.getInt(8) != VERSION) {
+      throw new IOException("unsupported snapshot version " +
+                            header.getInt(8));
+    }
+    if (header.getInt(12) != kind) {
+      throw new IOException("snapshot is for a different kind of transform");
+    }
+    if ((header.getLong(16) != fingerprint) ||
+        (header.getInt(24) != size) ||
+        (header.getInt(28) != payloadLength)) {
+      throw new IOException("snapshot does not match configuration " +
+                            "of transform");
+    }
+    final ByteBuffer buffer =
+      ByteBuffer.allocate(HEADER_SIZE + payloadLength + TRAILER_SIZE).
+      order(ByteOrder.LITTLE_ENDIAN);
+    header.flip();
+    buffer.put(header);
+    readFully(channel, buffer);
+    final CRC32 crc = new CRC32();
+    crc.update(buffer.array(), 0, HEADER_SIZE + payloadLength);
+    if (buffer.getInt(HEADER_SIZE + payloadLength) != (int)crc.getValue()) {
+      throw new IOException("snapshot checksum mismatch");
+    }
+    buffer.position(HEADER_SIZE);
+    buffer.limit(HEADER_SIZE + payloadLength);
+    return buffer;
+  }
+
+  private static void readFully(final ReadableByteChannel channel,
+                                final ByteBuffer buffer)
+    throws IOException
+  {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new IOException("truncated snapshot");
+      }
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
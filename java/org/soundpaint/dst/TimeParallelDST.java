@@ -0,0 +1,481 @@
+/*
+ * TimeParallelDST.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * DST that shares the work of analyzing a long signal among multiple
+ * threads by splitting it in time rather than by spectral lines.
+ *
+ * Since the update of the DST is linear, the state after a chunk of
+ * n samples is
+ *
+ * state(t1) = shift^n * state(t0) + chunkState,
+ *
+ * where chunkState is the state that results from feeding the chunk
+ * into a DST with all lines zero.  Hence, chunk states can be
+ * computed independently of each other, and the actual states at the
+ * chunk boundaries follow from a prefix scan over the chunk states.
+ *
+ * The signal is processed in rounds of consecutive chunks.  Within a
+ * round, each worker owns a contiguous group of chunks.  First, each
+ * worker computes the chunk states of its group and combines them
+ * into states relative to the start of the group.  Then, the states
+ * at the group boundaries are propagated sequentially, which costs
+ * only one combination per group.  Finally, each worker adds the
+ * contribution of the state at the start of its group to all states
+ * of its group.  The listener is then called with the state at each
+ * chunk boundary in order.
+ *
+ * Up to rounding, the states are exactly the same as those of a
+ * DSTSlidingWindow with the same coefficients after the same number
+ * of samples.
+ */
+public class TimeParallelDST implements AutoCloseable
+{
+  public static final int DEFAULT_CHUNKS_PER_GROUP = 4;
+
+  /**
+   * Receives the spectrum at each chunk boundary.
+   */
+  public static interface BoundaryListener
+  {
+    /**
+     * Called in order of increasing position.  The arrays are reused
+     * and must not be kept beyond the call.
+     * @param position The number of samples analyzed so far.
+     */
+    void boundaryReached(final TimeParallelDST transform,
+                         final long position,
+                         final double re[], final double im[]);
+  }
+
+  /**
+   * Computes and combines the chunk states of one group of a round.
+   */
+  private class Group implements Callable<Void>
+  {
+    private final DSTSlidingWindow window;
+    private int firstChunk, chunkCount;
+    private boolean addCarry;
+
+    private Group()
+    {
+      window = new DSTSlidingWindow(coefficients, kernel);
+    }
+
+    public Void call()
+    {
+      if (addCarry) {
+        addCarry();
+      } else {
+        computeChunkStates();
+      }
+      return null;
+    }
+
+    private void computeChunkStates()
+    {
+      for (int c = firstChunk; c < firstChunk + chunkCount; c++) {
+        window.clear();
+        window.putBins(samples, chunkOffset[c], chunkLength[c]);
+        window.copyState(stateRe[c], stateIm[c]);
+        if (c > firstChunk) {
+          // make relative to the start of the group
+          multiplyAdd(stateRe[c], stateIm[c],
+                      stateRe[c - 1], stateIm[c - 1], chunkLength[c]);
+        }
+      }
+    }
+
+    private void addCarry()
+    {
+      final double carryRe[] = groupCarryRe[firstChunk / chunksPerGroup];
+      final double carryIm[] = groupCarryIm[firstChunk / chunksPerGroup];
+      // the last chunk of the group already has been made absolute
+      // while propagating the carries
+      for (int c = firstChunk; c < firstChunk + chunkCount - 1; c++) {
+        final int k = c - firstChunk + 1;
+        multiplyAdd(stateRe[c], stateIm[c], carryRe, carryIm, k * chunkSize);
+      }
+    }
+  }
+
+  private final DSTCoefficients coefficients;
+  private final DSTKernel kernel;
+  private final int size;
+  private final int chunkSize;
+  private final int chunksPerGroup;
+  private final Group groups[];
+  private final ExecutorService executor;
+
+  /**
+   * shift^(k * chunkSize) for k in [0, chunksPerGroup].
+   */
+  private final double shiftPowerRe[][], shiftPowerIm[][];
+
+  /**
+   * Scratch for shift^length of a short final chunk.  Only the last
+   * chunk of a round can be short, and the phases of a round run one
+   * after the other, such that at most one thread uses the scratch
+   * at a time.
+   */
+  private final double scratchPowerRe[], scratchPowerIm[];
+
+  private final double samples[];
+  private final int chunkOffset[], chunkLength[];
+  private final double stateRe[][], stateIm[][];
+  private final double groupCarryRe[][], groupCarryIm[][];
+  private final double currentRe[], currentIm[];
+  private long position;
+
+  private TimeParallelDST()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * Creates a DST with one worker per available processor.
+   */
+  public TimeParallelDST(final DSTCoefficients coefficients,
+                         final int chunkSize)
+  {
+    this(coefficients, chunkSize,
+         Runtime.getRuntime().availableProcessors(),
+         DEFAULT_CHUNKS_PER_GROUP);
+  }
+
+  /**
+   * @param chunkSize The number of samples per chunk, i.e. the
+   * distance of the boundaries at which the spectrum is reported.
+   * @param workerCount The number of worker threads.
+   * @param chunksPerGroup The number of chunks per worker and round.
+   */
+  public TimeParallelDST(final DSTCoefficients coefficients,
+                         final int chunkSize, final int workerCount,
+                         final int chunksPerGroup)
+  {
+    this(coefficients, chunkSize, workerCount, chunksPerGroup,
+         DSTKernelFactory.getDefault());
+  }
+
+  TimeParallelDST(final DSTCoefficients coefficients,
+                  final int chunkSize, final int workerCount,
+                  final int chunksPerGroup, final DSTKernel kernel)
+  {
+    if (coefficients == null) {
+      throw new NullPointerException("coefficients");
+    }
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunk size < 1");
+    }
+    if (workerCount < 1) {
+      throw new IllegalArgumentException("worker count < 1");
+    }
+    if (chunksPerGroup < 1) {
+      throw new IllegalArgumentException("chunks per group < 1");
+    }
+    final long roundSize = (long)chunkSize * chunksPerGroup * workerCount;
+    if (roundSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("chunks too large");
+    }
+    if (kernel == null) {
+      throw new NullPointerException("kernel");
+    }
+    this.coefficients = coefficients;
+    this.kernel = kernel;
+    this.size = coefficients.getSize();
+    this.chunkSize = chunkSize;
+    this.chunksPerGroup = chunksPerGroup;
+    final int chunkCount = chunksPerGroup * workerCount;
+    samples = new double[(int)roundSize];
+    chunkOffset = new int[chunkCount];
+    chunkLength = new int[chunkCount];
+    stateRe = new double[chunkCount][size];
+    stateIm = new double[chunkCount][size];
+    groupCarryRe = new double[workerCount][size];
+    groupCarryIm = new double[workerCount][size];
+    shiftPowerRe = new double[chunksPerGroup + 1][size];
+    shiftPowerIm = new double[chunksPerGroup + 1][size];
+    for (int k = 0; k <= chunksPerGroup; k++) {
+      computeShiftPower((long)k * chunkSize, shiftPowerRe[k], shiftPowerIm[k]);
+    }
+    scratchPowerRe = new double[size];
+    scratchPowerIm = new double[size];
+    currentRe = new double[size];
+    currentIm = new double[size];
+    position = 0;
+    groups = new Group[workerCount];
+    for (int g = 0; g < workerCount; g++) {
+      groups[g] = new Group();
+    }
+    executor = Executors.newFixedThreadPool(workerCount, new ThreadFactory() {
+        public Thread newThread(final Runnable runnable)
+        {
+          final Thread thread =
+            new Thread(runnable, "time-parallel DST worker");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+  }
+
+  public DSTCoefficients getCoefficients()
+  {
+    return coefficients;
+  }
+
+  public int getSize()
+  {
+    return size;
+  }
+
+  public int getChunkSize()
+  {
+    return chunkSize;
+  }
+
+  public int getWorkerCount()
+  {
+    return groups.length;
+  }
+
+  /**
+   * Returns the number of samples analyzed so far.
+   */
+  public long getPosition()
+  {
+    return position;
+  }
+
+  /**
+   * Copies the current state, i.e. the spectrum after all samples
+   * analyzed so far, into the specified arrays.
+   */
+  public void copyState(final double re[], final double im[])
+  {
+    SpectrumExport.checkBuffer(re, size);
+    SpectrumExport.checkBuffer(im, size);
+    System.arraycopy(currentRe, 0, re, 0, size);
+    System.arraycopy(currentIm, 0, im, 0, size);
+  }
+
+  /**
+   * Sets the state back to all zero, as after construction.
+   */
+  public void reset()
+  {
+    Arrays.fill(currentRe, 0.0);
+    Arrays.fill(currentIm, 0.0);
+    position = 0;
+  }
+
+  /**
+   * Stores shift^n = μ0^n * e^(i * n * phase) for each line into the
+   * specified arrays.
+   */
+  private void computeShiftPower(final long n,
+                                 final double re[], final double im[])
+  {
+    final double decay = Math.pow(coefficients.getμ0(), n);
+    for (int i = 0; i < size; i++) {
+      final double angle = n * coefficients.phase[i];
+      re[i] = decay * Math.cos(angle);
+      im[i] = decay * Math.sin(angle);
+    }
+  }
+
+  /**
+   * state := state + shift^length * previous.  Powers for multiples of
+   * the chunk size are taken from the table; any other power is only
+   * needed for a short final chunk and hence computed on demand into
+   * the scratch arrays.
+   */
+  private void multiplyAdd(final double stateRe[], final double stateIm[],
+                           final double previousRe[],
+                           final double previousIm[],
+                           final int length)
+  {
+    final double re[], im[];
+    if ((length % chunkSize == 0) &&
+        (length / chunkSize < shiftPowerRe.length)) {
+      re = shiftPowerRe[length / chunkSize];
+      im = shiftPowerIm[length / chunkSize];
+    } else {
+      re = scratchPowerRe;
+      im = scratchPowerIm;
+      computeShiftPower(length, re, im);
+    }
+    for (int i = 0; i < size; i++) {
+      stateRe[i] += re[i] * previousRe[i] - im[i] * previousIm[i];
+      stateIm[i] += re[i] * previousIm[i] + im[i] * previousRe[i];
+    }
+  }
+
+  /**
+   * Analyzes the remaining samples of the wave.
+   */
+  public void analyze(final FiniteWave wave, final BoundaryListener listener)
+    throws IOException
+  {
+    if (wave == null) {
+      throw new NullPointerException("wave");
+    }
+    while (true) {
+      final int length = wave.getNextSamples(samples, 0, samples.length);
+      if (length == 0) {
+        break;
+      }
+      analyzeRound(length, listener);
+      if (length < samples.length) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Analyzes the specified block of samples.
+   */
+  public void analyze(final double samples[], final int offset,
+                      final int length, final BoundaryListener listener)
+  {
+    SampleChecks.checkBlock(samples, offset, length);
+    for (int start = offset; start < offset + length;
+         start += this.samples.length) {
+      final int roundLength =
+        Math.min(this.samples.length, offset + length - start);
+      System.arraycopy(samples, start, this.samples, 0, roundLength);
+      analyzeRound(roundLength, listener);
+    }
+  }
+
+  private void analyzeRound(final int length,
+                            final BoundaryListener listener)
+  {
+    // split into chunks; only the very last chunk may be short
+    final int chunkCount = (length + chunkSize - 1) / chunkSize;
+    for (int c = 0; c < chunkCount; c++) {
+      chunkOffset[c] = c * chunkSize;
+      chunkLength[c] = Math.min(chunkSize, length - c * chunkSize);
+    }
+    final int groupCount = (chunkCount + chunksPerGroup - 1) / chunksPerGroup;
+    final List<Group> tasks = new ArrayList<Group>(groupCount);
+    for (int g = 0; g < groupCount; g++) {
+      groups[g].firstChunk = g * chunksPerGroup;
+      groups[g].chunkCount =
+        Math.min(chunksPerGroup, chunkCount - g * chunksPerGroup);
+      groups[g].addCarry = false;
+      tasks.add(groups[g]);
+    }
+    run(tasks);
+
+    // propagate the states at group boundaries
+    double carryRe[] = currentRe;
+    double carryIm[] = currentIm;
+    for (int g = 0; g < groupCount; g++) {
+      System.arraycopy(carryRe, 0, groupCarryRe[g], 0, size);
+      System.arraycopy(carryIm, 0, groupCarryIm[g], 0, size);
+      final int last = groups[g].firstChunk + groups[g].chunkCount - 1;
+      final int groupLength =
+        chunkOffset[last] + chunkLength[last] -
+        chunkOffset[groups[g].firstChunk];
+      multiplyAdd(stateRe[last], stateIm[last],
+                  groupCarryRe[g], groupCarryIm[g], groupLength);
+      carryRe = stateRe[last];
+      carryIm = stateIm[last];
+    }
+
+    // add the state at the start of each group to its other states
+    for (int g = 0; g < groupCount; g++) {
+      groups[g].addCarry = true;
+    }
+    run(tasks);
+
+    for (int c = 0; c < chunkCount; c++) {
+      if (listener != null) {
+        listener.boundaryReached(this,
+                                 position + chunkOffset[c] + chunkLength[c],
+                                 stateRe[c], stateIm[c]);
+      }
+    }
+    System.arraycopy(stateRe[chunkCount - 1], 0, currentRe, 0, size);
+    System.arraycopy(stateIm[chunkCount - 1], 0, currentIm, 0, size);
+    position += length;
+  }
+
+  private void run(final List<Group> tasks)
+  {
+    if (tasks.size() == 1) {
+      tasks.get(0).call();
+      return;
+    }
+    try {
+      for (final Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("interrupted while processing round", e);
+    } catch (final ExecutionException e) {
+      throw new IllegalStateException("worker failed", e.getCause());
+    }
+  }
+
+  /**
+   * Stops the worker threads.  After shutdown, the state can still be
+   * read, but no more samples can be analyzed.
+   */
+  public void shutdown()
+  {
+    executor.shutdown();
+  }
+
+  /**
+   * Same as shutdown(), such that this transform can be used as
+   * resource of a try-with-resources statement.
+   */
+  public void close()
+  {
+    shutdown();
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -34,6 +34,35 @@ public interface TransferFunction
   Complex getTransferValue(final int index);
   void printInfo(final PrintStream out, final double samplingFrequency,
                  final double lowBound, final double highBound);
+
+  /**
+   * Returns a counter that changes whenever any transfer value
+   * changes.  Transforms cache the transfer values and fetch them
+   * anew only if this counter changes, such that time-varying
+   * filters must override this method.  The default implementation
+   * returns always 0, i.e. declares the filter as immutable.
+   */
+  default long getModificationCount()
+  {
+    return 0;
+  }
+
+  /**
+   * Copies the real and imaginary parts of all transfer values into
+   * the specified arrays, each of which must provide room for at
+   * least getLength() values.  Filters that keep their values in
+   * primitive arrays may override this method for copying them in
+   * bulk.
+   */
+  default void getTransferValues(final double re[], final double im[])
+  {
+    final int length = getLength();
+    for (int i = 0; i < length; i++) {
+      final Complex transferValue = getTransferValue(i);
+      re[i] = transferValue.getRealPart();
+      im[i] = transferValue.getImaginaryPart();
+    }
+  }
 }
 
 /*
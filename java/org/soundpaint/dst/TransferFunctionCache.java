@@ -0,0 +1,99 @@
+/*
+ * TransferFunctionCache.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+/**
+ * Primitive array copy of the transfer values of the filter that has
+ * most recently been applied by a transform.  The values are fetched
+ * anew only if a different filter is applied or the filter reports
+ * a change via its modification count, such that reconstructing a
+ * filtered sample neither calls the filter nor allocates any object
+ * per spectral line.
+ */
+class TransferFunctionCache
+{
+  private final int size;
+  private TransferFunction filter;
+  private long modificationCount;
+  private double re[], im[];
+
+  private TransferFunctionCache()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  TransferFunctionCache(final int size)
+  {
+    this.size = size;
+    filter = null;
+  }
+
+  /**
+   * Makes the cache reflect the current transfer values of the
+   * specified filter.
+   */
+  void update(final TransferFunction filter)
+  {
+    if (filter.getLength() != size) {
+      throw new IllegalArgumentException("bad filter length");
+    }
+    final long modificationCount = filter.getModificationCount();
+    if ((filter == this.filter) &&
+        (modificationCount == this.modificationCount)) {
+      return;
+    }
+    if (re == null) {
+      re = new double[size];
+      im = new double[size];
+    }
+    filter.getTransferValues(re, im);
+    this.filter = filter;
+    this.modificationCount = modificationCount;
+  }
+
+  /**
+   * Returns the real parts of the cached transfer values.
+   */
+  double[] getRe()
+  {
+    return re;
+  }
+
+  /**
+   * Returns the imaginary parts of the cached transfer values.
+   */
+  double[] getIm()
+  {
+    return im;
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,180 @@
+/*
+ * VectorDSTKernel.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation of the DST update on top of the (incubating) JDK
+ * Vector API that processes as many spectral lines per instruction
+ * as the preferred vector shape of the platform provides.
+ *
+ * This class must be compiled and run with option "--add-modules
+ * jdk.incubator.vector".  It is never referenced directly, but only
+ * loaded by name via class DSTKernelFactory, such that all other
+ * classes still work without the module.
+ */
+class VectorDSTKernel implements DSTKernel
+{
+  private static final VectorSpecies<Double> SPECIES =
+    DoubleVector.SPECIES_PREFERRED;
+
+  private static final VectorSpecies<Float> FLOAT_SPECIES =
+    FloatVector.SPECIES_PREFERRED;
+
+  public String getName()
+  {
+    return "vector (" + SPECIES.length() + " lanes)";
+  }
+
+  public void updateLines(final double windowRe[], final double windowIm[],
+                          final double shiftRe[], final double shiftIm[],
+                          final double weightRe[], final double weightIm[],
+                          final double sample, final int from, final int to)
+  {
+    final DoubleVector x = DoubleVector.broadcast(SPECIES, sample);
+    final int vectorStop = from + SPECIES.loopBound(to - from);
+    int i = from;
+    for (; i < vectorStop; i += SPECIES.length()) {
+      final DoubleVector re = DoubleVector.fromArray(SPECIES, windowRe, i);
+      final DoubleVector im = DoubleVector.fromArray(SPECIES, windowIm, i);
+      final DoubleVector sRe = DoubleVector.fromArray(SPECIES, shiftRe, i);
+      final DoubleVector sIm = DoubleVector.fromArray(SPECIES, shiftIm, i);
+      final DoubleVector wRe = DoubleVector.fromArray(SPECIES, weightRe, i);
+      final DoubleVector wIm = DoubleVector.fromArray(SPECIES, weightIm, i);
+      re.mul(sRe).sub(im.mul(sIm)).add(x.mul(wRe)).intoArray(windowRe, i);
+      re.mul(sIm).add(im.mul(sRe)).add(x.mul(wIm)).intoArray(windowIm, i);
+    }
+    for (; i < to; i++) {
+      final double re = windowRe[i];
+      final double im = windowIm[i];
+      windowRe[i] = re * shiftRe[i] - im * shiftIm[i] + sample * weightRe[i];
+      windowIm[i] = re * shiftIm[i] + im * shiftRe[i] + sample * weightIm[i];
+    }
+  }
+
+  public void updateLines(final float windowRe[], final float windowIm[],
+                          final float deltaHiRe[], final float deltaHiIm[],
+                          final float deltaLoRe[], final float deltaLoIm[],
+                          final float sample, final int from, final int to)
+  {
+    final FloatVector x = FloatVector.broadcast(FLOAT_SPECIES, sample);
+    final int vectorStop = from + FLOAT_SPECIES.loopBound(to - from);
+    int i = from;
+    for (; i < vectorStop; i += FLOAT_SPECIES.length()) {
+      final FloatVector wRe =
+        FloatVector.fromArray(FLOAT_SPECIES, windowRe, i);
+      final FloatVector wIm =
+        FloatVector.fromArray(FLOAT_SPECIES, windowIm, i);
+      final FloatVector hRe =
+        FloatVector.fromArray(FLOAT_SPECIES, deltaHiRe, i);
+      final FloatVector hIm =
+        FloatVector.fromArray(FLOAT_SPECIES, deltaHiIm, i);
+      final FloatVector lRe =
+        FloatVector.fromArray(FLOAT_SPECIES, deltaLoRe, i);
+      final FloatVector lIm =
+        FloatVector.fromArray(FLOAT_SPECIES, deltaLoIm, i);
+      // same two steps as the scalar kernel, but fused in registers
+      final FloatVector re = wRe.sub(x);
+      final FloatVector loRe = wRe.add(re.mul(lRe).sub(wIm.mul(lIm)));
+      final FloatVector loIm = wIm.add(re.mul(lIm).add(wIm.mul(lRe)));
+      final FloatVector re2 = loRe.sub(x);
+      loRe.add(re2.mul(hRe).sub(loIm.mul(hIm))).intoArray(windowRe, i);
+      loIm.add(re2.mul(hIm).add(loIm.mul(hRe))).intoArray(windowIm, i);
+    }
+    for (; i < to; i++) {
+      final float wRe = windowRe[i];
+      final float wIm = windowIm[i];
+      final float re = wRe - sample;
+      final float loRe = wRe + (re * deltaLoRe[i] - wIm * deltaLoIm[i]);
+      final float loIm = wIm + (re * deltaLoIm[i] + wIm * deltaLoRe[i]);
+      final float re2 = loRe - sample;
+      windowRe[i] = loRe + (re2 * deltaHiRe[i] - loIm * deltaHiIm[i]);
+      windowIm[i] = loIm + (re2 * deltaHiIm[i] + loIm * deltaHiRe[i]);
+    }
+  }
+
+  public double updateLinesAndSum(final double windowRe[],
+                                  final double windowIm[],
+                                  final double shiftRe[],
+                                  final double shiftIm[],
+                                  final double weightRe[],
+                                  final double weightIm[],
+                                  final double filterRe[],
+                                  final double filterIm[],
+                                  final double sample,
+                                  final int from, final int to)
+  {
+    final DoubleVector x = DoubleVector.broadcast(SPECIES, sample);
+    final int vectorStop = from + SPECIES.loopBound(to - from);
+    // lane-wise partial sums, reduced once after the loop
+    DoubleVector sums = DoubleVector.zero(SPECIES);
+    int i = from;
+    for (; i < vectorStop; i += SPECIES.length()) {
+      final DoubleVector re = DoubleVector.fromArray(SPECIES, windowRe, i);
+      final DoubleVector im = DoubleVector.fromArray(SPECIES, windowIm, i);
+      final DoubleVector sRe = DoubleVector.fromArray(SPECIES, shiftRe, i);
+      final DoubleVector sIm = DoubleVector.fromArray(SPECIES, shiftIm, i);
+      final DoubleVector wRe = DoubleVector.fromArray(SPECIES, weightRe, i);
+      final DoubleVector wIm = DoubleVector.fromArray(SPECIES, weightIm, i);
+      final DoubleVector newRe = re.mul(sRe).sub(im.mul(sIm)).add(x.mul(wRe));
+      final DoubleVector newIm = re.mul(sIm).add(im.mul(sRe)).add(x.mul(wIm));
+      newRe.intoArray(windowRe, i);
+      newIm.intoArray(windowIm, i);
+      if (filterRe == null) {
+        sums = sums.add(newRe);
+      } else {
+        final DoubleVector fRe = DoubleVector.fromArray(SPECIES, filterRe, i);
+        final DoubleVector fIm = DoubleVector.fromArray(SPECIES, filterIm, i);
+        sums = sums.add(newRe.mul(fRe)).sub(newIm.mul(fIm));
+      }
+    }
+    double sum = sums.reduceLanes(VectorOperators.ADD);
+    for (; i < to; i++) {
+      final double re = windowRe[i];
+      final double im = windowIm[i];
+      final double newRe =
+        re * shiftRe[i] - im * shiftIm[i] + sample * weightRe[i];
+      final double newIm =
+        re * shiftIm[i] + im * shiftRe[i] + sample * weightIm[i];
+      windowRe[i] = newRe;
+      windowIm[i] = newIm;
+      sum += filterRe == null ?
+        newRe : newRe * filterRe[i] - newIm * filterIm[i];
+    }
+    return sum;
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -40,6 +40,7 @@ public class WaveFileReader extends FiniteWave
   private /*final*/ double SAMPLE_SCALE;
   private AudioInputStream in;
   private byte sample[];
+  private byte block[];
   private String filename;
   private int channels;
   private boolean averageChannels;
@@ -109,6 +110,7 @@ public class WaveFileReader extends FiniteWave
       SAMPLE_SCALE = PCM16_INV_RADIUS;
     }
     sample = new byte[2 * channels];
+    block = null;
     hasMoreSamples = true;
     lookAhead = prepareLookAhead(0);
   }
@@ -140,16 +142,63 @@ public class WaveFileReader extends FiniteWave
       hasMoreSamples = false;
       return 0.0;
     }
+    return decode(sample, 0);
+  }
+
+  /**
+   * Decodes whole blocks of samples at once, rather than sample by
+   * sample.  The decode buffer is kept for subsequent calls.
+   */
+  public int getNextSamples(final double buffer[], final int offset,
+                            final int length)
+    throws IOException
+  {
+    if ((length <= 0) || !hasMoreSamples) {
+      return 0;
+    }
+    buffer[offset] = lookAhead;
+    final int frameSize = 2 * channels;
+    if ((block == null) || (block.length < length * frameSize)) {
+      block = new byte[length * frameSize];
+    }
+    int bytes = 0;
+    while (bytes < length * frameSize) {
+      final int read = in.read(block, bytes, length * frameSize - bytes);
+      if (read < 0) {
+        break;
+      }
+      bytes += read;
+    }
+    final int frames = bytes / frameSize;
+    final int stored = Math.min(frames, length - 1);
+    for (int j = 0; j < stored; j++) {
+      buffer[offset + 1 + j] = decode(block, j * frameSize);
+    }
+    final int count;
+    if (frames == length) {
+      lookAhead = decode(block, (length - 1) * frameSize);
+      count = length;
+    } else {
+      hasMoreSamples = false;
+      lookAhead = 0.0;
+      count = frames + 1;
+    }
+    advancePosition(count);
+    return count;
+  }
+
+  private double decode(final byte frame[], final int offset)
+  {
     int intSample = 0;
     if (averageChannels) {
-      for (int i = 0; i < 2 * channels; i += 2) {
-        final int lowByte = sample[i] & 0xff; // unsigned LSB
-        final int highByte = sample[i + 1]; // signed MSB
+      for (int i = offset; i < offset + 2 * channels; i += 2) {
+        final int lowByte = frame[i] & 0xff; // unsigned LSB
+        final int highByte = frame[i + 1]; // signed MSB
         intSample += highByte * 256 + lowByte;
       }
     } else {
-      final int lowByte = sample[0] & 0xff; // unsigned LSB
-      final int highByte = sample[1]; // signed MSB
+      final int lowByte = frame[offset] & 0xff; // unsigned LSB
+      final int highByte = frame[offset + 1]; // signed MSB
       intSample += highByte * 256 + lowByte;
     }
     return intSample * SAMPLE_SCALE;
@@ -162,6 +211,7 @@ public class WaveFileReader extends FiniteWave
       retry = false;
       try {
         init();
+        resetPosition();
       } catch (final FileNotFoundException e) {
         System.out.println("[garbage collecting...]");
         System.gc();
@@ -177,10 +227,27 @@ public class WaveFileReader extends FiniteWave
 
   public void skip(final long n) throws IOException
   {
-    final long skipped = in.skip(n * 2 * channels) / (2 * channels);
+    if (n <= 0) {
+      return;
+    }
+    // the sample to be returned next is already in the look-ahead,
+    // hence skip one sample less in the stream and refill the
+    // look-ahead afterwards
+    final long bytes = (n - 1) * 2 * channels;
+    long skippedBytes = 0;
+    while (skippedBytes < bytes) {
+      final long skipped = in.skip(bytes - skippedBytes);
+      if (skipped <= 0) {
+        break;
+      }
+      skippedBytes += skipped;
+    }
+    final long skipped = skippedBytes / (2 * channels) + 1;
     if (skipped != n)
       throw new IOException("skip failed: skipped " + skipped +
                             " samples");
+    lookAhead = prepareLookAhead(getPosition() + n);
+    advancePosition(n);
   }
 
   public void close() throws IOException
@@ -0,0 +1,229 @@
+/*
+ * BenchmarkFixtures.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+import org.soundpaint.dst.DST;
+import org.soundpaint.dst.SinoidalSynthWave;
+import org.soundpaint.dst.Wave;
+
+/**
+ * Test signals and fixtures shared by the benchmarks.
+ */
+class BenchmarkFixtures
+{
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+    getThreadMXBean();
+
+  private BenchmarkFixtures()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * Returns the sum of sinusoids of the specified frequencies plus
+   * some white noise, such that all spectral lines carry non-zero,
+   * non-denormal values.  The noise is seeded with the length, such
+   * that repeated runs see the same signal.
+   */
+  static double[] createSignal(final double sampleFrequency,
+                               final double frequencies[],
+                               final int length)
+    throws Exception
+  {
+    final Wave wave = new SinoidalSynthWave(sampleFrequency, frequencies);
+    final Random random = new Random(length);
+    final double samples[] = new double[length];
+    for (int j = 0; j < length; j++) {
+      samples[j] = 0.3 * wave.getNextSample() + 0.01 * random.nextGaussian();
+    }
+    return samples;
+  }
+
+  /**
+   * Returns white noise that is gated on and off in segments of
+   * random length with the specified mean, like a field recording
+   * with pauses.  Each segment is digital silence with probability
+   * silenceFraction.  The random generator is seeded with the
+   * length, such that repeated runs see the same signal.
+   */
+  static double[] createGatedNoise(final int length,
+                                   final int meanSegmentLength,
+                                   final double silenceFraction)
+  {
+    final Random random = new Random(length);
+    final double samples[] = new double[length];
+    int j = 0;
+    while (j < length) {
+      final boolean silent = random.nextDouble() < silenceFraction;
+      final int segmentLength = 1 + random.nextInt(2 * meanSegmentLength);
+      final int stop = Math.min(j + segmentLength, length);
+      for (; j < stop; j++) {
+        samples[j] = silent ? 0.0 : 0.3 * random.nextGaussian();
+      }
+    }
+    return samples;
+  }
+
+  /**
+   * Returns the frozen DST fingerprint of a synthetic slice of the
+   * specified length, which is a mix of one to three sine waves with
+   * random frequencies plus white noise of the specified amplitude.
+   * The frequencies depend only on the seed, such that fingerprints
+   * with the same seed and different noise are perturbed versions
+   * of each other.
+   */
+  static DST createFingerprint(final int resolution, final int sliceLength,
+                               final long seed, final double noise)
+  {
+    final Random random = new Random(seed);
+    final double frequencies[] = new double[1 + random.nextInt(3)];
+    for (int n = 0; n < frequencies.length; n++) {
+      // log-uniform between 0.001 and 0.2 of the sample frequency
+      frequencies[n] = 0.001 * Math.pow(200.0, random.nextDouble());
+    }
+    final Random noiseRandom =
+      new Random(~seed ^ Double.doubleToLongBits(noise));
+    final double samples[] = new double[sliceLength];
+    for (int j = 0; j < samples.length; j++) {
+      double sample = 0.0;
+      for (final double frequency : frequencies) {
+        sample += Math.sin(2.0 * Math.PI * frequency * j);
+      }
+      samples[j] =
+        sample / frequencies.length + noise * noiseRandom.nextGaussian();
+    }
+    final DST dst = new DST(resolution);
+    dst.addSamples(samples, 0, samples.length);
+    dst.freeze();
+    return dst;
+  }
+
+  /**
+   * Writes the samples as 16 bit mono wave file into a temporary
+   * file with the specified name prefix, which is deleted when the
+   * JVM exits.  Samples outside the range [-1, 1] are clipped.
+   */
+  static File writeWaveFile(final String prefix,
+                            final float sampleFrequency,
+                            final double samples[])
+    throws IOException
+  {
+    final byte data[] = new byte[2 * samples.length];
+    for (int j = 0; j < samples.length; j++) {
+      final int value =
+        Math.max(-32768,
+                 Math.min(32767, (int)Math.round(samples[j] * 32767.0)));
+      data[2 * j] = (byte)value;
+      data[2 * j + 1] = (byte)(value >> 8);
+    }
+    final AudioFormat format =
+      new AudioFormat(sampleFrequency, 16, 1, true, false);
+    final File file = File.createTempFile(prefix, ".wav");
+    file.deleteOnExit();
+    AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(data),
+                                           format, samples.length),
+                      AudioFileFormat.Type.WAVE, file);
+    return file;
+  }
+
+  /**
+   * Creates a temporary wave file of the specified duration with a
+   * 440 Hz tone plus some white noise, and a quadratic chirp of the
+   * specified amplitude, which may be 0.0 for no chirp at all.
+   */
+  static File createWaveFile(final String prefix,
+                             final float sampleFrequency,
+                             final int seconds, final double chirp)
+    throws IOException
+  {
+    final int length = (int)(seconds * sampleFrequency);
+    final double samples[] = new double[length];
+    final Random random = new Random(length);
+    for (int j = 0; j < length; j++) {
+      samples[j] =
+        0.4 * Math.sin(2.0 * Math.PI * 440.0 / sampleFrequency * j) +
+        chirp * Math.sin(2.0 * Math.PI * 0.25 / sampleFrequency * j * j /
+                         seconds) +
+        0.05 * random.nextGaussian();
+    }
+    return writeWaveFile(prefix, sampleFrequency, samples);
+  }
+
+  private static com.sun.management.ThreadMXBean getThreadMXBean()
+  {
+    final java.lang.management.ThreadMXBean bean =
+      ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+      return null;
+    }
+    final com.sun.management.ThreadMXBean sunBean =
+      (com.sun.management.ThreadMXBean)bean;
+    if (!sunBean.isThreadAllocatedMemorySupported()) {
+      return null;
+    }
+    sunBean.setThreadAllocatedMemoryEnabled(true);
+    return sunBean;
+  }
+
+  /**
+   * Returns true, if the JVM supports measuring the bytes allocated
+   * per thread, such that getAllocatedBytes() returns meaningful
+   * values.
+   */
+  static boolean isAllocationMeasured()
+  {
+    return THREAD_MX_BEAN != null;
+  }
+
+  /**
+   * Returns the number of bytes allocated so far by the current
+   * thread, or 0, if not supported by the JVM.
+   */
+  static long getAllocatedBytes()
+  {
+    return
+      THREAD_MX_BEAN != null ?
+      THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) :
+      0;
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,140 @@
+/*
+ * FingerprintExtractionBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.soundpaint.dst.DST;
+import org.soundpaint.dst.FingerprintExtractor;
+import org.soundpaint.dst.WaveFileReader;
+
+/**
+ * Compares the throughput of FingerprintExtractor for an increasing
+ * number of workers against a single thread that reads the file
+ * sample by sample and feeds each slice via DST.addSample().  The
+ * input is a temporary wave file with a synthetic signal.  Also
+ * checks that all variants yield identical fingerprints.
+ *
+ * Usage: java org.soundpaint.dst.bench.FingerprintExtractionBenchmark
+ * [seconds [resolution [sliceLength [hop]]]]
+ */
+public class FingerprintExtractionBenchmark
+{
+  private static final float SAMPLE_FREQUENCY = 44100.0f; // [Hz]
+  private static final int DEFAULT_SECONDS = 20;
+  private static final int DEFAULT_RESOLUTION = 64;
+  private static final int DEFAULT_SLICE_LENGTH = 4096;
+  private static final int DEFAULT_HOP = 2048;
+
+  private static DST[] extractSequentially(final String filename,
+                                           final int resolution,
+                                           final int sliceLength,
+                                           final int hop)
+    throws Exception
+  {
+    final WaveFileReader reader = new WaveFileReader(filename);
+    final int total = (int)reader.getTotalNumberOfSamples();
+    final double samples[] = new double[total];
+    for (int j = 0; j < total; j++) {
+      samples[j] = reader.getNextSample();
+    }
+    reader.close();
+    final int count = total < sliceLength ? 0 : (total - sliceLength) / hop + 1;
+    final DST fingerprints[] = new DST[count];
+    for (int n = 0; n < count; n++) {
+      fingerprints[n] = new DST(resolution);
+      for (int j = 0; j < sliceLength; j++) {
+        fingerprints[n].addSample(samples[n * hop + j]);
+      }
+      fingerprints[n].freeze();
+    }
+    return fingerprints;
+  }
+
+  public static void main(final String argv[]) throws Exception
+  {
+    final int seconds =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_SECONDS;
+    final int resolution =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_RESOLUTION;
+    final int sliceLength =
+      argv.length > 2 ? Integer.parseInt(argv[2]) : DEFAULT_SLICE_LENGTH;
+    final int hop =
+      argv.length > 3 ? Integer.parseInt(argv[3]) : DEFAULT_HOP;
+    final String filename =
+      BenchmarkFixtures.createWaveFile("fingerprint", SAMPLE_FREQUENCY,
+                                       seconds, 0.2).getPath();
+    final int processors = Runtime.getRuntime().availableProcessors();
+    System.out.printf("seconds: %d, resolution: %d, slice length: %d, " +
+                      "hop: %d, processors: %d%n",
+                      seconds, resolution, sliceLength, hop, processors);
+
+    // warm up
+    extractSequentially(filename, resolution, sliceLength, hop);
+    final long start = System.nanoTime();
+    final DST expected[] =
+      extractSequentially(filename, resolution, sliceLength, hop);
+    final long stop = System.nanoTime();
+    System.out.printf("%-22s %10s %14s%n", "variant", "time [s]", "slices/s");
+    System.out.printf("%-22s %10.3f %14.1f%n", "sequential",
+                      1.0e-9 * (stop - start),
+                      expected.length / (1.0e-9 * (stop - start)));
+    for (int workers = 1; workers <= Math.max(4, 2 * processors);
+         workers *= 2) {
+      final FingerprintExtractor extractor =
+        new FingerprintExtractor(filename, resolution, sliceLength, hop,
+                                 workers,
+                                 FingerprintExtractor.DEFAULT_SLICES_PER_BATCH);
+      final long extractStart = System.nanoTime();
+      int count = 0;
+      double maxDistance = 0.0;
+      try (final Stream<DST> stream = extractor.extract()) {
+        final Iterator<DST> iterator = stream.iterator();
+        while (iterator.hasNext()) {
+          final DST fingerprint = iterator.next();
+          maxDistance =
+            Math.max(maxDistance, fingerprint.distanceTo(expected[count++]));
+        }
+      }
+      final long extractStop = System.nanoTime();
+      final double time = 1.0e-9 * (extractStop - extractStart);
+      System.out.printf("%-22s %10.3f %14.1f%s%n",
+                        "extractor, " + workers + " worker" +
+                        (workers > 1 ? "s" : ""),
+                        time, count / time,
+                        (count != expected.length) || (maxDistance != 0.0) ?
+                        " (MISMATCH)" : "");
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,172 @@
+/*
+ * FingerprintIndexBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.soundpaint.dst.DST;
+import org.soundpaint.dst.FingerprintIndex;
+
+/**
+ * Measures recall and query latency of FingerprintIndex against a
+ * brute force scan with DST.distanceTo().  Fingerprints are computed
+ * from synthetic slices, each of which is a mix of a few sine waves
+ * with random frequencies plus some noise.  The index is filled
+ * concurrently from several threads.  Queries are slightly perturbed
+ * versions of indexed slices.
+ *
+ * Usage: java org.soundpaint.dst.bench.FingerprintIndexBenchmark
+ * [fingerprints [resolution [threads]]]
+ */
+public class FingerprintIndexBenchmark
+{
+  private static final int DEFAULT_FINGERPRINTS = 20000;
+  private static final int DEFAULT_RESOLUTION = 64;
+  private static final int DEFAULT_THREADS = 4;
+  private static final int SLICE_LENGTH = 1024;
+  private static final int QUERIES = 200;
+  private static final int K = 10;
+  private static final int[] PROBES = { 1, 2, 4, 8, 16, 32 };
+
+  public static void main(final String argv[]) throws Exception
+  {
+    final int count =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_FINGERPRINTS;
+    final int resolution =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_RESOLUTION;
+    final int threads =
+      argv.length > 2 ? Integer.parseInt(argv[2]) : DEFAULT_THREADS;
+    final int listCount = Math.max(1, (int)Math.sqrt(count));
+    final FingerprintIndex index =
+      new FingerprintIndex(resolution, listCount);
+    final DST fingerprints[] = new DST[count];
+    System.out.printf("fingerprints: %d, resolution: %d, lists: %d, " +
+                      "threads: %d%n", count, resolution, listCount, threads);
+
+    // fill concurrently; ids are assigned in order of arrival, hence
+    // keep track of the mapping
+    final int idToFingerprint[] = new int[count];
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final List<Future<Long>> futures = new ArrayList<Future<Long>>();
+    final long fillStart = System.nanoTime();
+    for (int t = 0; t < threads; t++) {
+      final int thread = t;
+      futures.add(executor.submit(new Callable<Long>() {
+          public Long call()
+          {
+            long insertNanos = 0;
+            for (int n = thread; n < count; n += threads) {
+              fingerprints[n] =
+                BenchmarkFixtures.createFingerprint(resolution, SLICE_LENGTH,
+                                                    n, 0.01);
+              final long start = System.nanoTime();
+              final int id = index.add(fingerprints[n]);
+              insertNanos += System.nanoTime() - start;
+              idToFingerprint[id] = n;
+            }
+            return insertNanos;
+          }
+        }));
+    }
+    long insertNanos = 0;
+    for (final Future<Long> future : futures) {
+      insertNanos += future.get();
+    }
+    final long fillStop = System.nanoTime();
+    executor.shutdown();
+    System.out.printf("fill: %.2f s (incl. computing DSTs), " +
+                      "add: %.2f µs/fingerprint%n",
+                      1.0e-9 * (fillStop - fillStart),
+                      1.0e-3 * insertNanos / count);
+
+    final Random random = new Random(QUERIES);
+    final DST queries[] = new DST[QUERIES];
+    final List<Set<Integer>> truth = new ArrayList<Set<Integer>>();
+    long bruteForceNanos = 0;
+    for (int q = 0; q < QUERIES; q++) {
+      queries[q] =
+        BenchmarkFixtures.createFingerprint(resolution, SLICE_LENGTH,
+                                            random.nextInt(count), 0.05);
+      final long start = System.nanoTime();
+      final double distances[] = new double[count];
+      for (int n = 0; n < count; n++) {
+        distances[n] = queries[q].distanceTo(fingerprints[n]);
+      }
+      bruteForceNanos += System.nanoTime() - start;
+      final Integer order[] = new Integer[count];
+      for (int n = 0; n < count; n++) order[n] = n;
+      Arrays.sort(order, new Comparator<Integer>() {
+          public int compare(final Integer a, final Integer b)
+          {
+            return Double.compare(distances[a], distances[b]);
+          }
+        });
+      final Set<Integer> nearest = new HashSet<Integer>();
+      for (int j = 0; j < Math.min(K, count); j++) {
+        nearest.add(order[j]);
+      }
+      truth.add(nearest);
+    }
+    System.out.printf("brute force: %.1f µs/query%n",
+                      1.0e-3 * bruteForceNanos / QUERIES);
+    System.out.printf("%8s %12s %16s%n", "probes", "recall@" + K,
+                      "latency [µs]");
+    for (final int probes : PROBES) {
+      if (probes > listCount) break;
+      int hits = 0;
+      long nanos = 0;
+      for (int q = 0; q < QUERIES; q++) {
+        final float query[] = queries[q].getFingerprint();
+        final long start = System.nanoTime();
+        final FingerprintIndex.Match matches[] = index.search(query, K, probes);
+        nanos += System.nanoTime() - start;
+        for (final FingerprintIndex.Match match : matches) {
+          if (truth.get(q).contains(idToFingerprint[match.getId()])) hits++;
+        }
+      }
+      System.out.printf("%8d %12.3f %16.1f%n", probes,
+                        (double)hits / (QUERIES * Math.min(K, count)),
+                        1.0e-3 * nanos / QUERIES);
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
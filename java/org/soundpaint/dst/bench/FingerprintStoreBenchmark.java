@@ -0,0 +1,157 @@
+/*
+ * FingerprintStoreBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import java.io.File;
+
+import org.soundpaint.dst.DST;
+import org.soundpaint.dst.FingerprintStore;
+import org.soundpaint.dst.FingerprintStoreWriter;
+import org.soundpaint.dst.SlidingWindowTransform;
+
+/**
+ * Writes synthetic DST fingerprints into a fingerprint store with
+ * each quantization, and reports the size per fingerprint, the time
+ * for writing and opening the store, the throughput of a full scan
+ * for the nearest neighbour, and the error of quantized distances
+ * against DST.distanceTo().  Fingerprints are repeated to reach the
+ * requested number of records, since computing them dominates
+ * otherwise.
+ *
+ * Usage: java org.soundpaint.dst.bench.FingerprintStoreBenchmark
+ * [records [resolution]]
+ */
+public class FingerprintStoreBenchmark
+{
+  private static final int DEFAULT_RECORDS = 1000000;
+  private static final int DEFAULT_RESOLUTION = 128;
+  private static final int DISTINCT_FINGERPRINTS = 2000;
+  private static final int SLICE_LENGTH = 1024;
+  private static final int QUERIES = 20;
+
+  public static void main(final String argv[]) throws Exception
+  {
+    final long records =
+      argv.length > 0 ? Long.parseLong(argv[0]) : DEFAULT_RECORDS;
+    final int resolution =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_RESOLUTION;
+    final DST fingerprints[] = new DST[DISTINCT_FINGERPRINTS];
+    for (int n = 0; n < fingerprints.length; n++) {
+      fingerprints[n] =
+        BenchmarkFixtures.createFingerprint(resolution, SLICE_LENGTH, n, 0.01);
+    }
+    final DST queries[] = new DST[QUERIES];
+    for (int q = 0; q < QUERIES; q++) {
+      queries[q] =
+        BenchmarkFixtures.createFingerprint(resolution, SLICE_LENGTH,
+                                            -1 - q, 0.01);
+    }
+    System.out.printf("records: %d, resolution: %d, " +
+                      "in-heap DST state: %d bytes/fingerprint%n",
+                      records, resolution, 3 * 8 * resolution);
+    System.out.printf("%-8s %10s %10s %10s %12s %12s %10s%n",
+                      "format", "bytes/rec", "write [s]", "open [ms]",
+                      "scan [ns/rec]", "rel. dist err", "NN agree");
+    final String names[] = { "float16", "log8" };
+    final int quantizations[] = {
+      FingerprintStore.QUANTIZATION_FLOAT16,
+      FingerprintStore.QUANTIZATION_LOG8
+    };
+    for (int m = 0; m < quantizations.length; m++) {
+      final File file = File.createTempFile("fingerprints", ".dfp");
+      file.deleteOnExit();
+      final long writeStart = System.nanoTime();
+      final FingerprintStoreWriter writer =
+        new FingerprintStoreWriter(file.getPath(),
+                                   fingerprints[0].getμ0(), resolution,
+                                   SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                                   SlidingWindowTransform.DEFAULT_UPPER_BOUND,
+                                   quantizations[m]);
+      for (long n = 0; n < records; n++) {
+        writer.add(fingerprints[(int)(n % fingerprints.length)]);
+      }
+      writer.close();
+      final long writeStop = System.nanoTime();
+
+      final long openStart = System.nanoTime();
+      final FingerprintStore store = new FingerprintStore(file.getPath());
+      final long openStop = System.nanoTime();
+
+      // quantization error over the distinct fingerprints
+      double sumSquaredError = 0.0;
+      double sumSquaredDistance = 0.0;
+      int agreements = 0;
+      final long distinct = Math.min(records, fingerprints.length);
+      for (int q = 0; q < QUERIES; q++) {
+        final float query[] = queries[q].getFingerprint();
+        double bestExact = Double.POSITIVE_INFINITY;
+        long bestExactIndex = -1;
+        double bestQuantized = Double.POSITIVE_INFINITY;
+        long bestQuantizedIndex = -1;
+        for (int n = 0; n < distinct; n++) {
+          final double exact = queries[q].distanceTo(fingerprints[n]);
+          final double quantized = store.distanceTo(n, query);
+          sumSquaredError += (quantized - exact) * (quantized - exact);
+          sumSquaredDistance += exact * exact;
+          if (exact < bestExact) {
+            bestExact = exact;
+            bestExactIndex = n;
+          }
+          if (quantized < bestQuantized) {
+            bestQuantized = quantized;
+            bestQuantizedIndex = n;
+          }
+        }
+        if (bestExactIndex == bestQuantizedIndex) agreements++;
+      }
+
+      // full scan
+      final float query[] = queries[0].getFingerprint();
+      store.findNearest(query); // warm up
+      final long scanStart = System.nanoTime();
+      final long nearest = store.findNearest(query);
+      final long scanStop = System.nanoTime();
+
+      System.out.printf("%-8s %10d %10.2f %10.3f %12.2f %12.3e %7d/%d%s%n",
+                        names[m], file.length() / Math.max(1, records),
+                        1.0e-9 * (writeStop - writeStart),
+                        1.0e-6 * (openStop - openStart),
+                        (double)(scanStop - scanStart) / records,
+                        Math.sqrt(sumSquaredError / sumSquaredDistance),
+                        agreements, QUERIES,
+                        nearest < 0 ? " (empty)" : "");
+      store.close();
+      file.delete();
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
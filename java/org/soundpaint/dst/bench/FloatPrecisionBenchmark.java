@@ -0,0 +1,191 @@
+/*
+ * FloatPrecisionBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.FloatDSTSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+
+/**
+ * Compares accuracy and throughput of the single precision DST
+ * against the double precision DST for a range of coupling constants.
+ * For each μ0, both transforms are fed with the same signal (a
+ * combination of sine waves plus some noise), and the spectra are
+ * compared at regular intervals.  A block size of 1 feeds the
+ * samples one by one through putBin(), like FrameEmitter does for a
+ * hop of 1.
+ *
+ * Next to the accuracy, the cost per sample of both variants is
+ * printed, together with the speedup of the float variant and the
+ * memory bandwidth that each variant achieves, counting the bytes of
+ * state (read and written) and coefficients (read) that the update
+ * of each sample moves.
+ *
+ * Usage: java org.soundpaint.dst.bench.FloatPrecisionBenchmark
+ * [lines [seconds [block size]]]
+ */
+public class FloatPrecisionBenchmark
+{
+  private static final double SAMPLE_FREQUENCY = 44100.0; // [Hz]
+  private static final double[] SIGNAL_FREQUENCIES = {
+    440.0, 880.0, 2637.0
+  };
+  private static final double[] μ0_VALUES = {
+    0.9, 0.99, 0.999, 0.9999, 0.99999
+  };
+  private static final int DEFAULT_LINES = 2048;
+  private static final int DEFAULT_SECONDS = 10;
+  private static final int DEFAULT_BLOCK_SIZE = 4410;
+
+  /**
+   * Bytes moved per line and sample: real and imaginary part of the
+   * state, read and written, plus the coefficients, read.
+   */
+  private static final int DOUBLE_BYTES_PER_LINE =
+    2 * 2 * Double.BYTES + 4 * Double.BYTES;
+  private static final int FLOAT_BYTES_PER_LINE =
+    2 * 2 * Float.BYTES + 4 * Float.BYTES;
+
+  private static class Error
+  {
+    private double maxRelative, sumSquared, sumSquaredReference;
+    private double maxReconstructed;
+    private int comparisons;
+  }
+
+  private static void compare(final SlidingWindowTransform reference,
+                              final SlidingWindowTransform candidate,
+                              final Error error)
+  {
+    double maxLength = 0.0;
+    double maxDiff = 0.0;
+    for (int i = 0; i < reference.getSize(); i++) {
+      final double refRe = reference.getLine(i).getRealPart();
+      final double refIm = reference.getLine(i).getImaginaryPart();
+      final double diffRe = candidate.getLine(i).getRealPart() - refRe;
+      final double diffIm = candidate.getLine(i).getImaginaryPart() - refIm;
+      final double diff2 = diffRe * diffRe + diffIm * diffIm;
+      final double length2 = refRe * refRe + refIm * refIm;
+      maxLength = Math.max(maxLength, length2);
+      maxDiff = Math.max(maxDiff, diff2);
+      error.sumSquared += diff2;
+      error.sumSquaredReference += length2;
+    }
+    error.maxRelative =
+      Math.max(error.maxRelative, Math.sqrt(maxDiff / maxLength));
+    error.maxReconstructed =
+      Math.max(error.maxReconstructed,
+               Math.abs(candidate.getReconstructedSample() -
+                        reference.getReconstructedSample()));
+    error.comparisons++;
+  }
+
+  public static void main(final String argv[]) throws Exception
+  {
+    final int lines =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_LINES;
+    final int seconds =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_SECONDS;
+    final int blockSize =
+      argv.length > 2 ? Integer.parseInt(argv[2]) : DEFAULT_BLOCK_SIZE;
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("block size <= 0");
+    }
+    final double samples[] =
+      BenchmarkFixtures.createSignal(SAMPLE_FREQUENCY, SIGNAL_FREQUENCIES,
+                                     (int)(seconds * SAMPLE_FREQUENCY) /
+                                     blockSize * blockSize);
+    System.out.printf("lines: %d, samples: %d, block size: %d%n",
+                      lines, samples.length, blockSize);
+    System.out.printf("state [bytes]: double %d, float %d; " +
+                      "moved per sample [bytes]: double %d, float %d%n",
+                      lines * 2 * Double.BYTES, lines * 2 * Float.BYTES,
+                      lines * DOUBLE_BYTES_PER_LINE,
+                      lines * FLOAT_BYTES_PER_LINE);
+    System.out.printf("%8s %12s %12s %12s %11s %11s %8s %13s %13s%n",
+                      "μ0", "max rel. err", "rms rel. err",
+                      "max rec. err", "double [ns]", "float [ns]",
+                      "speedup", "double [GB/s]", "float [GB/s]");
+    for (final double μ0 : μ0_VALUES) {
+      final DSTSlidingWindow reference =
+        new DSTSlidingWindow(μ0, lines,
+                             SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                             SlidingWindowTransform.DEFAULT_UPPER_BOUND);
+      final FloatDSTSlidingWindow candidate =
+        new FloatDSTSlidingWindow(μ0, lines,
+                                  SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                                  SlidingWindowTransform.DEFAULT_UPPER_BOUND);
+      final Error error = new Error();
+      long referenceNanos = 0;
+      long candidateNanos = 0;
+      final int compareInterval = Math.max(1, DEFAULT_BLOCK_SIZE / blockSize);
+      int blockCount = 0;
+      for (int offset = 0; offset < samples.length; offset += blockSize) {
+        final long start = System.nanoTime();
+        if (blockSize == 1) {
+          reference.putBin(samples[offset]);
+        } else {
+          reference.putBins(samples, offset, blockSize);
+        }
+        final long middle = System.nanoTime();
+        if (blockSize == 1) {
+          candidate.putBin(samples[offset]);
+        } else {
+          candidate.putBins(samples, offset, blockSize);
+        }
+        final long stop = System.nanoTime();
+        referenceNanos += middle - start;
+        candidateNanos += stop - middle;
+        if (++blockCount % compareInterval == 0) {
+          compare(reference, candidate, error);
+        }
+      }
+      final double referenceNanosPerSample =
+        (double)referenceNanos / samples.length;
+      final double candidateNanosPerSample =
+        (double)candidateNanos / samples.length;
+      System.out.printf("%8.5f %12.3e %12.3e %12.3e %11.2f %11.2f %8.2f " +
+                        "%13.2f %13.2f%n",
+                        μ0, error.maxRelative,
+                        Math.sqrt(error.sumSquared /
+                                  error.sumSquaredReference),
+                        error.maxReconstructed,
+                        referenceNanosPerSample, candidateNanosPerSample,
+                        referenceNanosPerSample / candidateNanosPerSample,
+                        (double)lines * DOUBLE_BYTES_PER_LINE /
+                        referenceNanosPerSample,
+                        (double)lines * FLOAT_BYTES_PER_LINE /
+                        candidateNanosPerSample);
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,122 @@
+/*
+ * GoertzelBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import org.soundpaint.dst.DFTSlidingWindow;
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.GoertzelSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+
+/**
+ * Compares the cost per sample of the Goertzel bank watching the
+ * first k harmonics of 50 Hz mains hum against the dense DST and
+ * sliding DFT, and reports the drift of the Goertzel lines relative
+ * to an exact recomputation after the whole signal.
+ *
+ * Usage: java org.soundpaint.dst.bench.GoertzelBenchmark
+ * [harmonics [seconds [dense lines]]]
+ */
+public class GoertzelBenchmark
+{
+  private static final double SAMPLE_FREQUENCY = 44100.0; // [Hz]
+  private static final double HUM_FREQUENCY = 50.0; // [Hz]
+  private static final int WINDOW_SIZE = 4410; // [samples]
+  private static final int DEFAULT_HARMONICS = 20;
+  private static final int DEFAULT_SECONDS = 20;
+  private static final int DEFAULT_DENSE_LINES = 2048;
+  private static final int BLOCK_SIZE = 441;
+
+  private static double measure(final SlidingWindowTransform transform,
+                                final double samples[])
+  {
+    final long start = System.nanoTime();
+    for (int offset = 0; offset < samples.length; offset += BLOCK_SIZE) {
+      transform.putBins(samples, offset,
+                        Math.min(BLOCK_SIZE, samples.length - offset));
+    }
+    final long stop = System.nanoTime();
+    return (double)(stop - start) / samples.length;
+  }
+
+  public static void main(final String argv[])
+  {
+    final int harmonics =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_HARMONICS;
+    final int seconds =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_SECONDS;
+    final int denseLines =
+      argv.length > 2 ? Integer.parseInt(argv[2]) : DEFAULT_DENSE_LINES;
+    final double frequencies[] = new double[harmonics];
+    for (int i = 0; i < harmonics; i++) {
+      frequencies[i] = HUM_FREQUENCY * (i + 1) / SAMPLE_FREQUENCY;
+    }
+    final java.util.Random random = new java.util.Random(harmonics);
+    final double samples[] = new double[(int)(seconds * SAMPLE_FREQUENCY)];
+    for (int j = 0; j < samples.length; j++) {
+      samples[j] =
+        0.5 * Math.sin(2.0 * Math.PI * frequencies[0] * j) +
+        0.1 * Math.sin(2.0 * Math.PI * 3.0 * frequencies[0] * j + 1.0) +
+        0.1 * random.nextGaussian();
+    }
+    // warm up
+    measure(new GoertzelSlidingWindow(frequencies, WINDOW_SIZE),
+            java.util.Arrays.copyOf(samples, samples.length / 4));
+    final GoertzelSlidingWindow goertzel =
+      new GoertzelSlidingWindow(frequencies, WINDOW_SIZE);
+    final double goertzelNanos = measure(goertzel, samples);
+    final double dstNanos = measure(new DSTSlidingWindow(denseLines), samples);
+    final double dftNanos = measure(new DFTSlidingWindow(denseLines), samples);
+    final double re[] = new double[harmonics];
+    final double im[] = new double[harmonics];
+    goertzel.copyState(re, im);
+    goertzel.resyncAll();
+    final double exactRe[] = new double[harmonics];
+    final double exactIm[] = new double[harmonics];
+    goertzel.copyState(exactRe, exactIm);
+    double maxDeviation = 0.0;
+    double maxMagnitude = 0.0;
+    for (int i = 0; i < harmonics; i++) {
+      maxDeviation =
+        Math.max(maxDeviation,
+                 Math.hypot(re[i] - exactRe[i], im[i] - exactIm[i]));
+      maxMagnitude = Math.max(maxMagnitude, Math.hypot(exactRe[i], exactIm[i]));
+    }
+    System.out.printf("samples: %d, window: %d, harmonics: %d, dense lines: %d%n",
+                      samples.length, WINDOW_SIZE, harmonics, denseLines);
+    System.out.printf("goertzel [ns/sample]: %.2f%n", goertzelNanos);
+    System.out.printf("dst [ns/sample]: %.2f%n", dstNanos);
+    System.out.printf("sliding dft [ns/sample]: %.2f%n", dftNanos);
+    System.out.printf("goertzel drift (max. rel. deviation): %.3e%n",
+                      maxDeviation / maxMagnitude);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,164 @@
+/*
+ * KeyframeSeekBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.soundpaint.dst.DSTCoefficients;
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.KeyframeIndex;
+import org.soundpaint.dst.SlidingWindowTransform;
+import org.soundpaint.dst.WaveFileReader;
+
+/**
+ * Builds a keyframe index for a temporary wave file with a synthetic
+ * signal, then seeks to random positions, comparing the cost against
+ * replaying the file from its start, and the resulting spectrum
+ * against a sequential analysis.
+ *
+ * Usage: java org.soundpaint.dst.bench.KeyframeSeekBenchmark
+ * [seconds [lines [interval]]]
+ */
+public class KeyframeSeekBenchmark
+{
+  private static final float SAMPLE_FREQUENCY = 44100.0f; // [Hz]
+  private static final int DEFAULT_SECONDS = 60;
+  private static final int DEFAULT_LINES = 256;
+  private static final int DEFAULT_INTERVAL = 44100;
+  private static final int SEEKS = 20;
+  private static final int REPLAYS = 3;
+
+  public static void main(final String argv[]) throws Exception
+  {
+    final int seconds =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_SECONDS;
+    final int lines =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_LINES;
+    final int interval =
+      argv.length > 2 ? Integer.parseInt(argv[2]) : DEFAULT_INTERVAL;
+    final String filename =
+      BenchmarkFixtures.createWaveFile("keyframes", SAMPLE_FREQUENCY,
+                                       seconds, 0.0).getPath();
+    final File indexFile = File.createTempFile("keyframes", ".dki");
+    indexFile.deleteOnExit();
+    final DSTCoefficients coefficients =
+      new DSTCoefficients(DSTSlidingWindow.DEFAULT_μ0, lines,
+                          SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                          SlidingWindowTransform.DEFAULT_UPPER_BOUND);
+
+    final WaveFileReader wave = new WaveFileReader(filename);
+    final long buildStart = System.nanoTime();
+    final KeyframeIndex index =
+      KeyframeIndex.build(wave, coefficients, interval, indexFile.getPath(),
+                          Runtime.getRuntime().availableProcessors());
+    final long buildStop = System.nanoTime();
+    System.out.printf("seconds: %d, lines: %d, interval: %d, " +
+                      "keyframes: %d, index size: %d bytes, " +
+                      "build: %.2f s%n",
+                      seconds, lines, interval, index.getKeyframeCount(),
+                      indexFile.length(), 1.0e-9 * (buildStop - buildStart));
+
+    // reference spectra at random positions via sequential analysis
+    final long total = index.getTotalNumberOfSamples();
+    final Random random = new Random(SEEKS);
+    final long positions[] = new long[SEEKS];
+    for (int n = 0; n < SEEKS; n++) {
+      positions[n] = (long)(random.nextDouble() * total);
+    }
+    Arrays.sort(positions);
+    final double expectedRe[][] = new double[SEEKS][lines];
+    final double expectedIm[][] = new double[SEEKS][lines];
+    final double samples[] = new double[(int)total];
+    wave.reset();
+    wave.getNextSamples(samples, 0, samples.length);
+    final DSTSlidingWindow reference = new DSTSlidingWindow(coefficients);
+    long position = 0;
+    for (int n = 0; n < SEEKS; n++) {
+      reference.putBins(samples, (int)position, (int)(positions[n] - position));
+      position = positions[n];
+      reference.copyState(expectedRe[n], expectedIm[n]);
+    }
+
+    // seek in shuffled order
+    final DSTSlidingWindow transform = new DSTSlidingWindow(coefficients);
+    final double re[] = new double[lines];
+    final double im[] = new double[lines];
+    double maxDiff = 0.0;
+    double maxLength = 0.0;
+    long seekNanos = 0;
+    long replayed = 0;
+    for (int k = 0; k < SEEKS; k++) {
+      final int n = (int)((k * 7L) % SEEKS);
+      final long start = System.nanoTime();
+      replayed += index.seek(transform, wave, positions[n]);
+      seekNanos += System.nanoTime() - start;
+      transform.copyState(re, im);
+      for (int i = 0; i < lines; i++) {
+        maxLength =
+          Math.max(maxLength, Math.hypot(expectedRe[n][i], expectedIm[n][i]));
+        maxDiff =
+          Math.max(maxDiff, Math.hypot(re[i] - expectedRe[n][i],
+                                       im[i] - expectedIm[n][i]));
+      }
+    }
+    System.out.printf("seek via keyframes: %.2f ms/seek, " +
+                      "%.0f samples replayed/seek, " +
+                      "max. rel. deviation: %.3e%n",
+                      1.0e-6 * seekNanos / SEEKS, (double)replayed / SEEKS,
+                      maxLength > 0.0 ? maxDiff / maxLength : maxDiff);
+
+    // replay from the start, for comparison
+    long replayNanos = 0;
+    for (int k = 0; k < REPLAYS; k++) {
+      final long start = System.nanoTime();
+      final DSTSlidingWindow replay = new DSTSlidingWindow(coefficients);
+      wave.reset();
+      final double buffer[] = new double[interval];
+      long remaining = positions[SEEKS - 1 - k];
+      while (remaining > 0) {
+        final int length =
+          wave.getNextSamples(buffer, 0,
+                              (int)Math.min(buffer.length, remaining));
+        replay.putBins(buffer, 0, length);
+        remaining -= length;
+      }
+      replayNanos += System.nanoTime() - start;
+    }
+    System.out.printf("replay from start: %.2f ms/seek%n",
+                      1.0e-6 * replayNanos / REPLAYS);
+    index.close();
+    wave.close();
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
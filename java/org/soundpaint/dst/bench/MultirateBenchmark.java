@@ -0,0 +1,141 @@
+/*
+ * MultirateBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.MultirateDSTSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+
+/**
+ * Compares cost and spectral output of the multirate DST against the
+ * full rate DST for a range of coupling constants.  Since the bands
+ * of the multirate DST lag behind and are updated only every 2^b
+ * samples, the spectra are compared as magnitudes averaged over the
+ * second half of the signal, sampled every FRAME_SIZE samples.
+ * For the default coupling constant, also sweeps the minimum number
+ * of decimated samples per time constant, which limits the number
+ * of bands, to show the trade-off between cost and accuracy.
+ *
+ * Usage: java org.soundpaint.dst.bench.MultirateBenchmark
+ * [lines [seconds]]
+ */
+public class MultirateBenchmark
+{
+  private static final double SAMPLE_FREQUENCY = 44100.0; // [Hz]
+  private static final double[] SIGNAL_FREQUENCIES = {
+    110.0, 440.0, 3000.0
+  };
+  private static final double[] μ0_VALUES = {
+    DSTSlidingWindow.DEFAULT_μ0, 0.999, 0.9999, 0.99999
+  };
+  private static final int[] MIN_SAMPLES_PER_TIME_CONSTANT_VALUES = {
+    64, 32, 16, 8, 4, 2, 1
+  };
+  private static final int DEFAULT_LINES = 2048;
+  private static final int DEFAULT_SECONDS = 10;
+  private static final int FRAME_SIZE = 441;
+
+  private static void compare(final double samples[], final int lines,
+                              final double μ0,
+                              final int minSamplesPerTimeConstant)
+  {
+    final DSTSlidingWindow reference =
+      new DSTSlidingWindow(μ0, lines,
+                           SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                           SlidingWindowTransform.DEFAULT_UPPER_BOUND);
+    final MultirateDSTSlidingWindow candidate =
+      new MultirateDSTSlidingWindow(μ0, lines,
+        SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+        SlidingWindowTransform.DEFAULT_UPPER_BOUND,
+        minSamplesPerTimeConstant);
+    final double referenceMagnitudes[] = new double[lines];
+    final double candidateMagnitudes[] = new double[lines];
+    long referenceNanos = 0;
+    long candidateNanos = 0;
+    for (int offset = 0; offset < samples.length; offset += FRAME_SIZE) {
+      final long start = System.nanoTime();
+      reference.putBins(samples, offset, FRAME_SIZE);
+      final long middle = System.nanoTime();
+      candidate.putBins(samples, offset, FRAME_SIZE);
+      final long stop = System.nanoTime();
+      referenceNanos += middle - start;
+      candidateNanos += stop - middle;
+      if (2 * offset >= samples.length) {
+        for (int i = 0; i < lines; i++) {
+          referenceMagnitudes[i] += reference.getLine(i).getLength();
+          candidateMagnitudes[i] += candidate.getLine(i).getLength();
+        }
+      }
+    }
+    double sumSquared = 0.0;
+    double sumSquaredReference = 0.0;
+    for (int i = 0; i < lines; i++) {
+      final double diff = candidateMagnitudes[i] - referenceMagnitudes[i];
+      sumSquared += diff * diff;
+      sumSquaredReference += referenceMagnitudes[i] * referenceMagnitudes[i];
+    }
+    System.out.printf("%8.5f %8d %6d %14.2f %14.2f %12.2f %14.3e%n",
+                      μ0, minSamplesPerTimeConstant, candidate.getBands(),
+                      (double)referenceNanos / samples.length,
+                      (double)candidateNanos / samples.length,
+                      (double)referenceNanos / candidateNanos,
+                      Math.sqrt(sumSquared / sumSquaredReference));
+  }
+
+  public static void main(final String argv[]) throws Exception
+  {
+    final int lines =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_LINES;
+    final int seconds =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_SECONDS;
+    final double samples[] =
+      BenchmarkFixtures.createSignal(SAMPLE_FREQUENCY, SIGNAL_FREQUENCIES,
+                                     (int)(seconds * SAMPLE_FREQUENCY) /
+                                     FRAME_SIZE * FRAME_SIZE);
+    System.out.printf("lines: %d, samples: %d%n", lines, samples.length);
+    System.out.printf("%8s %8s %6s %14s %14s %12s %14s%n",
+                      "μ0", "min/tc", "bands", "dst [ns]",
+                      "multirate [ns]", "speedup", "rms rel. err");
+    for (final double μ0 : μ0_VALUES) {
+      compare(samples, lines, μ0,
+              MultirateDSTSlidingWindow.DEFAULT_MIN_SAMPLES_PER_TIME_CONSTANT);
+    }
+    System.out.println();
+    System.out.println("band limit at default μ0:");
+    for (final int minSamplesPerTimeConstant :
+           MIN_SAMPLES_PER_TIME_CONSTANT_VALUES) {
+      compare(samples, lines, DSTSlidingWindow.DEFAULT_μ0,
+              minSamplesPerTimeConstant);
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
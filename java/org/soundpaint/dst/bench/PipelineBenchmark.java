@@ -0,0 +1,285 @@
+/*
+ * PipelineBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+
+import org.soundpaint.dst.DFTSlidingWindow;
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.PPMStreamOutput;
+import org.soundpaint.dst.STFTSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+import org.soundpaint.dst.SpectrumRenderer;
+import org.soundpaint.dst.WaveFileReader;
+
+/**
+ * Runs the complete pipeline of ExampleApplication, i.e. decoding a
+ * wave file, transforming it, rendering one image row per frame
+ * with HSV conversion and PPM text formatting, and writing the wave
+ * plot data, for a corpus of generated wave files, and breaks down
+ * time and allocated bytes by stage.  Also reports the GC count and
+ * time and the output throughput of each run.  Rendering is done by
+ * the same SpectrumRenderer as in ExampleApplication.
+ *
+ * Stages are measured per hop with System.nanoTime() and the
+ * allocation counter of the current thread, such that small hops
+ * add some measurement overhead, which is attributed to the stages.
+ *
+ * Usage: java org.soundpaint.dst.bench.PipelineBenchmark
+ * [seconds [hop [transforms]]], where transforms is a comma
+ * separated list of dst, dft and stft.
+ */
+public class PipelineBenchmark
+{
+  private static final float SAMPLE_FREQUENCY = 44100.0f; // [Hz]
+  private static final int LINES = 2048;
+  private static final int PLOT_HEIGHT = 50;
+  private static final int DEFAULT_SECONDS = 5;
+  private static final int DEFAULT_HOP = 441;
+  private static final String DEFAULT_TRANSFORMS = "dst,dft,stft";
+
+  private static final int STAGE_DECODE = SpectrumRenderer.STAGE_DECODE;
+  private static final int STAGE_TRANSFORM = SpectrumRenderer.STAGE_TRANSFORM;
+  private static final int STAGE_RENDER = SpectrumRenderer.STAGE_RENDER;
+  private static final int STAGE_PLOT = SpectrumRenderer.STAGE_PLOT;
+  private static final String STAGE_NAMES[] = {
+    "decode", "transform", "reconstruct", "render", "plot"
+  };
+
+  private static final String CORPUS_NAMES[] = {
+    "tones", "chirp", "noise", "bursts"
+  };
+
+  /**
+   * Accumulates time and allocated bytes per stage.
+   */
+  private static class StageClock implements SpectrumRenderer.StageClock
+  {
+    private final long nanos[] = new long[SpectrumRenderer.STAGE_COUNT];
+    private final long bytes[] = new long[SpectrumRenderer.STAGE_COUNT];
+    private long startNanos, startBytes;
+
+    public void start()
+    {
+      startBytes = BenchmarkFixtures.getAllocatedBytes();
+      startNanos = System.nanoTime();
+    }
+
+    /**
+     * Attributes everything since the last call of start() or stop()
+     * to the specified stage, and starts the next stage.
+     */
+    public void stop(final int stage)
+    {
+      final long stopNanos = System.nanoTime();
+      final long stopBytes = BenchmarkFixtures.getAllocatedBytes();
+      nanos[stage] += stopNanos - startNanos;
+      bytes[stage] += stopBytes - startBytes;
+      startBytes = stopBytes;
+      startNanos = System.nanoTime();
+    }
+  }
+
+  private static double createSample(final int corpus, final int j,
+                                     final int length, final Random random)
+  {
+    final double t = j / SAMPLE_FREQUENCY;
+    switch (corpus) {
+    case 0:
+      return
+        0.3 * Math.sin(2.0 * Math.PI * 440.0 * t) +
+        0.2 * Math.sin(2.0 * Math.PI * 880.0 * t) +
+        0.1 * Math.sin(2.0 * Math.PI * 1320.0 * t);
+    case 1:
+      final double duration = length / SAMPLE_FREQUENCY;
+      return
+        0.5 * Math.sin(2.0 * Math.PI * (50.0 + 4000.0 * t / duration) * t);
+    case 2:
+      return 0.2 * random.nextGaussian();
+    case 3:
+      return
+        (j % 11025 < 2205 ? 0.6 : 0.0) *
+        Math.sin(2.0 * Math.PI * 660.0 * t) +
+        0.01 * random.nextGaussian();
+    default:
+      throw new IllegalArgumentException("unknown corpus");
+    }
+  }
+
+  private static File createWaveFile(final int corpus, final int length)
+    throws IOException
+  {
+    final double samples[] = new double[length];
+    final Random random = new Random(corpus);
+    for (int j = 0; j < length; j++) {
+      samples[j] = createSample(corpus, j, length, random);
+    }
+    return BenchmarkFixtures.writeWaveFile(CORPUS_NAMES[corpus],
+                                           SAMPLE_FREQUENCY, samples);
+  }
+
+  private static SlidingWindowTransform createTransform(final String name,
+                                                        final int hop)
+  {
+    if ("dst".equals(name)) {
+      return new DSTSlidingWindow(LINES);
+    } else if ("dft".equals(name)) {
+      return new DFTSlidingWindow(LINES);
+    } else if ("stft".equals(name)) {
+      return new STFTSlidingWindow(LINES, hop);
+    }
+    throw new IllegalArgumentException("unknown transform: " + name);
+  }
+
+  private static long getGCCount(final List<GarbageCollectorMXBean> beans)
+  {
+    long count = 0;
+    for (final GarbageCollectorMXBean bean : beans) {
+      count += Math.max(bean.getCollectionCount(), 0);
+    }
+    return count;
+  }
+
+  private static long getGCMillis(final List<GarbageCollectorMXBean> beans)
+  {
+    long millis = 0;
+    for (final GarbageCollectorMXBean bean : beans) {
+      millis += Math.max(bean.getCollectionTime(), 0);
+    }
+    return millis;
+  }
+
+  private static void run(final String transformName, final int corpus,
+                          final File waveFile, final int length,
+                          final int hop)
+    throws IOException
+  {
+    final File imageFile = File.createTempFile("pipeline", ".ppm");
+    final File plotFile = File.createTempFile("pipeline", ".plot.data");
+    imageFile.deleteOnExit();
+    plotFile.deleteOnExit();
+    final List<GarbageCollectorMXBean> gcBeans =
+      ManagementFactory.getGarbageCollectorMXBeans();
+    final long gcCount = getGCCount(gcBeans);
+    final long gcMillis = getGCMillis(gcBeans);
+    final long startNanos = System.nanoTime();
+    final StageClock clock = new StageClock();
+    clock.start();
+    final WaveFileReader wave = new WaveFileReader(waveFile.getPath());
+    clock.stop(STAGE_DECODE);
+    final SlidingWindowTransform transform =
+      createTransform(transformName, hop);
+    clock.stop(STAGE_TRANSFORM);
+    final PPMStreamOutput imageStream =
+      new PPMStreamOutput(imageFile.getPath(),
+                          transform.getSize() + 2 * PLOT_HEIGHT,
+                          length / hop);
+    clock.stop(STAGE_RENDER);
+    final PrintWriter plotWriter = new PrintWriter(plotFile);
+    clock.stop(STAGE_PLOT);
+    final SpectrumRenderer renderer =
+      new SpectrumRenderer(imageStream, plotWriter, PLOT_HEIGHT,
+                           "dst".equals(transformName) ? 0.05 : 0.003);
+    renderer.setStageClock(clock);
+    renderer.render(transform, wave, length, hop);
+    clock.start();
+    wave.close();
+    clock.stop(STAGE_DECODE);
+    imageStream.close();
+    clock.stop(STAGE_RENDER);
+    plotWriter.close();
+    clock.stop(STAGE_PLOT);
+    final long totalNanos = System.nanoTime() - startNanos;
+    final long outputBytes = imageFile.length() + plotFile.length();
+    imageFile.delete();
+    plotFile.delete();
+    long totalBytes = 0;
+    for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+      totalBytes += clock.bytes[stage];
+    }
+    System.out.printf("%n%s on %s: %d samples, hop %d%n",
+                      transformName, CORPUS_NAMES[corpus], length, hop);
+    System.out.printf("  %-12s %10s %7s %12s %14s%n", "stage", "time [ms]",
+                      "[%]", "[ns/sample]", "alloc [B/sample]");
+    for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+      System.out.printf("  %-12s %10.1f %7.1f %12.1f %14.2f%n",
+                        STAGE_NAMES[stage], clock.nanos[stage] * 1.0e-6,
+                        100.0 * clock.nanos[stage] / totalNanos,
+                        (double)clock.nanos[stage] / length,
+                        (double)clock.bytes[stage] / length);
+    }
+    System.out.printf("  total: %.1f ms, real time factor %.2f, " +
+                      "%.2f bytes allocated per sample%s%n",
+                      totalNanos * 1.0e-6,
+                      length / SAMPLE_FREQUENCY / (totalNanos * 1.0e-9),
+                      (double)totalBytes / length,
+                      BenchmarkFixtures.isAllocationMeasured() ?
+                      "" : " (not supported)");
+    System.out.printf("  gc: %d collections, %d ms%n",
+                      getGCCount(gcBeans) - gcCount,
+                      getGCMillis(gcBeans) - gcMillis);
+    System.out.printf("  output: %d bytes, %.2f MB/s%n", outputBytes,
+                      outputBytes / (totalNanos * 1.0e-9) * 1.0e-6);
+  }
+
+  public static void main(final String argv[]) throws Exception
+  {
+    final int seconds =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_SECONDS;
+    final int hop =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_HOP;
+    final String transformNames[] =
+      (argv.length > 2 ? argv[2] : DEFAULT_TRANSFORMS).split(",");
+    final int length = (int)(seconds * SAMPLE_FREQUENCY);
+    final File waveFiles[] = new File[CORPUS_NAMES.length];
+    for (int corpus = 0; corpus < CORPUS_NAMES.length; corpus++) {
+      waveFiles[corpus] = createWaveFile(corpus, length);
+    }
+    // warm up with the first corpus file
+    for (final String transformName : transformNames) {
+      run(transformName, 0, waveFiles[0], length / 4, hop);
+    }
+    System.out.printf("%n==== measurement ====%n");
+    for (final String transformName : transformNames) {
+      for (int corpus = 0; corpus < CORPUS_NAMES.length; corpus++) {
+        run(transformName, corpus, waveFiles[corpus], length, hop);
+      }
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
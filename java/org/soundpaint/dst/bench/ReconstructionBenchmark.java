@@ -0,0 +1,200 @@
+/*
+ * ReconstructionBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import java.io.PrintStream;
+
+import org.soundpaint.dst.Complex;
+import org.soundpaint.dst.ComplexFactory;
+import org.soundpaint.dst.DFTSlidingWindow;
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+import org.soundpaint.dst.TransferFunction;
+
+/**
+ * Measures the cost of resynthesis, i.e. of putting in a sample and
+ * reconstructing a filtered sample from the updated spectrum, for
+ * the separate putBin() / getReconstructedSample() calls, the fused
+ * putBinAndReconstruct() and the block reconstruct().  Also reports
+ * the bytes allocated per sample, if the JVM supports measuring
+ * allocation per thread.
+ *
+ * Usage: java org.soundpaint.dst.bench.ReconstructionBenchmark
+ * [lines [seconds]]
+ */
+public class ReconstructionBenchmark
+{
+  private static final double SAMPLE_FREQUENCY = 44100.0; // [Hz]
+  private static final int DEFAULT_LINES = 2048;
+  private static final int DEFAULT_SECONDS = 2;
+  private static final int BLOCK_SIZE = 441;
+
+  /**
+   * Simple band-pass filter that lets pass the middle half of the
+   * spectral lines.
+   */
+  private static class BandPass implements TransferFunction
+  {
+    private final Complex values[];
+
+    private BandPass(final int length)
+    {
+      values = new Complex[length];
+      for (int i = 0; i < length; i++) {
+        final boolean pass = (i >= length / 4) && (i < 3 * length / 4);
+        values[i] = ComplexFactory.createFromCartesian(pass ? 1.0 : 0.0);
+      }
+    }
+
+    public int getLength()
+    {
+      return values.length;
+    }
+
+    public Complex getTransferValue(final int index)
+    {
+      return values[index];
+    }
+
+    public void printInfo(final PrintStream out,
+                          final double samplingFrequency,
+                          final double lowBound, final double highBound)
+    {
+      out.println("band pass");
+    }
+  }
+
+  private static interface Method
+  {
+    void run(final SlidingWindowTransform transform,
+             final double samples[], final int offset,
+             final double reconstructed[], final TransferFunction filter);
+  }
+
+  private static final String METHOD_NAMES[] = {
+    "separate", "fused", "block"
+  };
+
+  private static final Method METHODS[] = {
+    new Method() {
+      public void run(final SlidingWindowTransform transform,
+                      final double samples[], final int offset,
+                      final double reconstructed[],
+                      final TransferFunction filter)
+      {
+        for (int j = 0; j < BLOCK_SIZE; j++) {
+          transform.putBin(samples[offset + j]);
+          reconstructed[offset + j] = transform.getReconstructedSample(filter);
+        }
+      }
+    },
+    new Method() {
+      public void run(final SlidingWindowTransform transform,
+                      final double samples[], final int offset,
+                      final double reconstructed[],
+                      final TransferFunction filter)
+      {
+        for (int j = 0; j < BLOCK_SIZE; j++) {
+          reconstructed[offset + j] =
+            transform.putBinAndReconstruct(samples[offset + j], filter);
+        }
+      }
+    },
+    new Method() {
+      public void run(final SlidingWindowTransform transform,
+                      final double samples[], final int offset,
+                      final double reconstructed[],
+                      final TransferFunction filter)
+      {
+        transform.reconstruct(samples, offset, BLOCK_SIZE,
+                              reconstructed, offset, filter);
+      }
+    }
+  };
+
+  public static void main(final String argv[])
+  {
+    final int lines =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_LINES;
+    final int seconds =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_SECONDS;
+    final int length =
+      (int)(seconds * SAMPLE_FREQUENCY) / BLOCK_SIZE * BLOCK_SIZE;
+    final java.util.Random random = new java.util.Random(length);
+    final double samples[] = new double[length];
+    for (int j = 0; j < length; j++) {
+      samples[j] =
+        0.3 * Math.sin(2.0 * Math.PI * 440.0 / SAMPLE_FREQUENCY * j) +
+        0.01 * random.nextGaussian();
+    }
+    final TransferFunction filter = new BandPass(lines);
+    System.out.printf("lines: %d, samples: %d%n", lines, length);
+    System.out.printf("%-5s %-8s %-9s %12s %14s %14s%n",
+                      "type", "filter", "method", "ns/sample",
+                      "bytes/sample", "max diff");
+    for (final String type : new String[] {"DST", "DFT"}) {
+      for (final TransferFunction currentFilter :
+             new TransferFunction[] {null, filter}) {
+        double reference[] = null;
+        for (int m = 0; m < METHODS.length; m++) {
+          final SlidingWindowTransform transform =
+            "DST".equals(type) ?
+            new DSTSlidingWindow(lines) : new DFTSlidingWindow(lines);
+          final double reconstructed[] = new double[length];
+          final long startBytes = BenchmarkFixtures.getAllocatedBytes();
+          final long start = System.nanoTime();
+          for (int offset = 0; offset < length; offset += BLOCK_SIZE) {
+            METHODS[m].run(transform, samples, offset, reconstructed,
+                           currentFilter);
+          }
+          final long stop = System.nanoTime();
+          final long stopBytes = BenchmarkFixtures.getAllocatedBytes();
+          if (reference == null) {
+            reference = reconstructed;
+          }
+          double maxDiff = 0.0;
+          for (int j = 0; j < length; j++) {
+            maxDiff =
+              Math.max(maxDiff, Math.abs(reconstructed[j] - reference[j]));
+          }
+          System.out.printf("%-5s %-8s %-9s %12.2f %14.2f %14.3e%n",
+                            type, currentFilter != null ? "bandpass" : "none",
+                            METHOD_NAMES[m],
+                            (double)(stop - start) / length,
+                            (double)(stopBytes - startBytes) / length,
+                            maxDiff);
+        }
+      }
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,122 @@
+/*
+ * SilenceBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+
+/**
+ * Measures how the cost of DSTSlidingWindow.putBins() scales with
+ * the fraction of digital silence in the input, and compares the
+ * resulting spectrum against a reference that is updated sample by
+ * sample.  The signal alternates between noise and silence in
+ * segments of random length, like a field recording with pauses.
+ *
+ * Usage: java org.soundpaint.dst.bench.SilenceBenchmark
+ * [lines [seconds]]
+ */
+public class SilenceBenchmark
+{
+  private static final double SAMPLE_FREQUENCY = 44100.0; // [Hz]
+  private static final double[] SILENCE_FRACTIONS = {
+    0.0, 0.25, 0.5, 0.75, 0.9
+  };
+  private static final int DEFAULT_LINES = 2048;
+  private static final int DEFAULT_SECONDS = 10;
+  private static final int BLOCK_SIZE = 4410;
+  private static final int MEAN_SEGMENT_LENGTH = 11025;
+
+  private static double relativeError(final SlidingWindowTransform reference,
+                                      final SlidingWindowTransform candidate)
+  {
+    double maxLength = 0.0;
+    double maxDiff = 0.0;
+    for (int i = 0; i < reference.getSize(); i++) {
+      final double refRe = reference.getLine(i).getRealPart();
+      final double refIm = reference.getLine(i).getImaginaryPart();
+      final double diffRe = candidate.getLine(i).getRealPart() - refRe;
+      final double diffIm = candidate.getLine(i).getImaginaryPart() - refIm;
+      maxLength = Math.max(maxLength, refRe * refRe + refIm * refIm);
+      maxDiff = Math.max(maxDiff, diffRe * diffRe + diffIm * diffIm);
+    }
+    return maxLength > 0.0 ? Math.sqrt(maxDiff / maxLength) : 0.0;
+  }
+
+  public static void main(final String argv[])
+  {
+    final int lines =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_LINES;
+    final int seconds =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_SECONDS;
+    final int length =
+      (int)(seconds * SAMPLE_FREQUENCY) / BLOCK_SIZE * BLOCK_SIZE;
+    final SlidingWindowTransform.SampleListener perSample =
+      new SlidingWindowTransform.SampleListener() {
+        public void samplePut(final SlidingWindowTransform transform,
+                              final int offset) {}
+      };
+    System.out.printf("lines: %d, samples: %d%n", lines, length);
+    System.out.printf("%10s %14s %16s %14s%n",
+                      "silence", "per sample [ns]",
+                      "fast-forward [ns]", "max rel. err");
+    for (final double silenceFraction : SILENCE_FRACTIONS) {
+      final double samples[] =
+        BenchmarkFixtures.createGatedNoise(length, MEAN_SEGMENT_LENGTH,
+                                           silenceFraction);
+      int silent = 0;
+      for (final double sample : samples) {
+        if (sample == 0.0) silent++;
+      }
+      final DSTSlidingWindow reference = new DSTSlidingWindow(lines);
+      final DSTSlidingWindow candidate = new DSTSlidingWindow(lines);
+      long referenceNanos = 0;
+      long candidateNanos = 0;
+      double maxError = 0.0;
+      for (int offset = 0; offset < length; offset += BLOCK_SIZE) {
+        final long start = System.nanoTime();
+        reference.putBins(samples, offset, BLOCK_SIZE, perSample);
+        final long middle = System.nanoTime();
+        candidate.putBins(samples, offset, BLOCK_SIZE);
+        final long stop = System.nanoTime();
+        referenceNanos += middle - start;
+        candidateNanos += stop - middle;
+        maxError = Math.max(maxError, relativeError(reference, candidate));
+      }
+      System.out.printf("%9.1f%% %14.2f %16.2f %14.3e%n",
+                        100.0 * silent / length,
+                        (double)referenceNanos / length,
+                        (double)candidateNanos / length,
+                        maxError);
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,192 @@
+/*
+ * SnapshotBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.soundpaint.dst.DFTSlidingWindow;
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+
+/**
+ * Measures size and cost of snapshots of DST and DFT state, and
+ * checks that a restored transform continues exactly like the
+ * original one, and that restoring into a transform with different
+ * configuration is rejected.
+ *
+ * Usage: java org.soundpaint.dst.bench.SnapshotBenchmark [repetitions]
+ */
+public class SnapshotBenchmark
+{
+  private static final int[] SIZES = { 256, 1024, 4096, 16384 };
+  private static final int DEFAULT_REPETITIONS = 200;
+  private static final int SAMPLES = 4410;
+
+  private static interface Snapshotter
+  {
+    SlidingWindowTransform create(final int size);
+    void snapshot(final SlidingWindowTransform transform,
+                  final ByteArrayOutputStream out) throws IOException;
+    void restore(final SlidingWindowTransform transform,
+                 final byte data[]) throws IOException;
+    SlidingWindowTransform createMismatched(final int size);
+  }
+
+  private static final Snapshotter DST_SNAPSHOTTER = new Snapshotter() {
+      public SlidingWindowTransform create(final int size)
+      {
+        return new DSTSlidingWindow(size);
+      }
+
+      public void snapshot(final SlidingWindowTransform transform,
+                           final ByteArrayOutputStream out)
+        throws IOException
+      {
+        ((DSTSlidingWindow)transform).snapshot(Channels.newChannel(out));
+      }
+
+      public void restore(final SlidingWindowTransform transform,
+                          final byte data[])
+        throws IOException
+      {
+        ((DSTSlidingWindow)transform).
+          restore(Channels.newChannel(new ByteArrayInputStream(data)));
+      }
+
+      public SlidingWindowTransform createMismatched(final int size)
+      {
+        return
+          new DSTSlidingWindow(0.999, size,
+                               SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                               SlidingWindowTransform.DEFAULT_UPPER_BOUND);
+      }
+    };
+
+  private static final Snapshotter DFT_SNAPSHOTTER = new Snapshotter() {
+      public SlidingWindowTransform create(final int size)
+      {
+        return new DFTSlidingWindow(size);
+      }
+
+      public void snapshot(final SlidingWindowTransform transform,
+                           final ByteArrayOutputStream out)
+        throws IOException
+      {
+        ((DFTSlidingWindow)transform).snapshot(Channels.newChannel(out));
+      }
+
+      public void restore(final SlidingWindowTransform transform,
+                          final byte data[])
+        throws IOException
+      {
+        ((DFTSlidingWindow)transform).
+          restore(Channels.newChannel(new ByteArrayInputStream(data)));
+      }
+
+      public SlidingWindowTransform createMismatched(final int size)
+      {
+        return
+          new DFTSlidingWindow(size, 0.002,
+                               SlidingWindowTransform.DEFAULT_UPPER_BOUND);
+      }
+    };
+
+  public static void main(final String argv[]) throws IOException
+  {
+    final int repetitions =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_REPETITIONS;
+    final Random random = new Random(SAMPLES);
+    final double samples[] = new double[2 * SAMPLES];
+    for (int j = 0; j < samples.length; j++) {
+      samples[j] = Math.sin(0.05 * j) + 0.1 * random.nextGaussian();
+    }
+    System.out.printf("%-4s %7s %10s %14s %14s %10s %10s%n",
+                      "kind", "lines", "bytes", "snapshot [µs]",
+                      "restore [µs]", "identical", "rejected");
+    final String names[] = { "DST", "DFT" };
+    final Snapshotter snapshotters[] = { DST_SNAPSHOTTER, DFT_SNAPSHOTTER };
+    for (int k = 0; k < snapshotters.length; k++) {
+      final Snapshotter snapshotter = snapshotters[k];
+      for (final int size : SIZES) {
+        final SlidingWindowTransform original = snapshotter.create(size);
+        original.putBins(samples, 0, SAMPLES);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long snapshotStart = System.nanoTime();
+        for (int n = 0; n < repetitions; n++) {
+          out.reset();
+          snapshotter.snapshot(original, out);
+        }
+        final long snapshotStop = System.nanoTime();
+        final byte data[] = out.toByteArray();
+        final SlidingWindowTransform restored = snapshotter.create(size);
+        final long restoreStart = System.nanoTime();
+        for (int n = 0; n < repetitions; n++) {
+          snapshotter.restore(restored, data);
+        }
+        final long restoreStop = System.nanoTime();
+
+        // both must continue identically
+        original.putBins(samples, SAMPLES, SAMPLES);
+        restored.putBins(samples, SAMPLES, SAMPLES);
+        final double originalRe[] = new double[size];
+        final double originalIm[] = new double[size];
+        final double restoredRe[] = new double[size];
+        final double restoredIm[] = new double[size];
+        original.copyState(originalRe, originalIm);
+        restored.copyState(restoredRe, restoredIm);
+        final boolean identical =
+          Arrays.equals(originalRe, restoredRe) &&
+          Arrays.equals(originalIm, restoredIm);
+
+        boolean rejected = false;
+        try {
+          snapshotter.restore(snapshotter.createMismatched(size), data);
+        } catch (final IOException e) {
+          rejected = true;
+        }
+        System.out.printf("%-4s %7d %10d %14.2f %14.2f %10s %10s%n",
+                          names[k], size, data.length,
+                          1.0e-3 * (snapshotStop - snapshotStart) /
+                          repetitions,
+                          1.0e-3 * (restoreStop - restoreStart) /
+                          repetitions,
+                          identical ? "yes" : "NO", rejected ? "yes" : "NO");
+      }
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,150 @@
+/*
+ * SpectralProcessorBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import java.io.PrintStream;
+
+import org.soundpaint.dst.Complex;
+import org.soundpaint.dst.ComplexFactory;
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.MultirateDSTSlidingWindow;
+import org.soundpaint.dst.SinoidalSynthWave;
+import org.soundpaint.dst.SlidingWindowTransform;
+import org.soundpaint.dst.SpectralProcessor;
+import org.soundpaint.dst.TransferFunction;
+
+/**
+ * Runs a synthetic signal through the spectral processor with a
+ * band-pass filter whose pass band sweeps across the spectrum, thus
+ * changing its transfer values with every block, and reports the
+ * measured per-block cost for each transform.
+ *
+ * Usage: java org.soundpaint.dst.bench.SpectralProcessorBenchmark
+ * [lines [seconds [blocksize]]]
+ */
+public class SpectralProcessorBenchmark
+{
+  private static final double SAMPLE_FREQUENCY = 44100.0; // [Hz]
+  private static final int DEFAULT_LINES = 2048;
+  private static final int DEFAULT_SECONDS = 5;
+  private static final int DEFAULT_BLOCK_SIZE = 512;
+
+  /**
+   * Band-pass filter with a pass band of a quarter of the lines,
+   * which moves by one line with each call of sweep().
+   */
+  private static class SweepingBandPass implements TransferFunction
+  {
+    private final int length;
+    private int start;
+    private long modificationCount;
+
+    private SweepingBandPass(final int length)
+    {
+      this.length = length;
+      start = 0;
+      modificationCount = 0;
+    }
+
+    private void sweep()
+    {
+      start = (start + 1) % length;
+      modificationCount++;
+    }
+
+    public int getLength()
+    {
+      return length;
+    }
+
+    public long getModificationCount()
+    {
+      return modificationCount;
+    }
+
+    public Complex getTransferValue(final int index)
+    {
+      final int distance = (index - start + length) % length;
+      return ComplexFactory.createFromCartesian(distance < length / 4 ?
+                                                1.0 : 0.0);
+    }
+
+    public void printInfo(final PrintStream out,
+                          final double samplingFrequency,
+                          final double lowBound, final double highBound)
+    {
+      out.println("sweeping band pass");
+    }
+  }
+
+  public static void main(final String argv[]) throws Exception
+  {
+    final int lines =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_LINES;
+    final int seconds =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_SECONDS;
+    final int blockSize =
+      argv.length > 2 ? Integer.parseInt(argv[2]) : DEFAULT_BLOCK_SIZE;
+    final SlidingWindowTransform transforms[] = {
+      new DSTSlidingWindow(lines),
+      new MultirateDSTSlidingWindow(0.9999, lines,
+        SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+        SlidingWindowTransform.DEFAULT_UPPER_BOUND)
+    };
+    for (final SlidingWindowTransform transform : transforms) {
+      final SweepingBandPass filter = new SweepingBandPass(lines);
+      final double energy[] = new double[1];
+      final SpectralProcessor.SampleSink sink =
+        new SpectralProcessor.SampleSink() {
+          public void putSamples(final double samples[], final int offset,
+                                 final int length)
+          {
+            for (int j = offset; j < offset + length; j++) {
+              energy[0] += samples[j] * samples[j];
+            }
+            filter.sweep();
+          }
+        };
+      final SpectralProcessor processor =
+        new SpectralProcessor(new SinoidalSynthWave(SAMPLE_FREQUENCY,
+                                                    new double[] {
+                                                      110.0, 440.0, 3000.0
+                                                    }),
+                              transform, filter, sink, blockSize);
+      System.out.println("[" + transform.getClass().getSimpleName() + "]");
+      processor.process((long)(seconds * SAMPLE_FREQUENCY));
+      processor.printStatistics(System.out, SAMPLE_FREQUENCY);
+      System.out.printf("output energy: %.6e%n", energy[0]);
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,153 @@
+/*
+ * SpectrumExportBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+
+/**
+ * Compares the cost of reading a spectrum line by line via getLine()
+ * against the bulk export methods, including the approximate mode
+ * for dB values.
+ *
+ * Usage: java org.soundpaint.dst.bench.SpectrumExportBenchmark
+ * [lines [frames]]
+ */
+public class SpectrumExportBenchmark
+{
+  private static final int DEFAULT_LINES = 2048;
+  private static final int DEFAULT_FRAMES = 20000;
+  private static final double FLOOR = -120.0; // [dB]
+
+  private static interface Export
+  {
+    double run(final SlidingWindowTransform transform);
+  }
+
+  public static void main(final String argv[])
+  {
+    final int lines =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_LINES;
+    final int frames =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_FRAMES;
+    final DSTSlidingWindow transform = new DSTSlidingWindow(lines);
+    final java.util.Random random = new java.util.Random(lines);
+    final double samples[] = new double[4410];
+    for (int j = 0; j < samples.length; j++) {
+      samples[j] = Math.sin(0.05 * j) + 0.1 * random.nextGaussian();
+    }
+    transform.putBins(samples, 0, samples.length);
+    final double values[] = new double[lines];
+    final double im[] = new double[lines];
+    final float floatValues[] = new float[lines];
+    final String names[] = {
+      "getLine().getLength()", "getMagnitudes()", "getPower()",
+      "getPhases()", "copyState()", "getLogMagnitudes()",
+      "getLogMagnitudes(approx.)"
+    };
+    final Export exports[] = {
+      new Export() {
+        public double run(final SlidingWindowTransform transform) {
+          double sum = 0.0;
+          for (int i = 0; i < lines; i++) {
+            sum += transform.getLine(i).getLength();
+          }
+          return sum;
+        }
+      },
+      new Export() {
+        public double run(final SlidingWindowTransform transform) {
+          transform.getMagnitudes(values);
+          return values[lines / 2];
+        }
+      },
+      new Export() {
+        public double run(final SlidingWindowTransform transform) {
+          transform.getPower(values);
+          return values[lines / 2];
+        }
+      },
+      new Export() {
+        public double run(final SlidingWindowTransform transform) {
+          transform.getPhases(values);
+          return values[lines / 2];
+        }
+      },
+      new Export() {
+        public double run(final SlidingWindowTransform transform) {
+          transform.copyState(values, im);
+          return values[lines / 2];
+        }
+      },
+      new Export() {
+        public double run(final SlidingWindowTransform transform) {
+          transform.getLogMagnitudes(floatValues, FLOOR);
+          return floatValues[lines / 2];
+        }
+      },
+      new Export() {
+        public double run(final SlidingWindowTransform transform) {
+          transform.getLogMagnitudes(floatValues, FLOOR, true);
+          return floatValues[lines / 2];
+        }
+      }
+    };
+    System.out.printf("lines: %d, frames: %d%n", lines, frames);
+    System.out.printf("%-26s %14s%n", "method", "ns/frame");
+    for (int m = 0; m < exports.length; m++) {
+      double sink = 0.0;
+      // warm up
+      for (int n = 0; n < frames / 10; n++) {
+        sink += exports[m].run(transform);
+      }
+      final long start = System.nanoTime();
+      for (int n = 0; n < frames; n++) {
+        sink += exports[m].run(transform);
+      }
+      final long stop = System.nanoTime();
+      System.out.printf("%-26s %14.1f%s%n", names[m],
+                        (double)(stop - start) / frames,
+                        Double.isNaN(sink) ? " (NaN)" : "");
+    }
+    final float exact[] = new float[lines];
+    final float approximate[] = new float[lines];
+    transform.getLogMagnitudes(exact, FLOOR);
+    transform.getLogMagnitudes(approximate, FLOOR, true);
+    double maxDiff = 0.0;
+    for (int i = 0; i < lines; i++) {
+      maxDiff = Math.max(maxDiff, Math.abs(exact[i] - approximate[i]));
+    }
+    System.out.printf("max deviation of approximate dB values: %.3e dB%n",
+                      maxDiff);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
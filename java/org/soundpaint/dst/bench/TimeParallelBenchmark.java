@@ -0,0 +1,143 @@
+/*
+ * TimeParallelBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import java.util.Random;
+
+import org.soundpaint.dst.DSTCoefficients;
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+import org.soundpaint.dst.TimeParallelDST;
+
+/**
+ * Compares TimeParallelDST for an increasing number of workers
+ * against a sequential DSTSlidingWindow, reporting the throughput and
+ * the maximum deviation of the spectra at all chunk boundaries,
+ * relative to the largest line magnitude.
+ *
+ * Usage: java org.soundpaint.dst.bench.TimeParallelBenchmark
+ * [lines [seconds [chunkSize]]]
+ */
+public class TimeParallelBenchmark
+{
+  private static final double SAMPLE_FREQUENCY = 44100.0; // [Hz]
+  private static final int DEFAULT_LINES = 512;
+  private static final int DEFAULT_SECONDS = 20;
+  private static final int DEFAULT_CHUNK_SIZE = 4410;
+
+  public static void main(final String argv[])
+  {
+    final int lines =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_LINES;
+    final int seconds =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_SECONDS;
+    final int chunkSize =
+      argv.length > 2 ? Integer.parseInt(argv[2]) : DEFAULT_CHUNK_SIZE;
+    final DSTCoefficients coefficients =
+      new DSTCoefficients(DSTSlidingWindow.DEFAULT_μ0, lines,
+                          SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                          SlidingWindowTransform.DEFAULT_UPPER_BOUND);
+    // not a multiple of the chunk size, for exercising short chunks
+    final double samples[] =
+      new double[(int)(seconds * SAMPLE_FREQUENCY) + chunkSize / 3];
+    final Random random = new Random(samples.length);
+    for (int j = 0; j < samples.length; j++) {
+      samples[j] =
+        0.5 * Math.sin(2.0 * Math.PI * 440.0 / SAMPLE_FREQUENCY * j) +
+        0.1 * random.nextGaussian();
+    }
+    final int boundaries = (samples.length + chunkSize - 1) / chunkSize;
+    final double expectedRe[][] = new double[boundaries][lines];
+    final double expectedIm[][] = new double[boundaries][lines];
+    final DSTSlidingWindow sequential = new DSTSlidingWindow(coefficients);
+    final long start = System.nanoTime();
+    for (int b = 0; b < boundaries; b++) {
+      final int offset = b * chunkSize;
+      sequential.putBins(samples, offset,
+                         Math.min(chunkSize, samples.length - offset));
+      sequential.copyState(expectedRe[b], expectedIm[b]);
+    }
+    final long stop = System.nanoTime();
+    double maxLength = 0.0;
+    for (int b = 0; b < boundaries; b++) {
+      for (int i = 0; i < lines; i++) {
+        maxLength =
+          Math.max(maxLength, Math.hypot(expectedRe[b][i], expectedIm[b][i]));
+      }
+    }
+    System.out.printf("lines: %d, samples: %d, chunk size: %d, " +
+                      "processors: %d%n", lines, samples.length, chunkSize,
+                      Runtime.getRuntime().availableProcessors());
+    System.out.printf("%-12s %12s %16s%n", "workers", "ns/sample",
+                      "max rel. dev.");
+    System.out.printf("%-12s %12.2f %16s%n", "sequential",
+                      (double)(stop - start) / samples.length, "-");
+    final int maxWorkers =
+      Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    for (int workers = 1; workers <= maxWorkers; workers *= 2) {
+      final TimeParallelDST parallel =
+        new TimeParallelDST(coefficients, chunkSize, workers,
+                            TimeParallelDST.DEFAULT_CHUNKS_PER_GROUP);
+      final double maxDiff[] = new double[1];
+      final int count[] = new int[1];
+      final long parallelStart = System.nanoTime();
+      parallel.analyze(samples, 0, samples.length,
+                       new TimeParallelDST.BoundaryListener() {
+          public void boundaryReached(final TimeParallelDST transform,
+                                      final long position,
+                                      final double re[], final double im[])
+          {
+            final int b = count[0]++;
+            if (position != Math.min((long)(b + 1) * chunkSize,
+                                     samples.length)) {
+              throw new IllegalStateException("unexpected position " +
+                                              position);
+            }
+            for (int i = 0; i < lines; i++) {
+              maxDiff[0] =
+                Math.max(maxDiff[0],
+                         Math.hypot(re[i] - expectedRe[b][i],
+                                    im[i] - expectedIm[b][i]));
+            }
+          }
+        });
+      final long parallelStop = System.nanoTime();
+      parallel.shutdown();
+      System.out.printf("%-12d %12.2f %16.3e%s%n", workers,
+                        (double)(parallelStop - parallelStart) /
+                        samples.length,
+                        maxDiff[0] / maxLength,
+                        count[0] != boundaries ? " (MISSING BOUNDARIES)" : "");
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,115 @@
+/*
+ * TransformCostBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.bench;
+
+import org.soundpaint.dst.DFTSlidingWindow;
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.FrameEmitter;
+import org.soundpaint.dst.STFTSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+
+/**
+ * Measures the cost per frame of the DST, the sliding DFT and the
+ * FFT based STFT for a range of line counts at a fixed hop, where a
+ * frame comprises putting in hop samples and materializing the
+ * magnitudes.  The STFT uses the smallest power of two FFT size not
+ * less than the line count and recomputes its spectrum once per
+ * frame.  Per-sample transforms cost O(lines * hop) per frame, while
+ * the STFT costs O(fftSize log fftSize + lines), such that the latter
+ * wins for large hops; the last column shows the ratio of DST to STFT
+ * cost, i.e. values above 1 favor the STFT.
+ *
+ * Usage: java org.soundpaint.dst.bench.TransformCostBenchmark
+ * [hop [frames]]
+ */
+public class TransformCostBenchmark
+{
+  private static final int[] LINES = {128, 256, 512, 1024, 2048, 4096};
+  private static final int DEFAULT_HOP = 64;
+  private static final int DEFAULT_FRAMES = 2000;
+
+  private static double measure(final SlidingWindowTransform transform,
+                                final int hop, final int frames,
+                                final double samples[])
+  {
+    final FrameEmitter emitter =
+      new FrameEmitter(transform, hop, new double[transform.getSize()],
+                       new FrameEmitter.FrameListener() {
+                         public void frameEmitted(final FrameEmitter emitter,
+                                                  final long sampleCount,
+                                                  final double magnitudes[],
+                                                  final double phases[])
+                         {
+                         }
+                       });
+    // warm up with the first half, measure with the second one
+    for (int frame = 0; frame < frames / 2; frame++) {
+      emitter.putBins(samples, (frame * hop) % (samples.length - hop), hop);
+    }
+    final long start = System.nanoTime();
+    for (int frame = frames / 2; frame < frames; frame++) {
+      emitter.putBins(samples, (frame * hop) % (samples.length - hop), hop);
+    }
+    final long stop = System.nanoTime();
+    return (double)(stop - start) / (frames - frames / 2);
+  }
+
+  public static void main(final String argv[])
+  {
+    final int hop =
+      argv.length > 0 ? Integer.parseInt(argv[0]) : DEFAULT_HOP;
+    final int frames =
+      argv.length > 1 ? Integer.parseInt(argv[1]) : DEFAULT_FRAMES;
+    final java.util.Random random = new java.util.Random(hop);
+    final double samples[] = new double[Math.max(16 * hop, 44100)];
+    for (int j = 0; j < samples.length; j++) {
+      samples[j] = Math.sin(0.05 * j) + 0.1 * random.nextGaussian();
+    }
+    System.out.printf("hop: %d, frames: %d%n", hop, frames);
+    System.out.printf("%6s %8s %14s %14s %14s %10s%n",
+                      "lines", "fft size", "dst [µs]", "dft [µs]",
+                      "stft [µs]", "dst/stft");
+    for (final int lines : LINES) {
+      final STFTSlidingWindow stft = new STFTSlidingWindow(lines, hop);
+      final double dstNanos =
+        measure(new DSTSlidingWindow(lines), hop, frames, samples);
+      final double dftNanos =
+        measure(new DFTSlidingWindow(lines), hop, frames, samples);
+      final double stftNanos = measure(stft, hop, frames, samples);
+      System.out.printf("%6d %8d %14.2f %14.2f %14.2f %10.2f%n",
+                        lines, stft.getFFTSize(),
+                        dstNanos * 0.001, dftNanos * 0.001,
+                        stftNanos * 0.001, dstNanos / stftNanos);
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
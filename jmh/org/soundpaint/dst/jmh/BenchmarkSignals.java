@@ -0,0 +1,109 @@
+/*
+ * BenchmarkSignals.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.jmh;
+
+import java.io.PrintStream;
+import java.util.Random;
+
+import org.soundpaint.dst.Complex;
+import org.soundpaint.dst.ComplexFactory;
+import org.soundpaint.dst.TransferFunction;
+
+/**
+ * Test signal and filter shared by all benchmarks.
+ */
+class BenchmarkSignals
+{
+  /**
+   * Number of samples of the test signal, which is cycled through
+   * by the benchmarks that put in a single sample per invocation.
+   * Must be a power of two.
+   */
+  static final int SIGNAL_LENGTH = 1 << 14;
+
+  private BenchmarkSignals()
+  {
+    throw new UnsupportedOperationException("unsupported empty constructor");
+  }
+
+  /**
+   * Returns two sinusoids plus noise, such that all spectral lines
+   * carry non-zero, non-denormal values.
+   */
+  static double[] createSignal(final long seed)
+  {
+    final Random random = new Random(seed);
+    final double samples[] = new double[SIGNAL_LENGTH];
+    for (int j = 0; j < samples.length; j++) {
+      samples[j] =
+        0.5 * Math.sin(0.0627 * j) + 0.25 * Math.sin(0.31 * j) +
+        0.1 * random.nextGaussian();
+    }
+    return samples;
+  }
+
+  /**
+   * Simple band-pass filter that lets pass the middle half of the
+   * spectral lines.
+   */
+  static class BandPass implements TransferFunction
+  {
+    private final Complex values[];
+
+    BandPass(final int length)
+    {
+      values = new Complex[length];
+      for (int i = 0; i < length; i++) {
+        final boolean pass = (i >= length / 4) && (i < 3 * length / 4);
+        values[i] = ComplexFactory.createFromCartesian(pass ? 1.0 : 0.0);
+      }
+    }
+
+    public int getLength()
+    {
+      return values.length;
+    }
+
+    public Complex getTransferValue(final int index)
+    {
+      return values[index];
+    }
+
+    public void printInfo(final PrintStream out,
+                          final double samplingFrequency,
+                          final double lowBound, final double highBound)
+    {
+      out.println("band pass");
+    }
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,113 @@
+/*
+ * ComplexBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soundpaint.dst.CartesianComplex;
+
+/**
+ * Cost of the basic operations of CartesianComplex.  Each operation
+ * works on a fresh copy of the operand, such that repeated
+ * invocations neither overflow nor underflow.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComplexBenchmark
+{
+  private CartesianComplex a, b, result;
+
+  @Setup
+  public void setup()
+  {
+    a = new CartesianComplex(0.6, -0.8);
+    b = CartesianComplex.fromPolar(1.25, 0.3);
+    result = new CartesianComplex();
+  }
+
+  @Benchmark
+  public CartesianComplex add()
+  {
+    result.copyFrom(a);
+    result.add(b);
+    return result;
+  }
+
+  @Benchmark
+  public CartesianComplex mul()
+  {
+    result.copyFrom(a);
+    result.mul(b);
+    return result;
+  }
+
+  @Benchmark
+  public CartesianComplex div()
+  {
+    result.copyFrom(a);
+    result.div(b);
+    return result;
+  }
+
+  @Benchmark
+  public double getLength()
+  {
+    return a.getLength();
+  }
+
+  @Benchmark
+  public double getPhi()
+  {
+    return a.getPhi();
+  }
+
+  @Benchmark
+  public CartesianComplex fromPolar()
+  {
+    return CartesianComplex.fromPolar(1.25, 0.3);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,99 @@
+/*
+ * DFTBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soundpaint.dst.DFTSlidingWindow;
+import org.soundpaint.dst.TransferFunction;
+
+/**
+ * Cost of a single sliding DFT update and of reconstructing a
+ * sample, with and without filter, i.e. the time per sample.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DFTBenchmark
+{
+  @Param({"256", "1024", "4096", "16384", "65536"})
+  public int lines;
+
+  private DFTSlidingWindow transform;
+  private TransferFunction filter;
+  private double samples[];
+  private int samplePos;
+
+  @Setup
+  public void setup()
+  {
+    transform = new DFTSlidingWindow(lines);
+    filter = new BenchmarkSignals.BandPass(lines);
+    samples = BenchmarkSignals.createSignal(lines);
+    transform.putBins(samples, 0, samples.length);
+    samplePos = 0;
+  }
+
+  @Benchmark
+  public void putBin()
+  {
+    transform.putBin(samples[samplePos]);
+    samplePos = (samplePos + 1) & (BenchmarkSignals.SIGNAL_LENGTH - 1);
+  }
+
+  @Benchmark
+  public double getReconstructedSample()
+  {
+    return transform.getReconstructedSample();
+  }
+
+  @Benchmark
+  public double getReconstructedSampleFiltered()
+  {
+    return transform.getReconstructedSample(filter);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
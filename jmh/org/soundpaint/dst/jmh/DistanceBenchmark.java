@@ -0,0 +1,92 @@
+/*
+ * DistanceBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soundpaint.dst.DST;
+
+/**
+ * Cost of comparing two frozen fingerprints.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmark
+{
+  /**
+   * Number of samples put into each fingerprint.
+   */
+  private static final int SLICE_LENGTH = 4410;
+
+  @Param({"256", "1024", "4096", "16384", "65536"})
+  public int lines;
+
+  private DST fingerprint, other;
+
+  private static DST createFingerprint(final int lines, final long seed)
+  {
+    final DST dst = new DST(lines);
+    final double samples[] = BenchmarkSignals.createSignal(seed);
+    dst.addSamples(samples, 0, SLICE_LENGTH);
+    dst.freeze();
+    return dst;
+  }
+
+  @Setup
+  public void setup()
+  {
+    fingerprint = createFingerprint(lines, 1);
+    other = createFingerprint(lines, 2);
+  }
+
+  @Benchmark
+  public double distanceTo()
+  {
+    return fingerprint.distanceTo(other);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */
@@ -0,0 +1,106 @@
+/*
+ * ParallelDSTBenchmark.java
+ * (C) 2026 by
+ * Jürgen Reuter <http://www.juergen-reuter.de/>
+ *
+ * Project Website: http://www.soundpaint.org/spectral-transform/
+ * Jürgen Reuter, Rheinstr. 86, 76185 Karlsruhe, Germany.
+ *
+ * This file is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 3 of the License,
+ * or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * $Author$
+ * $Date$
+ * $Id$
+ */
+package org.soundpaint.dst.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.soundpaint.dst.DSTSlidingWindow;
+import org.soundpaint.dst.ParallelDSTSlidingWindow;
+import org.soundpaint.dst.SlidingWindowTransform;
+
+/**
+ * Scalability of the line-partitioned DST over the number of worker
+ * threads.  Samples are put in as blocks, since a single sample is
+ * not worth the hand-off to the workers; the reported time is
+ * nevertheless the time per sample.  Compare against the "threads =
+ * 1" row for the speedup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelDSTBenchmark
+{
+  private static final int BLOCK_SIZE = 256;
+
+  @Param({"256", "1024", "4096", "16384", "65536"})
+  public int lines;
+
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+
+  private ParallelDSTSlidingWindow transform;
+  private double samples[];
+  private int samplePos;
+
+  @Setup
+  public void setup()
+  {
+    transform =
+      new ParallelDSTSlidingWindow(DSTSlidingWindow.DEFAULT_μ0, lines,
+                                   SlidingWindowTransform.DEFAULT_LOWER_BOUND,
+                                   SlidingWindowTransform.DEFAULT_UPPER_BOUND,
+                                   threads);
+    samples = BenchmarkSignals.createSignal(lines);
+    samplePos = 0;
+  }
+
+  @TearDown
+  public void tearDown()
+  {
+    transform.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BLOCK_SIZE)
+  public void putBins()
+  {
+    transform.putBins(samples, samplePos, BLOCK_SIZE);
+    samplePos = (samplePos + BLOCK_SIZE) & (BenchmarkSignals.SIGNAL_LENGTH - 1);
+  }
+}
+
+/*
+ * Local Variables:
+ *   coding:utf-8
+ * End:
+ */